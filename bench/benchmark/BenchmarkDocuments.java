@@ -0,0 +1,148 @@
+package benchmark;
+
+import javafx.scene.paint.Color;
+import model.command.DrawableEllipse;
+import model.command.DrawableLine;
+import model.command.DrawableRectangle;
+import model.command.DrawableSquiggle;
+import model.command.IDrawableCommandFactory;
+import model.command.RandomShapeGenerator;
+import model.command.helpers.ShapeBounds;
+import model.command.helpers.ShapeDimensions;
+import model.command.helpers.ShapeSettings;
+import model.command.helpers.SquiggleCoordinates;
+import model.document.Document;
+
+import java.util.Random;
+
+/**
+ * This class generates the drawings the benchmarks run against. The same seed always
+ * generates the same drawing, so runs can be compared with each other
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+public class BenchmarkDocuments {
+
+    //size of the drawing area of a DoodleView window
+    public static final double CANVAS_WIDTH = 1000;
+    public static final double CANVAS_HEIGHT = 600;
+
+    public static final long SEED = 42;
+
+    //a user only picks a handful of styles, so generated shapes share a small palette
+    private static final int NUM_OF_STYLES = 8;
+
+    //a user draws a few shapes before picking another style, on average this many
+    private static final int STYLE_RUN = 8;
+
+    //one shape in this many is a squiggle, with this many points
+    private static final int SQUIGGLE_EVERY = 10;
+    private static final int SQUIGGLE_POINTS = 64;
+
+    //largest size of a generated shape
+    private static final double MAX_SHAPE_SIZE = 150;
+
+    private BenchmarkDocuments() {
+    }
+
+    /**
+     * This function generates a drawing of lines, ovals, rectangles and squiggles on the canvas
+     * @param numOfShapes is the number of shapes in the drawing
+     * @param seed is the seed the shapes are generated from
+     * @return returns the drawing, with every shape in its undo history
+     */
+    public static Document generate(int numOfShapes, long seed) {
+        Random random = new Random(seed);
+        ShapeSettings[] styles = generateStyles(random);
+        Document document = new Document();
+        ShapeSettings style = styles[0];
+        for(int i = 0; i < numOfShapes; i++) {
+            if(random.nextInt(STYLE_RUN) == 0) {
+                style = styles[random.nextInt(styles.length)];
+            }
+            document.push(generateShape(random, style, i));
+        }
+        return document;
+    }
+
+    /**
+     * This function generates a drawing the way the Generate Random Shapes menu item does,
+     * with lines, ovals and rectangles made on every core and added in one batch
+     * @param numOfShapes is the number of shapes in the drawing
+     * @param seed is the seed the shapes are generated from
+     * @return returns the drawing, with every shape in its undo history
+     */
+    public static Document generateRandom(int numOfShapes, long seed) {
+        Document document = new Document();
+        document.pushAll(new RandomShapeGenerator(seed, new ShapeBounds(0, 0, CANVAS_WIDTH, CANVAS_HEIGHT))
+                .generate(numOfShapes));
+        return document;
+    }
+
+    /**
+     * This function generates a squiggle path that wanders across the canvas
+     * @param numOfPoints is the number of points in the path
+     * @param seed is the seed the path is generated from
+     * @return returns the path
+     */
+    public static SquiggleCoordinates generatePath(int numOfPoints, long seed) {
+        Random random = new Random(seed);
+        double[] coordinateX = new double[numOfPoints];
+        double[] coordinateY = new double[numOfPoints];
+        double x = CANVAS_WIDTH / 2;
+        double y = CANVAS_HEIGHT / 2;
+        for(int i = 0; i < numOfPoints; i++) {
+            //mouse events a few pixels apart, kept on the canvas
+            x = clamp(x + random.nextGaussian() * 3, CANVAS_WIDTH);
+            y = clamp(y + random.nextGaussian() * 3, CANVAS_HEIGHT);
+            coordinateX[i] = x;
+            coordinateY[i] = y;
+        }
+        return new SquiggleCoordinates(coordinateX, coordinateY);
+    }
+
+    /**
+     * returns the style every benchmark draws single shapes with
+     * @return returns a 2 pixel black stroke with no fill
+     */
+    public static ShapeSettings getDefaultStyle() {
+        return new ShapeSettings(2, Color.BLACK, false, Color.WHITE);
+    }
+
+    private static ShapeSettings[] generateStyles(Random random) {
+        ShapeSettings[] styles = new ShapeSettings[NUM_OF_STYLES];
+        for(int i = 0; i < styles.length; i++) {
+            styles[i] = ShapeSettings.intern(
+                    1 + random.nextInt(5),
+                    Color.rgb(random.nextInt(256), random.nextInt(256), random.nextInt(256)),
+                    random.nextBoolean(),
+                    Color.rgb(random.nextInt(256), random.nextInt(256), random.nextInt(256))
+            );
+        }
+        return styles;
+    }
+
+    private static IDrawableCommandFactory generateShape(Random random, ShapeSettings style, int index) {
+        double startX = random.nextDouble() * CANVAS_WIDTH;
+        double startY = random.nextDouble() * CANVAS_HEIGHT;
+        ShapeDimensions dimensions = new ShapeDimensions(startX, startY,
+                clamp(startX + (random.nextDouble() - 0.5) * MAX_SHAPE_SIZE, CANVAS_WIDTH),
+                clamp(startY + (random.nextDouble() - 0.5) * MAX_SHAPE_SIZE, CANVAS_HEIGHT));
+
+        if(index % SQUIGGLE_EVERY == SQUIGGLE_EVERY - 1) {
+            return new DrawableSquiggle(style, dimensions, generatePath(SQUIGGLE_POINTS, random.nextLong()));
+        }
+        switch (random.nextInt(3)) {
+            case 0 :
+                return new DrawableLine(style, dimensions);
+            case 1 :
+                return new DrawableEllipse(style, dimensions);
+            default :
+                return new DrawableRectangle(style, dimensions);
+        }
+    }
+
+    private static double clamp(double value, double max) {
+        return Math.max(0, Math.min(value, max));
+    }
+}
@@ -0,0 +1,69 @@
+package benchmark;
+
+import model.command.DrawableEllipse;
+import model.command.helpers.ShapeBounds;
+import model.command.helpers.ShapeDimensions;
+import model.command.helpers.ShapeSettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class benchmarks building an ellipse, which the controller does for every MOUSE_DRAGGED
+ * event while an oval is being drawn. The constructor normalizes the drag into a box with
+ * calculateDraw. Drags go in every direction, so both sides of its min and abs math are taken
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EllipseBenchmark {
+
+    //number of different drags cycled through, a power of two
+    private static final int NUM_OF_DRAGS = 1024;
+
+    private double[] drags = new double[NUM_OF_DRAGS * 4];
+    private ShapeSettings style;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(BenchmarkDocuments.SEED);
+        for(int i = 0; i < drags.length; i += 2) {
+            drags[i] = random.nextDouble() * BenchmarkDocuments.CANVAS_WIDTH;
+            drags[i + 1] = random.nextDouble() * BenchmarkDocuments.CANVAS_HEIGHT;
+        }
+        style = BenchmarkDocuments.getDefaultStyle();
+    }
+
+    @Benchmark
+    public DrawableEllipse construct() {
+        return new DrawableEllipse(style, nextDrag());
+    }
+
+    //the preview padding and the spatial index both ask for the bounds straight after
+    @Benchmark
+    public ShapeBounds constructWithBounds() {
+        return new DrawableEllipse(style, nextDrag()).getBounds();
+    }
+
+    //the ellipse keeps and rewrites its dimensions, so every one needs its own
+    private ShapeDimensions nextDrag() {
+        int i = (next++ & (NUM_OF_DRAGS - 1)) * 4;
+        return new ShapeDimensions(drags[i], drags[i + 1], drags[i + 2], drags[i + 3]);
+    }
+}
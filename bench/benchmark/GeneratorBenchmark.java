@@ -0,0 +1,59 @@
+package benchmark;
+
+import model.command.IDrawableCommandFactory;
+import model.command.RandomShapeGenerator;
+import model.command.helpers.ShapeBounds;
+import model.document.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class benchmarks generating random shapes for load testing, on every core, and adding
+ * them to a document in one batch like the Generate Random Shapes menu item does
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeneratorBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int numOfShapes;
+
+    private RandomShapeGenerator generator;
+
+    @Setup
+    public void setup() {
+        generator = new RandomShapeGenerator(BenchmarkDocuments.SEED,
+                new ShapeBounds(0, 0, BenchmarkDocuments.CANVAS_WIDTH, BenchmarkDocuments.CANVAS_HEIGHT));
+    }
+
+    @Benchmark
+    public IDrawableCommandFactory[] generate() {
+        return generator.generate(numOfShapes);
+    }
+
+    //the document is closed so the history's columns don't pile up between calls
+    @Benchmark
+    public int generateAndAdd() {
+        Document document = BenchmarkDocuments.generateRandom(numOfShapes, BenchmarkDocuments.SEED);
+        int size = document.size();
+        document.close();
+        return size;
+    }
+}
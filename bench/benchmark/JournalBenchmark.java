@@ -0,0 +1,110 @@
+package benchmark;
+
+import model.command.IDrawableCommandFactory;
+import model.document.Document;
+import model.io.CommandJournal;
+import model.render.RasterShapeRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class benchmarks the work DoodleView does on MOUSE_RELEASED, with and without a
+ * crash recovery journal on the document: clearing the redo history, pushing the finished
+ * shape and drawing it. The journal writer syncs on its own thread, so the sampled latencies
+ * show what the FX thread pays for journaling
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JournalBenchmark {
+
+    //number of different shapes cycled through, a power of two
+    private static final int NUM_OF_SHAPES = 1024;
+
+    //the history is cleared this often, so it doesn't grow for the whole run
+    private static final int SHAPES_PER_DRAWING = 4096;
+
+    @Param({"false", "true"})
+    private boolean journaled;
+
+    private File directory;
+    private CommandJournal journal;
+    private IDrawableCommandFactory[] shapes = new IDrawableCommandFactory[NUM_OF_SHAPES];
+    private RasterShapeRenderer raster;
+    private Document document;
+    private int released;
+
+    @Setup
+    public void setup() throws IOException {
+        Document source = BenchmarkDocuments.generate(NUM_OF_SHAPES, BenchmarkDocuments.SEED);
+        for(int i = 0; i < shapes.length; i++) {
+            shapes[i] = source.get(i);
+        }
+        raster = new RasterShapeRenderer((int) BenchmarkDocuments.CANVAS_WIDTH, (int) BenchmarkDocuments.CANVAS_HEIGHT);
+
+        if(journaled) {
+            directory = Files.createTempDirectory("doodle-bench").toFile();
+            journal = CommandJournal.open(directory);
+            journal.recover();
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void startDrawing() {
+        document = new Document();
+        document.setJournal(journal);
+    }
+
+    //entries still waiting for the writer are written before the next iteration starts
+    @TearDown(Level.Iteration)
+    public void finishDrawing() throws IOException {
+        if(journal != null) {
+            journal.flush();
+        }
+        document.close();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if(journal != null) {
+            journal.close();
+            for(File file : directory.listFiles()) {
+                file.delete();
+            }
+            directory.delete();
+        }
+    }
+
+    @Benchmark
+    public int release() {
+        IDrawableCommandFactory shape = shapes[released & (NUM_OF_SHAPES - 1)];
+        document.clearRedo();
+        document.push(shape);
+        shape.draw(raster);
+        if(++released % SHAPES_PER_DRAWING == 0) {
+            document.clearUndo();
+        }
+        return document.size();
+    }
+}
@@ -0,0 +1,89 @@
+package benchmark;
+
+import controller.Session;
+import controller.ShapeController;
+import model.command.helpers.PointBuffer;
+import model.command.helpers.SquiggleCoordinates;
+import model.document.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class benchmarks recording the points of a squiggle as the mouse is dragged, like
+ * DoodleView.recordCoordinates does for every MOUSE_DRAGGED event. Each invocation is a whole
+ * stroke, and the results are per point, so the GC profiler's gc.alloc.rate.norm is the
+ * bytes allocated per recorded point
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PointCaptureBenchmark {
+
+    //mouse events in one stroke
+    private static final int STROKE_POINTS = 4096;
+
+    private double[] coordinateX;
+    private double[] coordinateY;
+    private Session session;
+    private ShapeController controller;
+
+    @Setup
+    public void setup() {
+        SquiggleCoordinates path = BenchmarkDocuments.generatePath(STROKE_POINTS, BenchmarkDocuments.SEED);
+        coordinateX = path.getCoordinateX();
+        coordinateY = path.getCoordinateY();
+        session = new Session();
+        session.setShapeSettings(BenchmarkDocuments.getDefaultStyle());
+        controller = new ShapeController(new Document(), session);
+    }
+
+    //a new buffer for the stroke, then every point through the controller's simplifying filter
+    @Benchmark
+    @OperationsPerInvocation(STROKE_POINTS)
+    public PointBuffer recordStroke() {
+        controller.recordCoordinates(new PointBuffer());
+        controller.setInitXAndY(coordinateX[0], coordinateY[0]);
+        for(int i = 0; i < STROKE_POINTS; i++) {
+            controller.recordPoint(coordinateX[i], coordinateY[i]);
+        }
+        return session.getPoints();
+    }
+
+    //a new buffer growing from its default capacity
+    @Benchmark
+    @OperationsPerInvocation(STROKE_POINTS)
+    public PointBuffer appendPoints() {
+        PointBuffer buffer = new PointBuffer();
+        for(int i = 0; i < STROKE_POINTS; i++) {
+            buffer.add(coordinateX[i], coordinateY[i]);
+        }
+        return buffer;
+    }
+
+    //a new buffer that never has to grow
+    @Benchmark
+    @OperationsPerInvocation(STROKE_POINTS)
+    public PointBuffer appendPointsPresized() {
+        PointBuffer buffer = new PointBuffer(STROKE_POINTS);
+        for(int i = 0; i < STROKE_POINTS; i++) {
+            buffer.add(coordinateX[i], coordinateY[i]);
+        }
+        return buffer;
+    }
+}
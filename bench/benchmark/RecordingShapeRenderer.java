@@ -0,0 +1,180 @@
+package benchmark;
+
+import javafx.scene.paint.Paint;
+import model.render.IShapeRenderer;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.FloatBuffer;
+
+/**
+ * This class is a renderer that draws nothing. It hands every call's arguments to a JMH blackhole
+ * and counts the calls, so a benchmark measures the cost of walking the shapes without
+ * the cost of filling pixels, and the JIT can't optimize the walk away
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+public class RecordingShapeRenderer implements IShapeRenderer {
+
+    private Blackhole blackhole;
+    private long calls;
+
+    /**
+     * This is the RecordingShapeRenderer constructor
+     * @param blackhole is the blackhole every argument is handed to
+     */
+    public RecordingShapeRenderer(Blackhole blackhole) {
+        this.blackhole = blackhole;
+    }
+
+    /**
+     * returns the number of drawing calls made so far
+     * @return returns the number of drawing calls made so far
+     */
+    public long getCalls() {
+        return calls;
+    }
+
+    @Override
+    public void setStroke(Paint paint) {
+        record(paint);
+    }
+
+    @Override
+    public void setLineWidth(double width) {
+        record(width);
+    }
+
+    @Override
+    public void setFill(Paint paint) {
+        record(paint);
+    }
+
+    @Override
+    public void strokeLine(double x1, double y1, double x2, double y2) {
+        record(x1, y1, x2, y2);
+    }
+
+    @Override
+    public void strokeRect(double x, double y, double width, double height) {
+        record(x, y, width, height);
+    }
+
+    @Override
+    public void fillRect(double x, double y, double width, double height) {
+        record(x, y, width, height);
+    }
+
+    @Override
+    public void strokeOval(double x, double y, double width, double height) {
+        record(x, y, width, height);
+    }
+
+    @Override
+    public void fillOval(double x, double y, double width, double height) {
+        record(x, y, width, height);
+    }
+
+    @Override
+    public void strokePolyline(double[] xPoints, double[] yPoints, int numPoints) {
+        recordPoints(xPoints, yPoints, numPoints);
+    }
+
+    @Override
+    public void fillPolygon(double[] xPoints, double[] yPoints, int numPoints) {
+        recordPoints(xPoints, yPoints, numPoints);
+    }
+
+    @Override
+    public void strokePolyline(FloatBuffer xPoints, FloatBuffer yPoints, int offset, int numPoints) {
+        recordPoints(xPoints, yPoints, offset, numPoints);
+    }
+
+    @Override
+    public void fillPolygon(FloatBuffer xPoints, FloatBuffer yPoints, int offset, int numPoints) {
+        recordPoints(xPoints, yPoints, offset, numPoints);
+    }
+
+    @Override
+    public void beginPath() {
+        calls++;
+    }
+
+    @Override
+    public void moveTo(double x, double y) {
+        record(x, y);
+    }
+
+    @Override
+    public void lineTo(double x, double y) {
+        record(x, y);
+    }
+
+    @Override
+    public void rect(double x, double y, double width, double height) {
+        record(x, y, width, height);
+    }
+
+    @Override
+    public void oval(double x, double y, double width, double height) {
+        record(x, y, width, height);
+    }
+
+    @Override
+    public void stroke() {
+        calls++;
+    }
+
+    @Override
+    public void clearRect(double x, double y, double width, double height) {
+        record(x, y, width, height);
+    }
+
+    private void record(Object value) {
+        calls++;
+        blackhole.consume(value);
+    }
+
+    //fixed numbers of arguments, so recording a call never allocates
+    private void record(double value) {
+        calls++;
+        blackhole.consume(value);
+    }
+
+    private void record(double x, double y) {
+        calls++;
+        blackhole.consume(x);
+        blackhole.consume(y);
+    }
+
+    private void record(double x, double y, double width, double height) {
+        calls++;
+        blackhole.consume(x);
+        blackhole.consume(y);
+        blackhole.consume(width);
+        blackhole.consume(height);
+    }
+
+    //a renderer has to read every point it's given
+    private void recordPoints(double[] xPoints, double[] yPoints, int numPoints) {
+        calls++;
+        for(int i = 0; i < numPoints; i++) {
+            blackhole.consume(xPoints[i]);
+            blackhole.consume(yPoints[i]);
+        }
+    }
+
+    private void recordPoints(FloatBuffer xPoints, FloatBuffer yPoints, int offset, int numPoints) {
+        calls++;
+        for(int i = offset; i < offset + numPoints; i++) {
+            blackhole.consume(xPoints.get(i));
+            blackhole.consume(yPoints.get(i));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RecordingShapeRenderer{" +
+                "calls=" + calls +
+                '}';
+    }
+}
@@ -0,0 +1,86 @@
+package benchmark;
+
+import controller.Session;
+import controller.ShapeController;
+import model.command.helpers.ShapeBounds;
+import model.document.Document;
+import model.render.RasterShapeRenderer;
+import model.render.StateCachingRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class benchmarks redrawing a whole drawing, like ShapeController.drawAllShapes does
+ * after a window resize or an undo with no checkpoint to start from. The shapes are replayed
+ * through the controller into a headless raster, and into a recording renderer that only
+ * measures walking the shapes. The controller draws runs of same-style shapes together through
+ * the document's display list, which is compared against drawing every shape on its own
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReplayBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int numOfShapes;
+
+    private ShapeController controller;
+    private ShapeBounds canvasBounds;
+    private RasterShapeRenderer raster;
+
+    @Setup
+    public void setup() {
+        controller = new ShapeController(BenchmarkDocuments.generate(numOfShapes, BenchmarkDocuments.SEED), new Session());
+        canvasBounds = new ShapeBounds(0, 0, BenchmarkDocuments.CANVAS_WIDTH, BenchmarkDocuments.CANVAS_HEIGHT);
+        raster = new RasterShapeRenderer((int) BenchmarkDocuments.CANVAS_WIDTH, (int) BenchmarkDocuments.CANVAS_HEIGHT);
+    }
+
+    @Benchmark
+    public int[] replayRaster() {
+        raster.clearRect(0, 0, BenchmarkDocuments.CANVAS_WIDTH, BenchmarkDocuments.CANVAS_HEIGHT);
+        controller.replayRegion(raster, canvasBounds, 0);
+        return raster.getPixels();
+    }
+
+    @Benchmark
+    public long replayRecording(Blackhole blackhole) {
+        RecordingShapeRenderer recorder = new RecordingShapeRenderer(blackhole);
+        controller.replayRegion(recorder, canvasBounds, 0);
+        return recorder.getCalls();
+    }
+
+    //every shape drawn on its own, the way replay worked before the display list
+    @Benchmark
+    public long replayRecordingPerShape(Blackhole blackhole) {
+        RecordingShapeRenderer recorder = new RecordingShapeRenderer(blackhole);
+        Document document = controller.getDocument();
+        for(int position : document.query(canvasBounds)) {
+            document.get(position).draw(recorder);
+        }
+        return recorder.getCalls();
+    }
+
+    @Benchmark
+    public long replayRecordingStateCached(Blackhole blackhole) {
+        RecordingShapeRenderer recorder = new RecordingShapeRenderer(blackhole);
+        controller.replayRegion(new StateCachingRenderer(recorder), canvasBounds, 0);
+        return recorder.getCalls();
+    }
+}
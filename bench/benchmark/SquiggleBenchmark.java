@@ -0,0 +1,64 @@
+package benchmark;
+
+import model.command.DrawableSquiggle;
+import model.command.helpers.ShapeDimensions;
+import model.command.helpers.SquiggleCoordinates;
+import model.render.RasterShapeRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class benchmarks drawing a squiggle with a long path, into a headless raster
+ * and into a recording renderer that only measures handing the path over
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SquiggleBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int numOfPoints;
+
+    private DrawableSquiggle squiggle;
+    private RasterShapeRenderer raster;
+
+    @Setup
+    public void setup() {
+        SquiggleCoordinates path = BenchmarkDocuments.generatePath(numOfPoints, BenchmarkDocuments.SEED);
+        squiggle = new DrawableSquiggle(BenchmarkDocuments.getDefaultStyle(), new ShapeDimensions(
+                path.getCoordinateX()[0], path.getCoordinateY()[0],
+                path.getCoordinateX()[numOfPoints - 1], path.getCoordinateY()[numOfPoints - 1]
+        ), path);
+        raster = new RasterShapeRenderer((int) BenchmarkDocuments.CANVAS_WIDTH, (int) BenchmarkDocuments.CANVAS_HEIGHT);
+    }
+
+    @Benchmark
+    public int[] drawRaster() {
+        squiggle.draw(raster);
+        return raster.getPixels();
+    }
+
+    @Benchmark
+    public long drawRecording(Blackhole blackhole) {
+        RecordingShapeRenderer recorder = new RecordingShapeRenderer(blackhole);
+        squiggle.draw(recorder);
+        return recorder.getCalls();
+    }
+}
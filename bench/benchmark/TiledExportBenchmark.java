@@ -0,0 +1,71 @@
+package benchmark;
+
+import model.document.Document;
+import model.render.TiledRasterizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class benchmarks rendering a 100k shape drawing into a 4K image with the tiled
+ * rasterizer, on 1, 2, 4 and every core, to show how the export scales
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TiledExportBenchmark {
+
+    private static final int NUM_OF_SHAPES = 100000;
+    private static final int IMAGE_WIDTH = 3840;
+
+    //0 is every core
+    @Param({"1", "2", "4", "0"})
+    private int threads;
+
+    private Document document;
+    private ForkJoinPool pool;
+    private TiledRasterizer rasterizer;
+    private int[] pixels;
+    private int imageHeight;
+    private double scale;
+
+    @Setup
+    public void setup() {
+        document = BenchmarkDocuments.generate(NUM_OF_SHAPES, BenchmarkDocuments.SEED);
+        pool = new ForkJoinPool(threads == 0 ? Runtime.getRuntime().availableProcessors() : threads);
+        rasterizer = new TiledRasterizer(pool, TiledRasterizer.DEFAULT_TILE_SIZE);
+        scale = IMAGE_WIDTH / BenchmarkDocuments.CANVAS_WIDTH;
+        imageHeight = (int) Math.round(BenchmarkDocuments.CANVAS_HEIGHT * scale);
+        pixels = new int[IMAGE_WIDTH * imageHeight];
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public int[] render() {
+        Arrays.fill(pixels, 0);
+        rasterizer.render(document, pixels, IMAGE_WIDTH, scale, 0, imageHeight);
+        return pixels;
+    }
+}
@@ -0,0 +1,372 @@
+package controller;
+
+import javafx.scene.canvas.Canvas;
+import model.command.helpers.PointBuffer;
+import model.document.Document;
+import model.io.DocumentFile;
+import model.io.InputRecorder;
+import model.io.ShapeCodec;
+import model.metrics.LatencyHistogram;
+import model.metrics.PerformanceMonitor;
+import model.render.Viewport;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class replays a recording made by an InputRecorder without a window, driving a
+ * ShapeController with the recorded events the way a DoodleView's handlers would, and times
+ * how long each event takes to process. A recorded session can then be rerun as a repeatable
+ * performance test.
+ *
+ * Events can be replayed at full speed, one straight after another, or in real time, waiting
+ * until each one is due. Frames are replayed as events, since there's no animation timer without
+ * a window. The drawing the recording started from, the random tool's seed and the view are
+ * restored first, so the replay builds the same shapes the user did.
+ *
+ * Canvas pictures can only be taken on the JavaFX application thread, so the document's
+ * checkpoints are turned off and repaints replay from the start of the history.
+ * A replayer isn't thread safe, it belongs to the thread that runs it
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+public class InputReplayer {
+
+    //canvas size, view, smoothing and seed at the start of the file
+    private static final int HEADER_SIZE = 4 + 4 + 4 + 4 + 8 + 8 + 8 + 4 + 8;
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final long NANOS_PER_MICRO = 1000;
+
+    private File file;
+    private ByteBuffer buffer;
+
+    //what the events are replayed against
+    private Document document;
+    private Session session = new Session();
+    private PerformanceMonitor monitor = new PerformanceMonitor();
+    private ShapeController controller;
+    private Canvas canvas;
+    private Canvas previewCanvas;
+
+    //what the user was doing, like the DoodleView's fields
+    private String tool = "Line";
+    private boolean drawing;
+    private boolean panning;
+
+    //how long each kind of event took to process
+    private LatencyHistogram[] histograms = new LatencyHistogram[InputRecorder.NAMES.length];
+    private long events;
+    private long totalNanos;
+    private boolean truncated;
+
+    private InputReplayer(File file, ByteBuffer buffer, Document document) {
+        this.file = file;
+        this.buffer = buffer;
+        this.document = document;
+        this.controller = new ShapeController(document, session, monitor);
+        for(int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * This function opens a recording and sets up the drawing, canvas and view it started with
+     * @param file is the recording
+     * @return returns the replayer, ready to run
+     * @throws IOException if the recording or its drawing couldn't be read, or isn't a recording
+     */
+    public static InputReplayer open(File file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if(channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(file + " is too large to replay");
+            }
+            //the mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if(buffer.limit() < HEADER_SIZE || buffer.getInt() != InputRecorder.MAGIC
+                || buffer.getInt() != InputRecorder.VERSION) {
+            throw new IOException(file + " isn't an input recording");
+        }
+
+        //the drawing is only saved next to the recording if it wasn't empty
+        File drawing = InputRecorder.getDrawingFile(file);
+        Document document = drawing.exists() ? DocumentFile.open(drawing) : new Document();
+        document.getCheckpoints().setEnabled(false);
+
+        InputReplayer replayer = new InputReplayer(file, buffer, document);
+        replayer.canvas = new Canvas(buffer.getFloat(), buffer.getFloat());
+        replayer.previewCanvas = new Canvas(replayer.canvas.getWidth(), replayer.canvas.getHeight());
+        replayer.controller.setView(buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+        replayer.session.setSimplifyTolerance(buffer.getFloat());
+        replayer.session.setRandom(new SplittableRandom(buffer.getLong()));
+
+        //drawing the starting view isn't part of the recording, so it isn't timed
+        replayer.controller.redrawView(replayer.canvas, replayer.previewCanvas);
+        replayer.monitor.reset();
+        return replayer;
+    }
+
+    /**
+     * This function replays every event in the recording, timing each one. A recording cut short,
+     * like one from a program that didn't close properly, is replayed up to its last whole event
+     * @param realTime is true to wait until each event is due, false to replay them as fast as possible
+     */
+    public void run(boolean realTime) {
+        long runStart = System.nanoTime();
+        long dueMicros = 0;
+        try {
+            while(buffer.hasRemaining()) {
+                byte operation = buffer.get();
+                dueMicros += buffer.getInt();
+                if(operation < 0 || operation >= histograms.length) {
+                    throw new IllegalStateException(file + " has an unknown event " + operation);
+                }
+                if(realTime) {
+                    waitUntil(runStart + dueMicros * NANOS_PER_MICRO);
+                }
+
+                long start = System.nanoTime();
+                apply(operation);
+                long nanos = System.nanoTime() - start;
+                histograms[operation].record(nanos);
+                totalNanos += nanos;
+                events++;
+            }
+        } catch (BufferUnderflowException e) {
+            truncated = true;
+        }
+    }
+
+    //does what the DoodleView did when the event happened
+    private void apply(byte operation) {
+        Viewport viewport = controller.getViewport();
+        switch (operation) {
+            case InputRecorder.PRESS :
+                double x = viewport.toWorldX(buffer.getFloat());
+                double y = viewport.toWorldY(buffer.getFloat());
+                if(panning) {
+                    return;
+                }
+                drawing = true;
+                PointBuffer points = new PointBuffer();
+                points.add(x, y);
+                controller.recordCoordinates(points);
+                controller.setInitXAndY(x, y);
+                if(tool.equals("Random")) {
+                    controller.drawRandomShape(x, y, previewCanvas);
+                }
+                break;
+            case InputRecorder.DRAG :
+                double dragX = viewport.toWorldX(buffer.getFloat());
+                double dragY = viewport.toWorldY(buffer.getFloat());
+                if(drawing) {
+                    controller.dragTo(dragX, dragY);
+                }
+                break;
+            case InputRecorder.FRAME :
+                controller.redrawView(canvas, previewCanvas);
+                renderDrag();
+                break;
+            case InputRecorder.RELEASE :
+                if(!drawing) {
+                    return;
+                }
+                drawing = false;
+                renderDrag();
+                controller.clearRedo();
+                controller.clearPreview(previewCanvas);
+                controller.commitShape(canvas);
+                if(tool.equals("Squiggle")) {
+                    monitor.strokeFinished(session.getRawPointCount(), session.getKeptPointCount());
+                }
+                break;
+            case InputRecorder.TOOL :
+                byte[] name = new byte[buffer.get() & 0xff];
+                buffer.get(name);
+                tool = new String(name, StandardCharsets.UTF_8);
+                break;
+            case InputRecorder.SETTINGS :
+                controller.setColorSettings(
+                        buffer.getFloat(),
+                        ShapeCodec.fromArgb(buffer.getInt()),
+                        buffer.get() != 0,
+                        ShapeCodec.fromArgb(buffer.getInt())
+                );
+                break;
+            case InputRecorder.SMOOTHING :
+                session.setSimplifyTolerance(buffer.getFloat());
+                break;
+            case InputRecorder.UNDO :
+                controller.undoShape(canvas);
+                break;
+            case InputRecorder.REDO :
+                controller.redoShape(canvas);
+                break;
+            case InputRecorder.CLEAR :
+                controller.clearCanvas(canvas);
+                controller.clearCanvas(previewCanvas);
+                controller.clearAll();
+                break;
+            case InputRecorder.ZOOM :
+                controller.zoomAt(buffer.getDouble(), buffer.getFloat(), buffer.getFloat());
+                if(controller.redrawView(canvas, previewCanvas)) {
+                    controller.settleView(canvas);
+                }
+                break;
+            case InputRecorder.PAN :
+                panning = true;
+                controller.pan(buffer.getFloat(), buffer.getFloat());
+                break;
+            case InputRecorder.PAN_END :
+                panning = false;
+                controller.redrawView(canvas, previewCanvas);
+                controller.settleView(canvas);
+                break;
+            case InputRecorder.FIT :
+                controller.fitToContent(canvas.getWidth(), canvas.getHeight());
+                controller.redrawView(canvas, previewCanvas);
+                break;
+            case InputRecorder.RESET_VIEW :
+                controller.resetView();
+                controller.redrawView(canvas, previewCanvas);
+                break;
+            case InputRecorder.GENERATE :
+                //the view generated on a worker thread, the replay times the whole thing
+                int count = buffer.getInt();
+                long seed = buffer.getLong();
+                controller.addShapes(controller.getShapeGenerator(seed, canvas).generate(count), canvas);
+                break;
+            default : // resize
+                double width = buffer.getFloat();
+                double height = buffer.getFloat();
+                canvas.setWidth(width);
+                canvas.setHeight(height);
+                previewCanvas.setWidth(width);
+                previewCanvas.setHeight(height);
+                break;
+        }
+    }
+
+    private void renderDrag() {
+        if(controller.hasPendingShape()) {
+            long start = System.nanoTime();
+            controller.drawPendingShape(tool, previewCanvas);
+            monitor.recordSince(PerformanceMonitor.RENDER, start);
+        }
+    }
+
+    //parks until a time, spinning for the last part of it since parking can oversleep
+    private static void waitUntil(long dueNanos) {
+        long remaining;
+        while((remaining = dueNanos - System.nanoTime()) > 0) {
+            if(remaining > NANOS_PER_MILLI) {
+                LockSupport.parkNanos(remaining - (long) NANOS_PER_MILLI);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * returns how long one kind of event took to process
+     * @param operation is the operation byte of the event, like InputRecorder.DRAG
+     * @return returns the histogram of processing times in nanoseconds
+     */
+    public LatencyHistogram getHistogram(int operation) {
+        return histograms[operation];
+    }
+
+    /**
+     * returns the monitor the controller recorded repaint, construct and render times in
+     * @return returns the controller's performance monitor
+     */
+    public PerformanceMonitor getMonitor() {
+        return monitor;
+    }
+
+    /**
+     * returns the drawing the events were replayed on
+     * @return returns the document
+     */
+    public Document getDocument() {
+        return document;
+    }
+
+    /**
+     * returns the number of events replayed
+     * @return returns the number of events replayed
+     */
+    public long getEventCount() {
+        return events;
+    }
+
+    /**
+     * returns true if the recording ended partway through an event
+     * @return returns true if the recording was cut short
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * This function returns a table of how long each kind of event took to process, with the
+     * controller's own repaint, construct and render times, and the shapes the replay ended with
+     * @return returns the report, one line per kind of event that happened
+     */
+    public String getReport() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("%s: %d events in %.1f ms%s%n", file.getName(), events,
+                totalNanos / NANOS_PER_MILLI, truncated ? " (cut short)" : ""));
+        for(int i = 0; i < histograms.length; i++) {
+            appendLine(text, InputRecorder.NAMES[i], histograms[i]);
+        }
+        for(int metric : new int[] {PerformanceMonitor.REPAINT, PerformanceMonitor.CONSTRUCT, PerformanceMonitor.RENDER}) {
+            appendLine(text, PerformanceMonitor.NAMES[metric], monitor.getHistogram(metric));
+        }
+        text.append(String.format("shapes %d  history %d (%d to redo)%n",
+                document.size(), document.size() + document.getRedoSize(), document.getRedoSize()));
+        return text.toString();
+    }
+
+    private static void appendLine(StringBuilder text, String name, LatencyHistogram histogram) {
+        if(histogram.getCount() == 0) {
+            return;
+        }
+        text.append(String.format("%-10s p50 %8.3f  p99 %8.3f  p99.9 %8.3f  max %8.3f ms  (%d)%n",
+                name,
+                histogram.getValueAtPercentile(50) / NANOS_PER_MILLI,
+                histogram.getValueAtPercentile(99) / NANOS_PER_MILLI,
+                histogram.getValueAtPercentile(99.9) / NANOS_PER_MILLI,
+                histogram.getMax() / NANOS_PER_MILLI,
+                histogram.getCount()));
+    }
+
+    /**
+     * This function lets go of the drawing the events were replayed on
+     */
+    public void close() {
+        document.close();
+    }
+
+    @Override
+    public String toString() {
+        return "InputReplayer{" +
+                "file=" + file +
+                ", tool='" + tool + '\'' +
+                ", events=" + events +
+                ", totalNanos=" + totalNanos +
+                ", truncated=" + truncated +
+                ", controller=" + controller +
+                '}';
+    }
+}
@@ -0,0 +1,425 @@
+package controller;
+
+import model.command.IDrawableCommandFactory;
+import model.command.helpers.PointBuffer;
+import model.command.helpers.ShapeBounds;
+import model.command.helpers.ShapeDimensions;
+import model.command.helpers.ShapeSettings;
+import model.render.Viewport;
+
+import java.util.SplittableRandom;
+
+/**
+ * This class holds the state of a user drawing on a document: the coordinates of the
+ * in-progress shape, its squiggle path, the current shape settings, and the part of the
+ * preview canvas the in-progress shape is drawn on.
+ *
+ * A session isn't thread safe. It belongs to the thread that delivers its input,
+ * which is the JavaFX thread for a DoodleView
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+public class Session {
+
+    //default squiggle simplification tolerance in pixels
+    public static final double DEFAULT_SIMPLIFY_TOLERANCE = 1.0;
+
+    //in-progress shape, waiting to be committed
+    private IDrawableCommandFactory shape;
+
+    //coordinates that need to be passed along
+    private double startX;
+    private double endX;
+    private double startY;
+    private double endY;
+
+    //points of the squiggle path
+    private PointBuffer points = new PointBuffer();
+
+    //how far in pixels a squiggle can be moved by simplifying its path
+    private double simplifyTolerance = DEFAULT_SIMPLIFY_TOLERANCE;
+
+    //number of points recorded for the squiggle, and how many were kept after simplifying
+    private int rawPointCount;
+    private int keptPointCount;
+
+    //shape settings that need to be passed along
+    private ShapeSettings shapeSettings;
+
+    //area of the preview canvas covered by the in-progress shape
+    private boolean hasPreview;
+    private double previewMinX;
+    private double previewMinY;
+    private double previewMaxX;
+    private double previewMaxY;
+
+    //part of the drawing the user is looking at, shape coordinates are on the drawing and not the canvas
+    private Viewport viewport = new Viewport();
+
+    //where the random tool's numbers come from, one source for every random shape
+    private SplittableRandom random = new SplittableRandom();
+
+    //number of squiggle points already drawn to the preview canvas
+    private int pathPointsDrawn;
+
+    //where the mouse was last dragged to, if the in-progress shape hasn't been drawn out to it yet
+    private boolean hasPendingEnd;
+    private double pendingEndX;
+    private double pendingEndY;
+
+    //area covered by the squiggle path drawn so far
+    private double pathMinX;
+    private double pathMinY;
+    private double pathMaxX;
+    private double pathMaxY;
+
+    /**
+     * This function starts a new shape at the first coordinates
+     * @param initX is the first x coordinate
+     * @param initY if the first y coordinate
+     */
+    public void start(double initX, double initY) {
+        startX = initX;
+        startY = initY;
+        endX = initX;
+        endY = initY;
+
+        //a new squiggle path starts out at the first coordinates
+        hasPendingEnd = false;
+        pathPointsDrawn = 0;
+        pathMinX = initX;
+        pathMinY = initY;
+        pathMaxX = initX;
+        pathMaxY = initY;
+    }
+
+    /**
+     * sets the last coordinates of the shape, growing the squiggle path's area to cover them
+     * @param x is the last x coordinate
+     * @param y is the last y coordinate
+     */
+    public void setEnd(double x, double y) {
+        endX = x;
+        endY = y;
+        growPath(x, y);
+    }
+
+    /**
+     * This function records where the mouse was dragged to, before the in-progress shape is drawn out to it.
+     * The squiggle path's area grows to cover every drag, even the ones that are never drawn to on their own
+     * @param x is the x coordinate the mouse was dragged to
+     * @param y is the y coordinate the mouse was dragged to
+     */
+    public void setPendingEnd(double x, double y) {
+        hasPendingEnd = true;
+        pendingEndX = x;
+        pendingEndY = y;
+        growPath(x, y);
+    }
+
+    /**
+     * returns true if the mouse has been dragged since the in-progress shape was last drawn
+     * @return returns true if the in-progress shape needs drawing
+     */
+    public boolean hasPendingEnd() {
+        return hasPendingEnd;
+    }
+
+    /**
+     * returns the x coordinate the mouse was last dragged to
+     * @return returns the x coordinate the mouse was last dragged to
+     */
+    public double getPendingEndX() {
+        return pendingEndX;
+    }
+
+    /**
+     * returns the y coordinate the mouse was last dragged to
+     * @return returns the y coordinate the mouse was last dragged to
+     */
+    public double getPendingEndY() {
+        return pendingEndY;
+    }
+
+    /**
+     * This function records that the in-progress shape has been drawn out to the last drag
+     */
+    public void clearPendingEnd() {
+        hasPendingEnd = false;
+    }
+
+    private void growPath(double x, double y) {
+        pathMinX = Math.min(pathMinX, x);
+        pathMinY = Math.min(pathMinY, y);
+        pathMaxX = Math.max(pathMaxX, x);
+        pathMaxY = Math.max(pathMaxY, y);
+    }
+
+    /**
+     * returns the first x coordinate
+     * @return returns the first x coordinate
+     */
+    public double getStartX() {
+        return startX;
+    }
+
+    /**
+     * returns the first y coordinate
+     * @return returns the first y coordinate
+     */
+    public double getStartY() {
+        return startY;
+    }
+
+    /**
+     * returns the last x coordinate
+     * @return returns the last x coordinate
+     */
+    public double getEndX() {
+        return endX;
+    }
+
+    /**
+     * returns the last y coordinate
+     * @return returns the last y coordinate
+     */
+    public double getEndY() {
+        return endY;
+    }
+
+    /**
+     * returns new shape dimensions from the first to the last coordinates
+     * @return returns new shape dimensions from the first to the last coordinates
+     */
+    public ShapeDimensions getShapeDimensions() {
+        return new ShapeDimensions(startX, startY, endX, endY);
+    }
+
+    /**
+     * returns the in-progress shape
+     * @return returns the in-progress shape, or null if there isn't one
+     */
+    public IDrawableCommandFactory getShape() {
+        return shape;
+    }
+
+    /**
+     * sets the in-progress shape
+     * @param shape is the in-progress shape, or null once it's finished
+     */
+    public void setShape(IDrawableCommandFactory shape) {
+        this.shape = shape;
+    }
+
+    /**
+     * returns the settings for new shapes
+     * @return returns the settings for new shapes
+     */
+    public ShapeSettings getShapeSettings() {
+        return shapeSettings;
+    }
+
+    /**
+     * sets the settings for new shapes
+     * @param shapeSettings is the settings for new shapes
+     */
+    public void setShapeSettings(ShapeSettings shapeSettings) {
+        this.shapeSettings = shapeSettings;
+    }
+
+    /**
+     * returns the points of the squiggle path
+     * @return returns the points of the squiggle path
+     */
+    public PointBuffer getPoints() {
+        return points;
+    }
+
+    /**
+     * sets the points of the squiggle path, and starts counting the points recorded for it
+     * @param points is the points of the squiggle path
+     */
+    public void setPoints(PointBuffer points) {
+        this.points = points;
+        rawPointCount = points.size();
+        keptPointCount = points.size();
+    }
+
+    /**
+     * returns the squiggle simplification tolerance in pixels
+     * @return returns the squiggle simplification tolerance in pixels
+     */
+    public double getSimplifyTolerance() {
+        return simplifyTolerance;
+    }
+
+    /**
+     * sets how far in pixels a squiggle can be moved by simplifying its path, 0 keeps every point that matters
+     * @param simplifyTolerance is the simplification tolerance in pixels
+     */
+    public void setSimplifyTolerance(double simplifyTolerance) {
+        this.simplifyTolerance = simplifyTolerance;
+    }
+
+    /**
+     * returns the part of the drawing the user is looking at
+     * @return returns the session's viewport
+     */
+    public Viewport getViewport() {
+        return viewport;
+    }
+
+    /**
+     * returns where the random tool's numbers come from
+     * @return returns the session's random number source
+     */
+    public SplittableRandom getRandom() {
+        return random;
+    }
+
+    /**
+     * sets where the random tool's numbers come from, so the random shapes can be repeated from a seed
+     * @param random is the random number source
+     */
+    public void setRandom(SplittableRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * returns the number of points recorded for the last squiggle
+     * @return returns the number of points recorded for the last squiggle
+     */
+    public int getRawPointCount() {
+        return rawPointCount;
+    }
+
+    /**
+     * This function counts another point recorded for the squiggle
+     */
+    public void countRawPoint() {
+        rawPointCount++;
+    }
+
+    /**
+     * returns the number of points the last squiggle was stored with after simplifying
+     * @return returns the number of points the last squiggle was stored with
+     */
+    public int getKeptPointCount() {
+        return keptPointCount;
+    }
+
+    /**
+     * sets the number of points the last squiggle was stored with after simplifying
+     * @param keptPointCount is the number of points the squiggle was stored with
+     */
+    public void setKeptPointCount(int keptPointCount) {
+        this.keptPointCount = keptPointCount;
+    }
+
+    /**
+     * returns the number of squiggle points already drawn to the preview canvas
+     * @return returns the number of squiggle points already drawn to the preview canvas
+     */
+    public int getPathPointsDrawn() {
+        return pathPointsDrawn;
+    }
+
+    /**
+     * sets the number of squiggle points already drawn to the preview canvas
+     * @param pathPointsDrawn is the number of squiggle points already drawn
+     */
+    public void setPathPointsDrawn(int pathPointsDrawn) {
+        this.pathPointsDrawn = pathPointsDrawn;
+    }
+
+    /**
+     * This function records that the in-progress shape covers the area between its first and last coordinates
+     */
+    public void previewShape() {
+        setPreview(startX, startY, endX, endY);
+    }
+
+    /**
+     * This function records that the in-progress shape covers every point its squiggle path has passed through
+     */
+    public void previewPath() {
+        setPreview(pathMinX, pathMinY, pathMaxX, pathMaxY);
+    }
+
+    /**
+     * This function records that the in-progress shape covers an area, like a random shape
+     * @param bounds is the area the in-progress shape covers
+     */
+    public void previewArea(ShapeBounds bounds) {
+        setPreview(bounds.getMinX(), bounds.getMinY(), bounds.getMaxX(), bounds.getMaxY());
+    }
+
+    private void setPreview(double x1, double y1, double x2, double y2) {
+        hasPreview = true;
+        previewMinX = Math.min(x1, x2);
+        previewMinY = Math.min(y1, y2);
+        previewMaxX = Math.max(x1, x2);
+        previewMaxY = Math.max(y1, y2);
+    }
+
+    /**
+     * returns true if the in-progress shape is drawn on the preview canvas
+     * @return returns true if the in-progress shape is drawn on the preview canvas
+     */
+    public boolean hasPreview() {
+        return hasPreview;
+    }
+
+    /**
+     * This function records that the preview canvas has been cleared
+     */
+    public void clearPreview() {
+        hasPreview = false;
+    }
+
+    /**
+     * returns the smallest x coordinate covered by the in-progress shape
+     * @return returns the smallest x coordinate covered by the in-progress shape
+     */
+    public double getPreviewMinX() {
+        return previewMinX;
+    }
+
+    /**
+     * returns the smallest y coordinate covered by the in-progress shape
+     * @return returns the smallest y coordinate covered by the in-progress shape
+     */
+    public double getPreviewMinY() {
+        return previewMinY;
+    }
+
+    /**
+     * returns the largest x coordinate covered by the in-progress shape
+     * @return returns the largest x coordinate covered by the in-progress shape
+     */
+    public double getPreviewMaxX() {
+        return previewMaxX;
+    }
+
+    /**
+     * returns the largest y coordinate covered by the in-progress shape
+     * @return returns the largest y coordinate covered by the in-progress shape
+     */
+    public double getPreviewMaxY() {
+        return previewMaxY;
+    }
+
+    @Override
+    public String toString() {
+        return "Session{" +
+                "shape=" + shape +
+                ", startX=" + startX +
+                ", startY=" + startY +
+                ", endX=" + endX +
+                ", endY=" + endY +
+                ", points=" + points.size() +
+                ", shapeSettings=" + shapeSettings +
+                ", viewport=" + viewport +
+                '}';
+    }
+}
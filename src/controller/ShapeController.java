@@ -1,178 +1,383 @@
 package controller;
 
 import javafx.scene.canvas.Canvas;
-import javafx.scene.input.MouseEvent;
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Paint;
 import model.command.*;
 import model.command.helpers.*;
-import java.util.Random;
-import java.util.Stack;
+import model.document.Document;
+import model.memento.CanvasMemento;
+import model.metrics.PerformanceMonitor;
+import model.render.FxShapeRenderer;
+import model.render.IShapeRenderer;
+import model.render.LevelOfDetailRenderer;
+import model.render.StateCachingRenderer;
+import model.render.Viewport;
+import java.util.SplittableRandom;
 
 /**
  * This class controls all interaction between drawable shapes in the
- * model layer, and the doodle application in the view layer
+ * model layer, and the doodle application in the view layer.
+ *
+ * Each controller connects one input session to one document, and follows their threading rules:
+ * it's used by the one thread that owns both of them
  * @author Chauncey Brown-Castro
  * @version 1.0
  */
 public class ShapeController {
 
-    //shape for the undo redoShape stacks
-    private static IDrawableCommandFactory shape;
+    //number of shapes (Line, Oval, Rectangle)
+    private static final int NUM_OF_SHAPES = 3;
 
-    //undo and redoShape
-    private static Stack<IDrawableCommandFactory> undo = new Stack<>();
-    private static Stack<IDrawableCommandFactory> redo = new Stack<>();
+    //miter joins can reach out half the miter limit (10) times the stroke size
+    private static final int PREVIEW_PADDING = 5;
 
-    //coordinates that need to be passed along
-    private static double startX;
-    private static double endX;
-    private static double startY;
-    private static double endY;
+    //once zoomed out, squiggle points closer together than this many canvas pixels are drawn as one
+    private static final double LOD_TOLERANCE = 0.5;
 
-    private static double[] xCoordinates;
-    private static double[] yCoordinates;
+    //space in canvas pixels left around the drawing when it's fit to the canvas
+    private static final double FIT_MARGIN = 20;
 
-    //shape settings that need to be passed along
-    private static ShapeSettings shapeSettings;
+    //the drawing, and the user drawing on it
+    private Document document;
+    private Session session;
 
-    //number of shapes (Line, Oval, Rectangle)
-    private static final int NUM_OF_SHAPES = 3;
+    //times shapes being built and the canvas being repainted
+    private PerformanceMonitor monitor;
+
+    //true if the viewport has moved since the canvas was last drawn, and how long that drawing took
+    private boolean viewChanged;
+    private long viewRedrawNanos;
+
+    /**
+     * This is the ShapeController constructor, with a performance monitor of its own
+     * @param document is the drawing to be controlled
+     * @param session is the input state of the user drawing on the document
+     */
+    public ShapeController(Document document, Session session) {
+        this(document, session, new PerformanceMonitor());
+    }
+
+    /**
+     * This is the ShapeController constructor
+     * @param document is the drawing to be controlled
+     * @param session is the input state of the user drawing on the document
+     * @param monitor is where the time taken to build shapes and repaint the canvas is recorded
+     */
+    public ShapeController(Document document, Session session, PerformanceMonitor monitor) {
+        this.document = document;
+        this.session = session;
+        this.monitor = monitor;
+    }
+
+    /**
+     * returns the document being drawn on
+     * @return returns the document being drawn on
+     */
+    public Document getDocument() {
+        return document;
+    }
+
+    /**
+     * returns the input session drawing on the document
+     * @return returns the input session drawing on the document
+     */
+    public Session getSession() {
+        return session;
+    }
 
-    private ShapeController() {
-        //do nothing
+    /**
+     * returns the monitor the controller's timings are recorded in
+     * @return returns the performance monitor
+     */
+    public PerformanceMonitor getMonitor() {
+        return monitor;
     }
 
     /**
      * @param shapeType is the shape type to be drawn
-     * @param event is the mouse event object
+     * @param x is the x coordinate of the mouse
+     * @param y is the y coordinate of the mouse
      * @param canvas is the canvas to be drawn on
      */
-    public static void drawShape(String shapeType, MouseEvent event, Canvas canvas) {
+    public void drawShape(String shapeType, double x, double y, Canvas canvas) {
         switch (shapeType) {
             case "Line" :
-                drawLine(event, canvas);
+                drawLine(x, y, canvas);
                 break;
             case "Oval" :
-                drawEllipse(event, canvas);
+                drawEllipse(x, y, canvas);
                 break;
             case "Rectangle" :
-                drawRectangle(event, canvas);
+                drawRectangle(x, y, canvas);
                 break;
             case "Squiggle" :
-                drawSquiggle(event, canvas);
+                drawSquiggle(x, y, canvas);
                 break;
         }
     }
 
-    private static void drawLine(MouseEvent event, Canvas canvas) {
-        setEndingXAndY(event);
-        shape = new DrawableLine(
-            canvas.getGraphicsContext2D(),
-            getShapeSettings(),
-            getShapeDimensions()
-        );
-        shape.draw();
+    private void drawLine(double x, double y, Canvas canvas) {
+        clearPreview(canvas);
+        session.setEnd(x, y);
+        long constructStart = System.nanoTime();
+        session.setShape(new DrawableLine(
+            session.getShapeSettings(),
+            session.getShapeDimensions()
+        ));
+        monitor.recordSince(PerformanceMonitor.CONSTRUCT, constructStart);
+        session.getShape().draw(getRenderer(canvas));
+        session.previewShape();
     }
 
-    private static void drawEllipse(MouseEvent event, Canvas canvas) {
-        setEndingXAndY(event);
-        shape = new DrawableEllipse(
-                canvas.getGraphicsContext2D(),
-                getShapeSettings(),
-                getShapeDimensions()
-        );
-        shape.draw();
+    private void drawEllipse(double x, double y, Canvas canvas) {
+        clearPreview(canvas);
+        session.setEnd(x, y);
+        long constructStart = System.nanoTime();
+        session.setShape(new DrawableEllipse(
+                session.getShapeSettings(),
+                session.getShapeDimensions()
+        ));
+        monitor.recordSince(PerformanceMonitor.CONSTRUCT, constructStart);
+        session.getShape().draw(getRenderer(canvas));
+        session.previewShape();
     }
 
-    private static void drawRectangle(MouseEvent event, Canvas canvas) {
-        setEndingXAndY(event);
-        shape = new DrawableRectangle(
-                canvas.getGraphicsContext2D(),
-                getShapeSettings(),
-                getShapeDimensions()
-        );
-        shape.draw();
+    private void drawRectangle(double x, double y, Canvas canvas) {
+        clearPreview(canvas);
+        session.setEnd(x, y);
+        long constructStart = System.nanoTime();
+        session.setShape(new DrawableRectangle(
+                session.getShapeSettings(),
+                session.getShapeDimensions()
+        ));
+        monitor.recordSince(PerformanceMonitor.CONSTRUCT, constructStart);
+        session.getShape().draw(getRenderer(canvas));
+        session.previewShape();
     }
 
     /**
-     * This function draws a squiggle, make sure the controller calls recordCoordinates(x[], y[])
-     * so that the squiggle has a path to be drawn
-     * @param event mouse event
+     * This function draws a squiggle, make sure the controller calls recordCoordinates(points)
+     * so that the squiggle has a path to be drawn. Only the new segments of the path get drawn,
+     * unless the squiggle is filled
+     * @param x is the x coordinate of the mouse
+     * @param y is the y coordinate of the mouse
      * @param canvas is the canvas to be drawn on
      */
-    private static void drawSquiggle(MouseEvent event, Canvas canvas) {
-        setEndingXAndY(event);
-        shape = new DrawableSquiggle(
-            canvas.getGraphicsContext2D(),
-            getShapeSettings(),
-            getShapeDimensions(),
-            getSquiggleCoordinates()
+    private void drawSquiggle(double x, double y, Canvas canvas) {
+        session.setEnd(x, y);
+        long constructStart = System.nanoTime();
+        DrawableSquiggle squiggle = new DrawableSquiggle(
+            session.getShapeSettings(),
+            session.getShapeDimensions(),
+            session.getPoints().getCoordinates()
         );
-        shape.draw();
+        monitor.recordSince(PerformanceMonitor.CONSTRUCT, constructStart);
+        session.setShape(squiggle);
+
+        if(session.getShapeSettings().isFilled()) { //the fill changes with every point, so redraw it all
+            clearPreview(canvas);
+            squiggle.draw(getRenderer(canvas));
+        } else {
+            int pointsDrawn = session.getPathPointsDrawn();
+            squiggle.drawNewSegments(getRenderer(canvas), pointsDrawn);
+            if(pointsDrawn > 1 && session.getPoints().size() > pointsDrawn) {
+                restrokeJoint(canvas, squiggle, pointsDrawn - 1);
+            }
+        }
+        session.setPathPointsDrawn(session.getPoints().size());
+
+        //the squiggle covers every point it has passed through
+        session.previewPath();
+    }
+
+    //where new segments meet the ones already drawn the two strokes overlap, so the area around
+    //that point is cleared and stroked again as one path, clipped to whole canvas pixels
+    private void restrokeJoint(Canvas canvas, DrawableSquiggle squiggle, int point) {
+        Viewport viewport = session.getViewport();
+        ShapeBounds screen = viewport.toScreen(squiggle.getJointBounds(point));
+        double minX = Math.floor(screen.getMinX()) - 1;
+        double minY = Math.floor(screen.getMinY()) - 1;
+        double width = Math.ceil(screen.getMaxX()) + 1 - minX;
+        double height = Math.ceil(screen.getMaxY()) + 1 - minY;
+
+        GraphicsContext context = canvas.getGraphicsContext2D();
+        context.save();
+        context.setTransform(1, 0, 0, 1, 0, 0);
+        context.beginPath();
+        context.rect(minX, minY, width, height);
+        context.clip();
+        context.beginPath();
+        context.clearRect(minX, minY, width, height);
+
+        //anti-aliasing reaches a pixel past the stroke, so segments that close count as near too
+        applyViewport(context);
+        squiggle.drawSegmentsNear(getRenderer(canvas),
+                viewport.toWorld(new ShapeBounds(minX - 1, minY - 1, minX + width + 1, minY + height + 1)));
+        context.restore();
     }
 
     /**
-     * This function draws a random shape
-     * @param event mouse event
-     * @param canvas is the canvas to be drawn on
+     * This function draws a random shape on the preview canvas, like the other in-progress shapes.
+     * It's drawn on the committed canvas once, when commitShape is called
+     * @param x is the x coordinate of the mouse
+     * @param y is the y coordinate of the mouse
+     * @param previewCanvas is the canvas the in-progress shape is drawn on
      */
-    public static void drawRandomShape(MouseEvent event, Canvas canvas) {
-        Random random = new Random();
+    public void drawRandomShape(double x, double y, Canvas previewCanvas) {
+        clearPreview(previewCanvas);
+        SplittableRandom random = session.getRandom();
         int option = random.nextInt(NUM_OF_SHAPES);
-        setEndingXAndY(event);
+        session.setEnd(x, y);
 
         //determine what shape to draw
+        IDrawableCommandFactory shape = null;
         switch (option) {
             case 0 : // line
-                shape = new DrawableLine(canvas.getGraphicsContext2D(), getShapeSettings(), getShapeDimensions());
+                shape = new DrawableLine(session.getShapeSettings(), session.getShapeDimensions());
                 break;
             case 1 : // oval
-                shape = new DrawableEllipse(canvas.getGraphicsContext2D(), getShapeSettings(), getShapeDimensions());
+                shape = new DrawableEllipse(session.getShapeSettings(), session.getShapeDimensions());
                 break;
             case 2 : // rect
-                shape = new DrawableRectangle(canvas.getGraphicsContext2D(), getShapeSettings(), getShapeDimensions());
+                shape = new DrawableRectangle(session.getShapeSettings(), session.getShapeDimensions());
                 break;
         }
 
         //get the random shape to draw, and then draw it
-        shape = shape.getRandomShape(canvas);
-        shape.draw();
+        long constructStart = System.nanoTime();
+        shape = shape.getRandomShape(
+                session.getViewport().getVisibleBounds(previewCanvas.getWidth(), previewCanvas.getHeight()), random);
+        monitor.recordSince(PerformanceMonitor.CONSTRUCT, constructStart);
+        session.setShape(shape);
+        shape.draw(getRenderer(previewCanvas));
+        session.previewArea(shape.getBounds());
     }
 
-    private static void setEndingXAndY(MouseEvent event) {
-        endX = event.getX();
-        endY = event.getY();
+    /**
+     * returns a generator of random shapes in the part of the drawing showing on the canvas.
+     * It doesn't use the controller, so the shapes can be generated on another thread
+     * @param seed is the seed the shapes are generated from
+     * @param canvas is the canvas holding all of the committed shapes
+     * @return returns a generator of random shapes
+     */
+    public RandomShapeGenerator getShapeGenerator(long seed, Canvas canvas) {
+        return new RandomShapeGenerator(seed, session.getViewport().getVisibleBounds(canvas.getWidth(), canvas.getHeight()));
+    }
+
+    /**
+     * This function adds many shapes to the undo history in one go, and then draws the canvas once,
+     * rather than drawing each shape as it's added. Like drawing a new shape, it clears the redo history
+     * @param shapes is the shapes to be added, from the first to be drawn
+     * @param canvas is the canvas holding all of the committed shapes
+     */
+    public void addShapes(IDrawableCommandFactory[] shapes, Canvas canvas) {
+        document.clearRedo();
+        document.pushAll(shapes);
+
+        //the canvas is pictured afterwards if drawing it was slow, so undoing doesn't draw it all again
+        long drawStart = System.nanoTime();
+        drawAllShapes(canvas);
+        document.getCheckpoints().canvasRedrawn(canvas, document.size(), System.nanoTime() - drawStart);
     }
 
-    private static ShapeSettings getShapeSettings() {
-        return shapeSettings;
+    /**
+     * This function clears the area of the preview canvas that the in-progress shape was drawn to,
+     * leaving the rest of the preview canvas untouched. Drawing a shape clears the last preview
+     * by itself, so this only needs to be called once the shape is finished
+     * @param previewCanvas is the canvas the in-progress shape is drawn on
+     */
+    public void clearPreview(Canvas previewCanvas) {
+        if(session.hasPreview()) {
+            //the extra pixel for antialiasing is a canvas pixel, whatever the zoom
+            double padding = session.getShapeSettings().getStrokeSize() * PREVIEW_PADDING
+                    + 1 / session.getViewport().getScale();
+            previewCanvas.getGraphicsContext2D().clearRect(
+                session.getPreviewMinX() - padding,
+                session.getPreviewMinY() - padding,
+                session.getPreviewMaxX() - session.getPreviewMinX() + padding * 2,
+                session.getPreviewMaxY() - session.getPreviewMinY() + padding * 2
+            );
+            session.clearPreview();
+        }
     }
 
-    private static ShapeDimensions getShapeDimensions() {
-        return new ShapeDimensions(startX, startY, endX, endY);
+    /**
+     * This function records where the mouse was dragged to without drawing anything, so it's cheap
+     * however many drag events come in. Every point is kept for the squiggle path, and the
+     * in-progress shape is drawn out to the last one by drawPendingShape
+     * @param x is the x coordinate of the mouse
+     * @param y is the y coordinate of the mouse
+     */
+    public void dragTo(double x, double y) {
+        recordPoint(x, y);
+        session.setPendingEnd(x, y);
     }
 
-    private static SquiggleCoordinates getSquiggleCoordinates() {
-        return new SquiggleCoordinates(xCoordinates, yCoordinates);
+    /**
+     * returns true if the mouse has been dragged since the in-progress shape was last drawn
+     * @return returns true if the in-progress shape needs drawing
+     */
+    public boolean hasPendingShape() {
+        return session.hasPendingEnd();
     }
 
     /**
-     * This function sets the arrays of x & y coordinates for the squiggle path,
+     * This function draws the in-progress shape out to where the mouse was last dragged,
+     * if it's moved since the shape was last drawn. It's called once per frame while
+     * dragging, so drags between frames are drawn together
+     * @param shapeType is the shape type to be drawn
+     * @param canvas is the canvas to be drawn on
+     */
+    public void drawPendingShape(String shapeType, Canvas canvas) {
+        if(session.hasPendingEnd()) {
+            session.clearPendingEnd();
+            drawShape(shapeType, session.getPendingEndX(), session.getPendingEndY(), canvas);
+        }
+    }
+
+    /**
+     * This function sets the buffer of x & y coordinates for the squiggle path,
      * and need to be called before drawing a squiggle
-     * @param xCoords x coordinates for the squiggle path
-     * @param yCoords y coordinates for the squiggle path
+     * @param pointBuffer x & y coordinates for the squiggle path
      */
-    public static void recordCoordinates(double[] xCoords, double[] yCoords) {
-        xCoordinates = xCoords;
-        yCoordinates = yCoords;
+    public void recordCoordinates(PointBuffer pointBuffer) {
+        session.setPoints(pointBuffer);
+    }
+
+    /**
+     * This function adds a point to the squiggle path, unless it's too close to the last point to matter
+     * @param x is the x coordinate of the point
+     * @param y is the y coordinate of the point
+     */
+    public void recordPoint(double x, double y) {
+        session.countRawPoint();
+        if(StrokeSimplifier.isFarEnough(session.getPoints(), x, y, getSimplifyTolerance())) {
+            session.getPoints().add(x, y);
+        }
+    }
+
+    //simplifies the finished squiggle path, always ending it on the last recorded point
+    private void simplifySquiggle(DrawableSquiggle squiggle) {
+        PointBuffer points = session.getPoints();
+        if(points.getX(points.size() - 1) != session.getEndX() || points.getY(points.size() - 1) != session.getEndY()) {
+            points.add(session.getEndX(), session.getEndY());
+        }
+        squiggle.setCoordinates(StrokeSimplifier.simplify(points, getSimplifyTolerance()));
+        session.setKeptPointCount(squiggle.getCoordinates().getNumOfCoordinates());
+    }
+
+    //the tolerance is in canvas pixels, so it covers less of the drawing when zoomed in
+    private double getSimplifyTolerance() {
+        return session.getSimplifyTolerance() / session.getViewport().getScale();
     }
 
     /**
      * returns a IDrawableCommandFactory shape
      * @return returns a IDrawableCommandFactory shape
      */
-    public static IDrawableCommandFactory getShape() {
-        return shape;
+    public IDrawableCommandFactory getShape() {
+        return session.getShape();
     }
 
     /**
@@ -182,8 +387,12 @@ public class ShapeController {
      * @param isFilled true|false if the shape will be filled or not
      * @param fillColor is the color of the shapes fill
      */
-    public static void setColorSettings(double stroke, Paint strokeColor, boolean isFilled, Paint fillColor){
-        shapeSettings = new ShapeSettings(stroke, strokeColor, isFilled, fillColor);
+    public void setColorSettings(double stroke, Paint strokeColor, boolean isFilled, Paint fillColor){
+        //it's called for every shape, and the settings rarely change between them
+        ShapeSettings current = session.getShapeSettings();
+        if(current == null || !current.matches(stroke, strokeColor, isFilled, fillColor)) {
+            session.setShapeSettings(ShapeSettings.intern(stroke, strokeColor, isFilled, fillColor));
+        }
     }
 
     /**
@@ -191,68 +400,279 @@ public class ShapeController {
      * @param initX is the first x coordinate
      * @param initY if the first y coordinate
      */
-    public static void setInitXAndY(double initX, double initY) {
-        startX = initX;
-        startY = initY;
+    public void setInitXAndY(double initX, double initY) {
+        session.start(initX, initY);
     }
 
     /**
-     * This function adds a shape to the undo shape history stack
-     * @param shape is the shape to be recorded in the undo history
+     * This function moves the in-progress shape onto the canvas holding the finished drawing,
+     * and adds it to the undo shape history stack
+     * @param canvas is the canvas holding all of the committed shapes
      */
-    public static void push(IDrawableCommandFactory shape) {
-        undo.push(shape);
+    public void commitShape(Canvas canvas) {
+        IDrawableCommandFactory shape = session.getShape();
+        if(shape != null) {
+            if(shape instanceof DrawableSquiggle) {
+                simplifySquiggle((DrawableSquiggle) shape);
+            }
+            document.push(shape);
+
+            //draw the shape as the document keeps it, so it matches the shape when it's drawn again
+            long drawStart = System.nanoTime();
+            document.peek().draw(getCommittedRenderer(canvas));
+            document.getCheckpoints().shapeAdded(canvas, document.size(), System.nanoTime() - drawStart);
+
+            //the shape is finished, so it can't be committed again
+            session.setShape(null);
+        }
     }
 
     /**
-     * This function removes a shape from the history,
-     * and adds it to the redoShape history in-case we want it back
+     * This function removes the top shape from the history, and repaints
+     * only the area of the canvas it covered
+     * @param canvas is the canvas holding all of the committed shapes
      */
-    public static void popShape() {
-        if(!undo.isEmpty()) {
-            redo.push(undo.pop());
+    public void undoShape(Canvas canvas) {
+        IDrawableCommandFactory shape = document.undo();
+        if(shape != null) {
+            repaintRegion(canvas, shape.getBounds());
         }
     }
 
     /**
-     * This function retrieves a removed shape and re-adds it to the undo history
+     * This function clears an area of the drawing and redraws just the shapes that overlap it,
+     * in the order they were drawn. The area is restored from the nearest checkpoint picture,
+     * so only the overlapping shapes added after that picture are replayed. Only the part of the
+     * area that shows in the viewport is repainted, and shapes outside it are never looked at
+     * @param canvas is the canvas holding all of the committed shapes
+     * @param region is the area of the drawing to repaint
      */
-    public static void redoShape() {
-        if(!redo.isEmpty()) {
-            undo.push(redo.pop());
+    public void repaintRegion(Canvas canvas, ShapeBounds region) {
+        //line the area up with whole canvas pixels inside the canvas, so the clip and the clear cover the same pixels
+        Viewport viewport = session.getViewport();
+        ShapeBounds screen = viewport.toScreen(region);
+        double minX = Math.max(Math.floor(screen.getMinX()), 0);
+        double minY = Math.max(Math.floor(screen.getMinY()), 0);
+        double width = Math.min(Math.ceil(screen.getMaxX()), Math.floor(canvas.getWidth())) - minX;
+        double height = Math.min(Math.ceil(screen.getMaxY()), Math.floor(canvas.getHeight())) - minY;
+        if(width <= 0 || height <= 0) {
+            return;
         }
+
+        long repaintStart = System.nanoTime();
+        GraphicsContext context = canvas.getGraphicsContext2D();
+        IShapeRenderer renderer = new StateCachingRenderer(getCommittedRenderer(canvas));
+        context.save();
+
+        //the clip, the clear and the picture are in canvas pixels
+        context.setTransform(1, 0, 0, 1, 0, 0);
+        context.beginPath();
+        context.rect(minX, minY, width, height);
+        context.clip();
+        context.beginPath();
+        context.clearRect(minX, minY, width, height);
+
+        //start from the nearest picture of the canvas
+        int start = 0;
+        CanvasMemento memento = document.getCheckpoints().nearest(
+                document.size(), canvas.getWidth(), canvas.getHeight());
+        if(memento != null) {
+            context.drawImage(memento.getImage(), minX, minY, width, height, minX, minY, width, height);
+            start = memento.getHistorySize();
+        }
+
+        //the shapes are in drawing coordinates, and fill the whole cleared area
+        applyViewport(context);
+        replayRegion(renderer, viewport.toWorld(new ShapeBounds(minX, minY, minX + width, minY + height)), start);
+        context.restore();
+        monitor.recordSince(PerformanceMonitor.REPAINT, repaintStart);
     }
 
     /**
-     * This function gets all shapes in the undo stack history, and draws them to the canvas
+     * This function draws the shapes that overlap an area, in the order they were drawn,
+     * leaving out the shapes before a position in the history. Runs of shapes in the same style
+     * are drawn together through the document's display list. Nothing is cleared first
+     * @param renderer is where the shapes are drawn
+     * @param region is the area the shapes need to overlap
+     * @param start is the history position of the first shape that can be drawn
      */
-    public static void drawAllShapes() {
-        if(!undo.isEmpty()) {
-            for(IDrawableCommandFactory drawable : undo) {
-                drawable.draw();
-            }
+    public void replayRegion(IShapeRenderer renderer, ShapeBounds region, int start) {
+        document.getDisplayList().draw(document, document.query(region), start, renderer);
+    }
+
+    /**
+     * This function retrieves a removed shape, re-adds it to the undo history,
+     * and draws it on top of the committed shapes
+     * @param canvas is the canvas holding all of the committed shapes
+     */
+    public void redoShape(Canvas canvas) {
+        IDrawableCommandFactory shape = document.redo();
+        if(shape != null) {
+            shape.draw(getCommittedRenderer(canvas));
         }
     }
 
     /**
-     * This function clears all shapes from both undo and redo stacks
+     * This function clears the canvas and draws all shapes in the undo stack history that show
+     * in the viewport, starting from the nearest checkpoint picture
+     * @param canvas is the canvas holding all of the committed shapes
+     */
+    public void drawAllShapes(Canvas canvas) {
+        repaintRegion(canvas, session.getViewport().getVisibleBounds(canvas.getWidth(), canvas.getHeight()));
+    }
+
+    /**
+     * This function clears the whole of a canvas, wherever the viewport is
+     * @param canvas is the canvas to clear
+     */
+    public void clearCanvas(Canvas canvas) {
+        GraphicsContext context = canvas.getGraphicsContext2D();
+        context.save();
+        context.setTransform(1, 0, 0, 1, 0, 0);
+        context.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        context.restore();
+    }
+
+    /**
+     * returns the part of the drawing the user is looking at
+     * @return returns the session's viewport
+     */
+    public Viewport getViewport() {
+        return session.getViewport();
+    }
+
+    /**
+     * This function zooms the viewport in or out around a point on the canvas.
+     * Nothing is drawn until redrawView is called
+     * @param factor is how much to multiply the scale by, above 1 zooms in
+     * @param screenX is the x coordinate on the canvas to zoom around
+     * @param screenY is the y coordinate on the canvas to zoom around
+     */
+    public void zoomAt(double factor, double screenX, double screenY) {
+        viewChanged |= session.getViewport().zoomAt(factor, screenX, screenY);
+    }
+
+    /**
+     * This function moves the drawing across the canvas. Nothing is drawn until redrawView is called,
+     * so any number of moves between frames are drawn together
+     * @param screenDX is how far to move the drawing right, in canvas pixels
+     * @param screenDY is how far to move the drawing down, in canvas pixels
+     */
+    public void pan(double screenDX, double screenDY) {
+        if(screenDX != 0 || screenDY != 0) {
+            session.getViewport().pan(screenDX, screenDY);
+            viewChanged = true;
+        }
+    }
+
+    /**
+     * This function zooms and pans so every shape fits on the canvas, or goes back to
+     * the drawing's own coordinates if there aren't any shapes. Nothing is drawn until redrawView is called
+     * @param width is the width of the canvas
+     * @param height is the height of the canvas
+     */
+    public void fitToContent(double width, double height) {
+        ShapeBounds content = document.getContentBounds();
+        if(content == null) {
+            resetView();
+            return;
+        }
+        session.getViewport().fit(content, width, height, FIT_MARGIN);
+        viewChanged = true;
+    }
+
+    /**
+     * This function moves the viewport straight to a scale and origin. Nothing is drawn until redrawView is called
+     * @param scale is how many canvas pixels one unit of the drawing covers
+     * @param originX is the x coordinate of the drawing at the left edge of the canvas
+     * @param originY is the y coordinate of the drawing at the top edge of the canvas
      */
-    public static void clearAll() {
-        clearRedo();
-        clearUndo();
+    public void setView(double scale, double originX, double originY) {
+        session.getViewport().set(scale, originX, originY);
+        viewChanged = true;
     }
 
     /**
-     * This function clears the undo history stack
+     * This function shows the drawing at its own coordinates again. Nothing is drawn until redrawView is called
      */
-    public static void clearUndo() {
-        undo = new Stack<>();
+    public void resetView() {
+        session.getViewport().reset();
+        viewChanged = true;
     }
 
     /**
-     * This function clears the redo history stack
+     * This function redraws the canvas if the viewport has moved since it was last drawn.
+     * Only the shapes that show in the new viewport are drawn. The checkpoint pictures were taken
+     * through the old viewport, so they're thrown away
+     * @param canvas is the canvas holding all of the committed shapes
+     * @param previewCanvas is the canvas the in-progress shape is drawn on
+     * @return returns true if the canvas was redrawn
      */
-    public static void clearRedo() {
-        redo = new Stack<>();
+    public boolean redrawView(Canvas canvas, Canvas previewCanvas) {
+        if(!viewChanged) {
+            return false;
+        }
+        viewChanged = false;
+        long redrawStart = System.nanoTime();
+        document.getCheckpoints().clear();
+        applyViewport(canvas.getGraphicsContext2D());
+        applyViewport(previewCanvas.getGraphicsContext2D());
+        drawAllShapes(canvas);
+        viewRedrawNanos = System.nanoTime() - redrawStart;
+        return true;
+    }
+
+    /**
+     * This function is called once the viewport stops moving. If drawing the view took long enough,
+     * a checkpoint picture is taken so undoing doesn't have to draw it all again
+     * @param canvas is the canvas holding all of the committed shapes
+     */
+    public void settleView(Canvas canvas) {
+        document.getCheckpoints().canvasRedrawn(canvas, document.size(), viewRedrawNanos);
+        viewRedrawNanos = 0;
+    }
+
+    //shapes are drawn in drawing coordinates, and the viewport puts them on the canvas
+    private void applyViewport(GraphicsContext context) {
+        Viewport viewport = session.getViewport();
+        double scale = viewport.getScale();
+        context.setTransform(scale, 0, 0, scale, -viewport.getOriginX() * scale, -viewport.getOriginY() * scale);
+    }
+
+    /**
+     * This function clears all shapes from both undo and redo stacks
+     */
+    public void clearAll() {
+        document.clearAll();
+    }
+
+    /**
+     * This function clears the redo history stack, along with the checkpoint pictures of the shapes in it
+     */
+    public void clearRedo() {
+        document.clearRedo();
+    }
+
+    //shapes are drawn on a canvas through its graphics context
+    private static IShapeRenderer getRenderer(Canvas canvas) {
+        return new FxShapeRenderer(canvas.getGraphicsContext2D());
+    }
+
+    //committed shapes are drawn in less detail once zoomed out, the same way every time they're drawn
+    private IShapeRenderer getCommittedRenderer(Canvas canvas) {
+        double scale = session.getViewport().getScale();
+        if(scale < 1) {
+            return new LevelOfDetailRenderer(getRenderer(canvas), LOD_TOLERANCE / scale);
+        }
+        return getRenderer(canvas);
+    }
+
+    @Override
+    public String toString() {
+        return "ShapeController{" +
+                "document=" + document +
+                ", session=" + session +
+                ", monitor=" + monitor +
+                '}';
     }
 }
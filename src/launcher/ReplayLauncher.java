@@ -0,0 +1,36 @@
+package launcher;
+
+import controller.InputReplayer;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * This class is the entry point for replaying a recorded Doodle session without a window,
+ * printing how long each kind of event took to process
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+public class ReplayLauncher {
+
+    /**
+     * This is the entry point for replaying a recording
+     * @param args the recording, and --real-time to replay it at the speed it was recorded
+     */
+    public static void main(String[] args) {
+        if(args.length < 1 || args.length > 2 || (args.length == 2 && !args[1].equals("--real-time"))) {
+            System.err.println("usage: ReplayLauncher <recording> [--real-time]");
+            System.exit(1);
+        }
+
+        try {
+            InputReplayer replayer = InputReplayer.open(new File(args[0]));
+            replayer.run(args.length == 2);
+            System.out.print(replayer.getReport());
+            replayer.close();
+        } catch (IOException e) {
+            System.err.println("Couldn't replay " + args[0] + ": " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -1,10 +1,11 @@
 package model.command;
 
-import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.shape.Ellipse;
+import model.command.helpers.ShapeBounds;
 import model.command.helpers.ShapeDimensions;
 import model.command.helpers.ShapeSettings;
+import model.render.IShapeRenderer;
+
+import java.util.SplittableRandom;
 
 /**
  * This class defines a ellipse that can be drawn to a canvas
@@ -15,57 +16,39 @@ public class DrawableEllipse extends DrawableShape implements IDrawableCommandFa
 
     /**
      * This is the DrawableEllipse constructor
-     * @param context is the graphics context of the canvas to be drawn on
      * @param shapeSettings is the setting of the shapes colors, and stroke
      * @param shapeDimensions is the size and positioning of the shape on the canvas
      */
-    public DrawableEllipse(GraphicsContext context, ShapeSettings shapeSettings, ShapeDimensions shapeDimensions) {
-        super(context, shapeSettings, shapeDimensions);
+    public DrawableEllipse(ShapeSettings shapeSettings, ShapeDimensions shapeDimensions) {
+        super(shapeSettings, shapeDimensions);
         calculateDraw();
     }
 
     private void calculateDraw() {
-        //create a ellipse object to store dimension translations
-        Ellipse oval = new Ellipse();
-        double width = super.getShapeDimensions().getEndX() - super.getShapeDimensions().getStartX();
-        double height = super.getShapeDimensions().getEndY() - super.getShapeDimensions().getStartY();
-
-        //translate widths accordingly
-        if(width < 0) {
-            oval.setCenterX(super.getShapeDimensions().getEndX());
-            oval.setRadiusX(-width);
-        } else {
-            oval.setCenterX(super.getShapeDimensions().getStartX());
-            oval.setRadiusX(super.getShapeDimensions().getEndX() - super.getShapeDimensions().getStartX());
-        }
-
-        //translate heights accordingly
-        if(height < 0) {
-            oval.setCenterY(super.getShapeDimensions().getEndY());
-            oval.setRadiusY(-height);
-        } else {
-            oval.setCenterY(super.getShapeDimensions().getStartY());
-            oval.setRadiusY(super.getShapeDimensions().getEndY() - super.getShapeDimensions().getStartY());
-        }
+        //translate the start and end coordinates to the top left corner, width and height of the box around the ellipse
+        ShapeDimensions dimensions = super.getShapeDimensions();
+        double x = Math.min(dimensions.getStartX(), dimensions.getEndX());
+        double y = Math.min(dimensions.getStartY(), dimensions.getEndY());
+        double width = Math.abs(dimensions.getEndX() - dimensions.getStartX());
+        double height = Math.abs(dimensions.getEndY() - dimensions.getStartY());
 
         //properly re-set the shape dimensions as needed
-        super.getShapeDimensions().setStartX(oval.getCenterX());
-        super.getShapeDimensions().setEndX(oval.getRadiusX());
-        super.getShapeDimensions().setStartY(oval.getCenterY());
-        super.getShapeDimensions().setEndY(oval.getRadiusY());
+        dimensions.setStartX(x);
+        dimensions.setEndX(width);
+        dimensions.setStartY(y);
+        dimensions.setEndY(height);
     }
 
     @Override
-    public void draw() {
-        //get the context and set the shape's settings
-        GraphicsContext context = super.getContext();
-        context.setStroke(super.getShapeSettings().getStrokeColor());
-        context.setLineWidth(super.getShapeSettings().getStrokeSize());
+    public void draw(IShapeRenderer renderer) {
+        //set the shape's settings
+        renderer.setStroke(super.getShapeSettings().getStrokeColor());
+        renderer.setLineWidth(super.getShapeSettings().getStrokeSize());
 
         if(super.getShapeSettings().isFilled()) { //if filled, draw with fill settings
-            context.setFill(super.getShapeSettings().getFillColor());
+            renderer.setFill(super.getShapeSettings().getFillColor());
 
-            context.fillOval(
+            renderer.fillOval(
                     super.getShapeDimensions().getStartX(),
                     super.getShapeDimensions().getStartY(),
                     super.getShapeDimensions().getEndX(),
@@ -74,7 +57,7 @@ public class DrawableEllipse extends DrawableShape implements IDrawableCommandFa
         }
 
         //stroked version will always draw
-        context.strokeOval(
+        renderer.strokeOval(
                 super.getShapeDimensions().getStartX(),
                 super.getShapeDimensions().getStartY(),
                 super.getShapeDimensions().getEndX(),
@@ -83,18 +66,36 @@ public class DrawableEllipse extends DrawableShape implements IDrawableCommandFa
     }
 
     @Override
-    public IDrawableCommandFactory getRandomShape(Canvas canvas) {
-        //build randomized shape dimensions and settings
-        ShapeDimensions randomShapeDimension = new ShapeDimensions(
-                super.getRandomWidth(canvas), super.getRandomHeight(canvas),
-                super.getRandomWidth(canvas), super.getRandomHeight(canvas)
+    public void appendPath(IShapeRenderer renderer) {
+        renderer.oval(
+                super.getShapeDimensions().getStartX(),
+                super.getShapeDimensions().getStartY(),
+                super.getShapeDimensions().getEndX(),
+                super.getShapeDimensions().getEndY()
         );
+    }
+
+    @Override
+    protected ShapeBounds calculateBounds() {
+        //the dimensions hold the corner, width and height of the box around the ellipse
+        ShapeDimensions dimensions = super.getShapeDimensions();
+        return new ShapeBounds(
+                dimensions.getStartX(), dimensions.getStartY(),
+                dimensions.getStartX() + dimensions.getEndX(), dimensions.getStartY() + dimensions.getEndY()
+        ).expand(super.getStrokePadding(0.5));
+    }
 
-        ShapeSettings shapeSettings = new ShapeSettings(
-                super.getRandomStroke(), super.getRandomColor(), false, super.getRandomColor()
+    @Override
+    public IDrawableCommandFactory getRandomShape(ShapeBounds area, SplittableRandom random) {
+        //build randomized shape dimensions and settings, both corners are in the area
+        ShapeDimensions randomShapeDimension = new ShapeDimensions(
+                getRandomX(random, area), getRandomY(random, area),
+                getRandomX(random, area), getRandomY(random, area)
         );
 
+        ShapeSettings shapeSettings = getRandomSettings(random);
+
         //return new line using randomized settings and dimensions
-        return new DrawableEllipse(canvas.getGraphicsContext2D(), shapeSettings, randomShapeDimension);
+        return new DrawableEllipse(shapeSettings, randomShapeDimension);
     }
 }
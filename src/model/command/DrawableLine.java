@@ -1,9 +1,11 @@
 package model.command;
 
-import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
+import model.command.helpers.ShapeBounds;
 import model.command.helpers.ShapeDimensions;
 import model.command.helpers.ShapeSettings;
+import model.render.IShapeRenderer;
+
+import java.util.SplittableRandom;
 
 /**
  * This class defines a line that can be drawn to a canvas
@@ -12,25 +14,27 @@ import model.command.helpers.ShapeSettings;
  */
 public class DrawableLine extends DrawableShape implements IDrawableCommandFactory {
 
+    //square caps reach half the stroke size past each end, and on a slanted line a cap's
+    //corners reach out half the diagonal of a stroke-wide square
+    static final double CAP_REACH = Math.sqrt(2) / 2;
+
     /**
      * This is the DrawableLine constructor
-     * @param context is the graphics context of the canvas to be drawn on
      * @param shapeSettings is the setting of the shapes colors, and stroke
      * @param shapeDimensions is the size and positioning of the shape on the canvas
      */
-    public DrawableLine(GraphicsContext context, ShapeSettings shapeSettings, ShapeDimensions shapeDimensions) {
-        super(context, shapeSettings, shapeDimensions);
+    public DrawableLine(ShapeSettings shapeSettings, ShapeDimensions shapeDimensions) {
+        super(shapeSettings, shapeDimensions);
     }
 
     @Override
-    public void draw() {
-        //get the context, set line settings
-        GraphicsContext context = super.getContext();
-        context.setLineWidth(super.getShapeSettings().getStrokeSize());
-        context.setStroke(super.getShapeSettings().getStrokeColor());
+    public void draw(IShapeRenderer renderer) {
+        //set line settings
+        renderer.setLineWidth(super.getShapeSettings().getStrokeSize());
+        renderer.setStroke(super.getShapeSettings().getStrokeColor());
 
         //draw the line based on the shape dimensions
-        context.strokeLine(
+        renderer.strokeLine(
             super.getShapeDimensions().getStartX(),
             super.getShapeDimensions().getStartY(),
             super.getShapeDimensions().getEndX(),
@@ -39,18 +43,31 @@ public class DrawableLine extends DrawableShape implements IDrawableCommandFacto
     }
 
     @Override
-    public IDrawableCommandFactory getRandomShape(Canvas canvas) {
+    protected ShapeBounds calculateBounds() {
+        ShapeDimensions dimensions = super.getShapeDimensions();
+        return new ShapeBounds(
+                dimensions.getStartX(), dimensions.getStartY(),
+                dimensions.getEndX(), dimensions.getEndY()
+        ).expand(super.getStrokePadding(CAP_REACH));
+    }
+
+    @Override
+    public void appendPath(IShapeRenderer renderer) {
+        renderer.moveTo(super.getShapeDimensions().getStartX(), super.getShapeDimensions().getStartY());
+        renderer.lineTo(super.getShapeDimensions().getEndX(), super.getShapeDimensions().getEndY());
+    }
+
+    @Override
+    public IDrawableCommandFactory getRandomShape(ShapeBounds area, SplittableRandom random) {
         //build randomized shape dimensions and settings
         ShapeDimensions randomShapeDimension = new ShapeDimensions(
-            super.getRandomWidth(canvas), super.getRandomHeight(canvas),
-            super.getRandomWidth(canvas), super.getRandomHeight(canvas)
+            getRandomX(random, area), getRandomY(random, area),
+            getRandomX(random, area), getRandomY(random, area)
         );
 
-        ShapeSettings shapeSettings = new ShapeSettings(
-            super.getRandomStroke(), super.getRandomColor(), false, super.getRandomColor()
-        );
+        ShapeSettings shapeSettings = getRandomSettings(random);
 
         //return new line using randomized settings and dimensions
-        return new DrawableLine(canvas.getGraphicsContext2D(), shapeSettings, randomShapeDimension);
+        return new DrawableLine(shapeSettings, randomShapeDimension);
     }
 }
@@ -1,10 +1,11 @@
 package model.command;
 
-import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.shape.Rectangle;
+import model.command.helpers.ShapeBounds;
 import model.command.helpers.ShapeDimensions;
 import model.command.helpers.ShapeSettings;
+import model.render.IShapeRenderer;
+
+import java.util.SplittableRandom;
 
 /**
  * This class creates a drawable rectangle that can get drawn to a canvas
@@ -15,57 +16,39 @@ public class DrawableRectangle extends DrawableShape implements IDrawableCommand
 
     /**
      * This is the DrawableRectangle constructor
-     * @param context is the graphics context of the canvas to be drawn on
      * @param shapeSettings is the setting of the shapes colors, and stroke
      * @param shapeDimensions is the size and positioning of the shape on the canvas
      */
-    public DrawableRectangle(GraphicsContext context, ShapeSettings shapeSettings, ShapeDimensions shapeDimensions) {
-        super(context, shapeSettings, shapeDimensions);
+    public DrawableRectangle(ShapeSettings shapeSettings, ShapeDimensions shapeDimensions) {
+        super(shapeSettings, shapeDimensions);
         calculateDraw();
     }
 
     private void calculateDraw() {
-        //create a rectangle object to store dimension translations
-        Rectangle rectangle = new Rectangle();
-        double width = super.getShapeDimensions().getEndX() - super.getShapeDimensions().getStartX();
-        double height = super.getShapeDimensions().getEndY() - super.getShapeDimensions().getStartY();
-
-        //translate widths accordingly
-        if(width < 0) {
-            rectangle.setX(super.getShapeDimensions().getEndX());
-            rectangle.setWidth(-width);
-        } else {
-            rectangle.setX(super.getShapeDimensions().getStartX());
-            rectangle.setWidth(super.getShapeDimensions().getEndX() - super.getShapeDimensions().getStartX());
-        }
-
-        //translate heights accordingly
-        if(height < 0) {
-            rectangle.setY(super.getShapeDimensions().getEndY());
-            rectangle.setHeight(-height);
-        } else {
-            rectangle.setY(super.getShapeDimensions().getStartY());
-            rectangle.setHeight(super.getShapeDimensions().getEndY() - super.getShapeDimensions().getStartY());
-        }
+        //translate the start and end coordinates to the top left corner, width and height
+        ShapeDimensions dimensions = super.getShapeDimensions();
+        double x = Math.min(dimensions.getStartX(), dimensions.getEndX());
+        double y = Math.min(dimensions.getStartY(), dimensions.getEndY());
+        double width = Math.abs(dimensions.getEndX() - dimensions.getStartX());
+        double height = Math.abs(dimensions.getEndY() - dimensions.getStartY());
 
         //properly re-set the shape dimensions as needed
-        super.getShapeDimensions().setStartX(rectangle.getX());
-        super.getShapeDimensions().setEndX(rectangle.getWidth());
-        super.getShapeDimensions().setStartY(rectangle.getY());
-        super.getShapeDimensions().setEndY(rectangle.getHeight());
+        dimensions.setStartX(x);
+        dimensions.setEndX(width);
+        dimensions.setStartY(y);
+        dimensions.setEndY(height);
     }
 
     @Override
-    public void draw() {
-        //get the context and set the shape's settings
-        GraphicsContext context = super.getContext();
-        context.setStroke(super.getShapeSettings().getStrokeColor());
-        context.setLineWidth(super.getShapeSettings().getStrokeSize());
+    public void draw(IShapeRenderer renderer) {
+        //set the shape's settings
+        renderer.setStroke(super.getShapeSettings().getStrokeColor());
+        renderer.setLineWidth(super.getShapeSettings().getStrokeSize());
 
         if(super.getShapeSettings().isFilled()) { //if filled, draw with fill settings
 
-            context.setFill(super.getShapeSettings().getFillColor());
-            context.fillRect(
+            renderer.setFill(super.getShapeSettings().getFillColor());
+            renderer.fillRect(
                     super.getShapeDimensions().getStartX(),
                     super.getShapeDimensions().getStartY(),
                     super.getShapeDimensions().getEndX(),
@@ -74,7 +57,7 @@ public class DrawableRectangle extends DrawableShape implements IDrawableCommand
         }
 
         //stroked version will always draw
-        context.strokeRect(
+        renderer.strokeRect(
                 super.getShapeDimensions().getStartX(),
                 super.getShapeDimensions().getStartY(),
                 super.getShapeDimensions().getEndX(),
@@ -83,18 +66,36 @@ public class DrawableRectangle extends DrawableShape implements IDrawableCommand
     }
 
     @Override
-    public IDrawableCommandFactory getRandomShape(Canvas canvas) {
-        //build randomized shape dimensions and settings
-        ShapeDimensions randomShapeDimension = new ShapeDimensions(
-                super.getRandomWidth(canvas), super.getRandomHeight(canvas),
-                super.getRandomWidth(canvas), super.getRandomHeight(canvas)
+    public void appendPath(IShapeRenderer renderer) {
+        renderer.rect(
+                super.getShapeDimensions().getStartX(),
+                super.getShapeDimensions().getStartY(),
+                super.getShapeDimensions().getEndX(),
+                super.getShapeDimensions().getEndY()
         );
+    }
+
+    @Override
+    protected ShapeBounds calculateBounds() {
+        //the dimensions hold the corner, width and height, and the mitered corners reach out diagonally
+        ShapeDimensions dimensions = super.getShapeDimensions();
+        return new ShapeBounds(
+                dimensions.getStartX(), dimensions.getStartY(),
+                dimensions.getStartX() + dimensions.getEndX(), dimensions.getStartY() + dimensions.getEndY()
+        ).expand(super.getStrokePadding(1));
+    }
 
-        ShapeSettings shapeSettings = new ShapeSettings(
-                super.getRandomStroke(), super.getRandomColor(), false, super.getRandomColor()
+    @Override
+    public IDrawableCommandFactory getRandomShape(ShapeBounds area, SplittableRandom random) {
+        //build randomized shape dimensions and settings, both corners are in the area
+        ShapeDimensions randomShapeDimension = new ShapeDimensions(
+                getRandomX(random, area), getRandomY(random, area),
+                getRandomX(random, area), getRandomY(random, area)
         );
 
+        ShapeSettings shapeSettings = getRandomSettings(random);
+
         //return new drawable rectangle using randomized settings and dimensions
-        return new DrawableRectangle(canvas.getGraphicsContext2D(), shapeSettings, randomShapeDimension);
+        return new DrawableRectangle(shapeSettings, randomShapeDimension);
     }
 }
@@ -1,11 +1,10 @@
 package model.command;
 
-import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
+import model.command.helpers.ShapeBounds;
 import model.command.helpers.ShapeDimensions;
 import model.command.helpers.ShapeSettings;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * This class is the parent class of all drawable shapes,
@@ -16,34 +15,28 @@ import java.util.Random;
  */
 public class DrawableShape {
 
-    private GraphicsContext context;
     private ShapeSettings shapeSettings;
     private ShapeDimensions shapeDimensions;
 
+    //area the shape covers, worked out the first time it's needed
+    private ShapeBounds bounds;
+
+    //antialiasing can touch one pixel past the edge of a stroke
+    private static final int EDGE_PADDING = 1;
+
     //for getting randomized color values, and sizes
-    private Random random = new Random();
     private static final int STROKE_LIMIT = 20; //max size the shape stroke can have
 
     /**
      * This is the DrawableShape constructor
-     * @param context is the graphics context of the canvas to be drawn on
      * @param shapeSettings is the setting of the shapes colors, and stroke
      * @param shapeDimensions is the size and positioning of the shape on the canvas
      */
-    public DrawableShape(GraphicsContext context, ShapeSettings shapeSettings, ShapeDimensions shapeDimensions) {
-        this.context = context;
+    public DrawableShape(ShapeSettings shapeSettings, ShapeDimensions shapeDimensions) {
         this.shapeSettings = shapeSettings;
         this.shapeDimensions = shapeDimensions;
     }
 
-    /**
-     * returns the canvas's graphics context
-     * @return returns the canvas's graphics context
-     */
-    public GraphicsContext getContext() {
-        return context;
-    }
-
     /**
      * returns the shapes shape settings such as stroke, color, and if it's filled or not
      * @return returns the shapes shape settings such as stroke, color, and if it's filled or not
@@ -60,50 +53,129 @@ public class DrawableShape {
         return shapeDimensions;
     }
 
+    /**
+     * returns the area of the canvas the shape covers, including its stroke
+     * @return returns the area of the canvas the shape covers
+     */
+    public ShapeBounds getBounds() {
+        if(bounds == null) {
+            bounds = calculateBounds();
+        }
+        return bounds;
+    }
+
+    /**
+     * This function works out the area the shape covers. By default that's the area between
+     * the start and end coordinates, grown by half the stroke size
+     * @return returns the area of the canvas the shape covers
+     */
+    protected ShapeBounds calculateBounds() {
+        return new ShapeBounds(
+                shapeDimensions.getStartX(), shapeDimensions.getStartY(),
+                shapeDimensions.getEndX(), shapeDimensions.getEndY()
+        ).expand(getStrokePadding(0.5));
+    }
+
+    /**
+     * This function forgets the area the shape covers, so it gets worked out again after the shape changes
+     */
+    protected void invalidateBounds() {
+        bounds = null;
+    }
+
+    /**
+     * returns how far a stroke can reach past the edge of the shape, one extra pixel for antialiasing
+     * @param strokeWidths is how many stroke sizes the stroke can reach out, at a corner for example
+     * @return returns how far a stroke can reach past the edge of the shape
+     */
+    protected double getStrokePadding(double strokeWidths) {
+        return getStrokePadding(shapeSettings, strokeWidths);
+    }
+
+    /**
+     * returns how far a stroke in the given settings can reach past the edge of a shape
+     * @param shapeSettings is the settings the shape is drawn with
+     * @param strokeWidths is how many stroke sizes the stroke can reach out
+     * @return returns how far a stroke can reach past the edge of the shape
+     */
+    static double getStrokePadding(ShapeSettings shapeSettings, double strokeWidths) {
+        return shapeSettings.getStrokeSize() * strokeWidths + EDGE_PADDING;
+    }
+
     /**
      * returns a random sized value for stroke size from 1 - 20
+     * @param random is where the random numbers come from
      * @return returns a random sized value for stroke size
      */
-    public int getRandomStroke() {
+    public static int getRandomStroke(SplittableRandom random) {
         return random.nextInt(STROKE_LIMIT) + 1;
     }
 
     /**
      * returns a randomly generated color for the shape
+     * @param random is where the random numbers come from
      * @return returns a randomly generated color for the shape
      */
-    public Color getRandomColor() {
-        double red = random.nextFloat();
-        double green = random.nextFloat();
-        double blue = random.nextFloat();
+    public static Color getRandomColor(SplittableRandom random) {
+        double red = random.nextDouble();
+        double green = random.nextDouble();
+        double blue = random.nextDouble();
         return Color.color(red, green, blue);
     }
 
     /**
-     * returns a random width value based on the current size of the canvas
-     * so the shape can get a coordinate that is randomly within the canvas
-     * @param canvas the canvas to be drawn on
-     * @return returns a random width value based on the current size of the canvas
+     * returns a random whole number of pixels up to a width, for the width of a random shape
+     * @param random is where the random numbers come from
+     * @param width is the width of the area the shape is put in
+     * @return returns a random width value smaller than the width of the area
+     */
+    public static double getRandomWidth(SplittableRandom random, double width) {
+        return random.nextInt(Math.max((int) Math.floor(width), 1));
+    }
+
+    /**
+     * returns a random whole number of pixels up to a height, for the height of a random shape
+     * @param random is where the random numbers come from
+     * @param height is the height of the area the shape is put in
+     * @return returns a random height value smaller than the height of the area
+     */
+    public static double getRandomHeight(SplittableRandom random, double height) {
+        return random.nextInt(Math.max((int) Math.floor(height), 1));
+    }
+
+    /**
+     * returns a random x coordinate within an area, so a shape can be put randomly within it
+     * @param random is where the random numbers come from
+     * @param area is the area the shape is put in
+     * @return returns a random x coordinate within the area
+     */
+    public static double getRandomX(SplittableRandom random, ShapeBounds area) {
+        return area.getMinX() + getRandomWidth(random, area.getWidth());
+    }
+
+    /**
+     * returns a random y coordinate within an area, so a shape can be put randomly within it
+     * @param random is where the random numbers come from
+     * @param area is the area the shape is put in
+     * @return returns a random y coordinate within the area
      */
-    public double getRandomWidth(Canvas canvas) {
-        return random.nextInt((int) Math.floor(canvas.getWidth()));
+    public static double getRandomY(SplittableRandom random, ShapeBounds area) {
+        return area.getMinY() + getRandomHeight(random, area.getHeight());
     }
 
     /**
-     * returns a random height value based on the current size of the canvas
-     * so the shape can get a coordinate that is randomly within the canvas
-     * @param canvas the canvas to be drawn on
-     * @return returns a random height value based on the current size of the canvas
+     * returns random settings for a shape, with a random stroke size and colors, and no fill
+     * @param random is where the random numbers come from
+     * @return returns random settings for a shape
      */
-    public double getRandomHeight(Canvas canvas) {
-        return random.nextInt((int) Math.floor(canvas.getHeight()));
+    public static ShapeSettings getRandomSettings(SplittableRandom random) {
+        return new ShapeSettings(getRandomStroke(random), getRandomColor(random), false, getRandomColor(random));
     }
 
     @Override
     public String toString() {
         return "DrawableShape{" +
-                "context=" + context +
-                ", shapeSettings=" + shapeSettings +
+                "shapeSettings=" + shapeSettings +
                 ", shapeDimensions=" + shapeDimensions +
                 '}';
     }
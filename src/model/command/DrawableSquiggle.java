@@ -1,12 +1,12 @@
 package model.command;
 
-import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
+import model.command.helpers.ShapeBounds;
 import model.command.helpers.ShapeDimensions;
 import model.command.helpers.ShapeSettings;
 import model.command.helpers.SquiggleCoordinates;
+import model.render.IShapeRenderer;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * This class creates a drawable squiggle that can get drawn to a canvas
@@ -24,31 +24,66 @@ public class DrawableSquiggle extends DrawableShape implements IDrawableCommandF
     //number of other drawable shapes (Line, Rectangle, Ellipse)
     private static final int NUM_OF_SHAPES = 3;
 
+    //miter joins can reach out half the miter limit (10) times the stroke size
+    static final double MITER_REACH = 5;
+
     /**
      * This is the DrawableSquiggle constructor
-     * @param context is the graphics context of the canvas to be drawn on
      * @param shapeSettings is the setting of the shapes colors, and stroke
      * @param shapeDimensions is the size and positioning of the shape on the canvas
      * @param coordinates is the path that the squiggle will be drawn
      */
-    public DrawableSquiggle(GraphicsContext context, ShapeSettings shapeSettings,
+    public DrawableSquiggle(ShapeSettings shapeSettings,
                             ShapeDimensions shapeDimensions, SquiggleCoordinates coordinates) {
-        super(context, shapeSettings, shapeDimensions);
+        super(shapeSettings, shapeDimensions);
+        this.coordinates = coordinates;
+    }
+
+    /**
+     * returns the path that the squiggle will be drawn
+     * @return returns the path that the squiggle will be drawn
+     */
+    public SquiggleCoordinates getCoordinates() {
+        return coordinates;
+    }
+
+    /**
+     * sets the path that the squiggle will be drawn
+     * @param coordinates is the path that the squiggle will be drawn
+     */
+    public void setCoordinates(SquiggleCoordinates coordinates) {
         this.coordinates = coordinates;
+        super.invalidateBounds();
     }
 
     @Override
-    public void draw() {
-        //get the context and set the shape's settings
-        GraphicsContext context = super.getContext();
-        context.setStroke(super.getShapeSettings().getStrokeColor());
-        context.setLineWidth(super.getShapeSettings().getStrokeSize());
-        context.stroke();
+    protected ShapeBounds calculateBounds() {
+        double[] pathX = coordinates.getCoordinateX();
+        double[] pathY = coordinates.getCoordinateY();
+        double minX = pathX[0];
+        double minY = pathY[0];
+        double maxX = pathX[0];
+        double maxY = pathY[0];
+
+        //find the corners of the box around every point in the path
+        for(int i = 1; i < coordinates.getNumOfCoordinates(); i++) {
+            minX = Math.min(minX, pathX[i]);
+            minY = Math.min(minY, pathY[i]);
+            maxX = Math.max(maxX, pathX[i]);
+            maxY = Math.max(maxY, pathY[i]);
+        }
+        return new ShapeBounds(minX, minY, maxX, maxY).expand(super.getStrokePadding(MITER_REACH));
+    }
+
+    @Override
+    public void draw(IShapeRenderer renderer) {
+        //set the shape's settings
+        renderer.setStroke(super.getShapeSettings().getStrokeColor());
+        renderer.setLineWidth(super.getShapeSettings().getStrokeSize());
 
         if(super.getShapeSettings().isFilled()) { //if filled, draw with fill settings
-            context.setFill(super.getShapeSettings().getFillColor());
-            context.fill();
-            context.fillPolygon(
+            renderer.setFill(super.getShapeSettings().getFillColor());
+            renderer.fillPolygon(
                 coordinates.getCoordinateX(),
                 coordinates.getCoordinateY(),
                 coordinates.getNumOfCoordinates()
@@ -56,7 +91,7 @@ public class DrawableSquiggle extends DrawableShape implements IDrawableCommandF
         }
 
         //stroked version will always draw
-        context.strokePolyline(
+        renderer.strokePolyline(
                 coordinates.getCoordinateX(),
                 coordinates.getCoordinateY(),
                 coordinates.getNumOfCoordinates()
@@ -64,33 +99,116 @@ public class DrawableSquiggle extends DrawableShape implements IDrawableCommandF
     }
 
     @Override
-    public IDrawableCommandFactory getRandomShape(Canvas canvas) {
+    public void appendPath(IShapeRenderer renderer) {
+        if(coordinates.getNumOfCoordinates() == 0) {
+            return;
+        }
+        double[] pathX = coordinates.getCoordinateX();
+        double[] pathY = coordinates.getCoordinateY();
+        renderer.moveTo(pathX[0], pathY[0]);
+        for(int i = 1; i < coordinates.getNumOfCoordinates(); i++) {
+            renderer.lineTo(pathX[i], pathY[i]);
+        }
+    }
+
+    /**
+     * This function strokes only the part of the path that came after the points already drawn,
+     * starting at the last point already drawn. The new part is a separate stroke, so where it meets
+     * the part already drawn their caps overlap and the corner isn't mitered. Call drawSegmentsNear
+     * over getJointBounds of that point afterwards to fix it. It doesn't fill the squiggle, since a fill
+     * changes with every new point
+     * @param renderer is the renderer of the canvas to be drawn on
+     * @param pointsDrawn is the number of points of this path that are already on the canvas
+     */
+    public void drawNewSegments(IShapeRenderer renderer, int pointsDrawn) {
+        double[] pathX = coordinates.getCoordinateX();
+        double[] pathY = coordinates.getCoordinateY();
+        int start = Math.max(pointsDrawn - 1, 0);
+
+        //set the shape's settings
+        renderer.setStroke(super.getShapeSettings().getStrokeColor());
+        renderer.setLineWidth(super.getShapeSettings().getStrokeSize());
+
+        //build a path of just the new segments and stroke it
+        renderer.beginPath();
+        renderer.moveTo(pathX[start], pathY[start]);
+        for(int i = start + 1; i < coordinates.getNumOfCoordinates(); i++) {
+            renderer.lineTo(pathX[i], pathY[i]);
+        }
+        renderer.stroke();
+    }
+
+    /**
+     * returns the area where the stroke around a point of the path can reach, including its caps and miter
+     * @param point is the position of the point in the path
+     * @return returns the area the stroke around the point can reach
+     */
+    public ShapeBounds getJointBounds(int point) {
+        double x = coordinates.getCoordinateX()[point];
+        double y = coordinates.getCoordinateY()[point];
+        return new ShapeBounds(x, y, x, y).expand(super.getStrokePadding(MITER_REACH));
+    }
+
+    /**
+     * This function strokes, as one path, every segment of the path that comes close enough to an area
+     * for its stroke to reach it. Inside the area this looks the same as stroking the whole path, so
+     * clipping to the area and clearing it first repairs a joint left by drawNewSegments. Every point is
+     * looked at, but only the segments near the area are stroked
+     * @param renderer is the renderer of the canvas to be drawn on, clipped to the area
+     * @param area is the area that has to look like the whole path was stroked
+     */
+    public void drawSegmentsNear(IShapeRenderer renderer, ShapeBounds area) {
+        double[] pathX = coordinates.getCoordinateX();
+        double[] pathY = coordinates.getCoordinateY();
+
+        //a segment further away than this can't reach the area, and neither can the caps or joins of the ones kept
+        ShapeBounds near = area.expand(super.getStrokePadding(MITER_REACH));
+
+        //set the shape's settings
+        renderer.setStroke(super.getShapeSettings().getStrokeColor());
+        renderer.setLineWidth(super.getShapeSettings().getStrokeSize());
+
+        //runs of segments near the area become separate subpaths of one path, so overlaps are only drawn once
+        renderer.beginPath();
+        boolean inRun = false;
+        for(int i = 1; i < coordinates.getNumOfCoordinates(); i++) {
+            boolean isNear = Math.max(pathX[i - 1], pathX[i]) >= near.getMinX()
+                    && Math.min(pathX[i - 1], pathX[i]) <= near.getMaxX()
+                    && Math.max(pathY[i - 1], pathY[i]) >= near.getMinY()
+                    && Math.min(pathY[i - 1], pathY[i]) <= near.getMaxY();
+            if(isNear) {
+                if(!inRun) {
+                    renderer.moveTo(pathX[i - 1], pathY[i - 1]);
+                }
+                renderer.lineTo(pathX[i], pathY[i]);
+            }
+            inRun = isNear;
+        }
+        renderer.stroke();
+    }
+
+    @Override
+    public IDrawableCommandFactory getRandomShape(ShapeBounds area, SplittableRandom random) {
         //build randomized shape dimensions and settings
         ShapeDimensions randomShapeDimension = new ShapeDimensions(
-                super.getRandomWidth(canvas), super.getRandomHeight(canvas),
-                super.getRandomWidth(canvas), super.getRandomHeight(canvas)
+                getRandomX(random, area), getRandomY(random, area),
+                getRandomX(random, area), getRandomY(random, area)
         );
 
-        ShapeSettings shapeSettings = new ShapeSettings(
-                super.getRandomStroke(),
-                super.getRandomColor(),
-                false,
-                super.getRandomColor()
-        );
+        ShapeSettings shapeSettings = getRandomSettings(random);
 
-        Random random = new Random();
         int option = random.nextInt(NUM_OF_SHAPES);
 
         //return new random drawable shape using randomized settings and dimensions
         switch (option) {
             case 0 : // line
-                shape = new DrawableLine(canvas.getGraphicsContext2D(), shapeSettings, randomShapeDimension);
+                shape = new DrawableLine(shapeSettings, randomShapeDimension);
                 break;
             case 1 : // oval
-                shape = new DrawableEllipse(canvas.getGraphicsContext2D(), getShapeSettings(), randomShapeDimension);
+                shape = new DrawableEllipse(getShapeSettings(), randomShapeDimension);
                 break;
             case 2 : // rect
-                shape = new DrawableRectangle(canvas.getGraphicsContext2D(), getShapeSettings(), randomShapeDimension);
+                shape = new DrawableRectangle(getShapeSettings(), randomShapeDimension);
                 break;
         }
         return shape;
@@ -1,6 +1,10 @@
 package model.command;
 
-import javafx.scene.canvas.Canvas;
+import model.command.helpers.ShapeBounds;
+import model.command.helpers.ShapeSettings;
+import model.render.IShapeRenderer;
+
+import java.util.SplittableRandom;
 
 /**
  * This class is a interface that ensures any object that implements it will
@@ -13,13 +17,35 @@ public interface IDrawableCommandFactory {
 
     /**
      * This method will define a shape is drawn to the canvas
+     * @param renderer is the renderer of the canvas to be drawn on
+     */
+    void draw(IShapeRenderer renderer);
+
+    /**
+     * This method adds the outline of the shape to the renderer's current path, without setting
+     * any state or drawing anything, so a run of shapes in the same style can be stroked together
+     * @param renderer is the renderer whose path the outline is added to
+     */
+    void appendPath(IShapeRenderer renderer);
+
+    /**
+     * This method returns the style the shape is drawn with
+     * @return returns the shape's settings
+     */
+    ShapeSettings getShapeSettings();
+
+    /**
+     * This method returns the area of the canvas the shape covers, including its stroke
+     * @return returns the area of the canvas the shape covers
      */
-    void draw();
+    ShapeBounds getBounds();
 
     /**
-     * This function creates a new random shape and returns it
-     * @param canvas the canvas to be drawn on
+     * This function creates a new random shape and returns it. The random numbers come from the caller,
+     * so the same seed always creates the same shapes
+     * @param area is the area of the drawing the shape is put in
+     * @param random is where the random numbers come from
      * @return returns a new IDrawableCommandFactory that's randomly generated and can be drawn
      */
-    IDrawableCommandFactory getRandomShape(Canvas canvas);
+    IDrawableCommandFactory getRandomShape(ShapeBounds area, SplittableRandom random);
 }
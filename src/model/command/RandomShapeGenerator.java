@@ -0,0 +1,136 @@
+package model.command;
+
+import model.command.helpers.ShapeBounds;
+import model.command.helpers.ShapeDimensions;
+import model.command.helpers.ShapeSettings;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * This class generates large numbers of random shapes for load testing, the way the random tool
+ * makes them: lines, ovals and rectangles with random corners in an area and random styles.
+ *
+ * The shapes are generated in chunks on every core. Each chunk has its own random number source,
+ * split from the seed in chunk order before any are generated, so the same seed always generates
+ * the same shapes in the same order however many cores there are.
+ *
+ * A user only picks a handful of styles, so the styles come from a palette generated from the seed
+ * rather than being random for every shape. Shapes stay within a maximum size around their first corner
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+public class RandomShapeGenerator {
+
+    //defaults for the number of styles and the largest shape
+    public static final int DEFAULT_PALETTE_SIZE = 64;
+    public static final double DEFAULT_MAX_SHAPE_SIZE = 150;
+
+    //number of shapes (Line, Oval, Rectangle)
+    private static final int NUM_OF_SHAPES = 3;
+
+    //shapes generated by one random number source, enough to keep a core busy
+    private static final int CHUNK_SIZE = 16384;
+
+    private long seed;
+    private ShapeBounds area;
+    private int paletteSize;
+    private double maxShapeSize;
+
+    /**
+     * This is the RandomShapeGenerator constructor, using the default palette size and shape size
+     * @param seed is the seed the shapes are generated from
+     * @param area is the area of the drawing the shapes are put in
+     */
+    public RandomShapeGenerator(long seed, ShapeBounds area) {
+        this(seed, area, DEFAULT_PALETTE_SIZE, DEFAULT_MAX_SHAPE_SIZE);
+    }
+
+    /**
+     * This is the RandomShapeGenerator constructor
+     * @param seed is the seed the shapes are generated from
+     * @param area is the area of the drawing the shapes are put in
+     * @param paletteSize is the number of styles the shapes are drawn in
+     * @param maxShapeSize is the largest width and height in pixels of a shape
+     */
+    public RandomShapeGenerator(long seed, ShapeBounds area, int paletteSize, double maxShapeSize) {
+        if(paletteSize < 1) {
+            throw new IllegalArgumentException("A palette needs at least one style, not " + paletteSize);
+        }
+        this.seed = seed;
+        this.area = area;
+        this.paletteSize = paletteSize;
+        this.maxShapeSize = maxShapeSize;
+    }
+
+    /**
+     * This function generates random shapes in parallel. Each shape's area is worked out while
+     * it's generated, so adding the shapes to a document doesn't have to
+     * @param count is the number of shapes to generate
+     * @return returns the shapes, in the same order for the same seed
+     */
+    public IDrawableCommandFactory[] generate(int count) {
+        SplittableRandom root = new SplittableRandom(seed);
+        ShapeSettings[] palette = generatePalette(root);
+
+        //split the sources in order up front, so which core runs a chunk doesn't change it
+        int chunks = (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        SplittableRandom[] randoms = new SplittableRandom[chunks];
+        for(int i = 0; i < chunks; i++) {
+            randoms[i] = root.split();
+        }
+
+        IDrawableCommandFactory[] shapes = new IDrawableCommandFactory[count];
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            SplittableRandom random = randoms[chunk];
+            int end = Math.min(count, (chunk + 1) * CHUNK_SIZE);
+            for(int i = chunk * CHUNK_SIZE; i < end; i++) {
+                shapes[i] = generateShape(random, palette);
+                shapes[i].getBounds();
+            }
+        });
+        return shapes;
+    }
+
+    private ShapeSettings[] generatePalette(SplittableRandom random) {
+        ShapeSettings[] palette = new ShapeSettings[paletteSize];
+        for(int i = 0; i < palette.length; i++) {
+            palette[i] = ShapeSettings.intern(DrawableShape.getRandomSettings(random));
+        }
+        return palette;
+    }
+
+    private IDrawableCommandFactory generateShape(SplittableRandom random, ShapeSettings[] palette) {
+        ShapeSettings settings = palette[random.nextInt(palette.length)];
+        double startX = DrawableShape.getRandomX(random, area);
+        double startY = DrawableShape.getRandomY(random, area);
+
+        //the second corner of the drag is near the first, and inside the area
+        ShapeDimensions dimensions = new ShapeDimensions(startX, startY,
+                clamp(startX + (random.nextDouble() - 0.5) * maxShapeSize, area.getMinX(), area.getMaxX()),
+                clamp(startY + (random.nextDouble() - 0.5) * maxShapeSize, area.getMinY(), area.getMaxY()));
+
+        switch (random.nextInt(NUM_OF_SHAPES)) {
+            case 0 : // line
+                return new DrawableLine(settings, dimensions);
+            case 1 : // oval
+                return new DrawableEllipse(settings, dimensions);
+            default : // rect
+                return new DrawableRectangle(settings, dimensions);
+        }
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(value, max));
+    }
+
+    @Override
+    public String toString() {
+        return "RandomShapeGenerator{" +
+                "seed=" + seed +
+                ", area=" + area +
+                ", paletteSize=" + paletteSize +
+                ", maxShapeSize=" + maxShapeSize +
+                '}';
+    }
+}
@@ -0,0 +1,378 @@
+package model.command;
+
+import model.io.ShapeCodec;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class is the undo history of shapes, used like a stack. It keeps the newest shapes
+ * in memory in a column store, and once they take up more than the memory budget the oldest ones
+ * are written to a temporary file in segments. Segments are memory mapped and read back in when
+ * they're needed, either to draw or because undo has reached them
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+public class ShapeHistory {
+
+    //default number of bytes the shapes in memory can use
+    public static final long DEFAULT_MEMORY_BUDGET = 64L * 1024 * 1024;
+
+    //true if shapes in memory are kept off the heap by default, set with -Ddoodle.offHeap=true
+    public static final boolean DEFAULT_OFF_HEAP = Boolean.getBoolean("doodle.offHeap");
+
+    //number of shapes written to the file at a time
+    private static final int SEGMENT_SIZE = 1024;
+
+    //number of segments that are kept after being read back from the file
+    private static final int CACHED_SEGMENTS = 4;
+
+    //once over budget, segments are written until this much of it is used, so the store
+    //moves its shapes down once per batch of segments instead of once per segment
+    private static final double SPILL_TARGET = 0.75;
+
+    private long memoryBudget;
+    private long memoryUsed;
+
+    //shapes in memory, the first one is at position spilledCount
+    private ShapeStore resident;
+
+    //shapes written to the file, from oldest to newest
+    private List<Segment> segments = new ArrayList<>();
+    private int spilledCount;
+
+    //segments read back from the file, least recently used first
+    private Map<Segment, List<IDrawableCommandFactory>> cache =
+            new LinkedHashMap<>(CACHED_SEGMENTS, 0.75f, true);
+
+    //the file, opened the first time shapes are written to it
+    private File file;
+    private FileChannel channel;
+    private long fileLength;
+
+    /**
+     * This is the ShapeHistory constructor, using the default memory budget
+     */
+    public ShapeHistory() {
+        this(DEFAULT_MEMORY_BUDGET);
+    }
+
+    /**
+     * This is the ShapeHistory constructor, keeping shapes on or off the heap by default
+     * @param memoryBudget is how many bytes the shapes in memory can use
+     */
+    public ShapeHistory(long memoryBudget) {
+        this(memoryBudget, DEFAULT_OFF_HEAP);
+    }
+
+    /**
+     * This is the ShapeHistory constructor
+     * @param memoryBudget is how many bytes the shapes in memory can use
+     * @param offHeap is true if the shapes in memory should be kept off the heap
+     */
+    public ShapeHistory(long memoryBudget, boolean offHeap) {
+        this.memoryBudget = memoryBudget;
+        this.resident = new ShapeStore(offHeap);
+    }
+
+    /**
+     * This function adds a shape to the top of the history,
+     * writing the oldest shapes to the file if they take up too much memory
+     * @param shape is the shape to be added
+     */
+    public void push(IDrawableCommandFactory shape) {
+        resident.add(shape);
+        memoryUsed += resident.estimateHeapSize(resident.size() - 1);
+        spillOverBudget();
+    }
+
+    /**
+     * This function reads every shape kept as an object, like a shape still in the document file it was
+     * opened from, into memory, so the history doesn't read from that file anymore. If that takes it over
+     * the memory budget, the oldest shapes are written to the history's own file
+     */
+    public void unwrapExternals() {
+        resident.unwrapExternals();
+        memoryUsed = 0;
+        for(int i = 0; i < resident.size(); i++) {
+            memoryUsed += resident.estimateHeapSize(i);
+        }
+        spillOverBudget();
+    }
+
+    /**
+     * This function removes the shape on top of the history
+     * @return returns the shape that was removed
+     */
+    public IDrawableCommandFactory pop() {
+        if(resident.size() == 0) {
+            pageInLastSegment();
+        }
+        memoryUsed -= resident.estimateHeapSize(resident.size() - 1);
+        return resident.removeLast();
+    }
+
+    /**
+     * returns the shape on top of the history
+     * @return returns the shape on top of the history
+     */
+    public IDrawableCommandFactory peek() {
+        return get(size() - 1);
+    }
+
+    /**
+     * returns a shape in the history, reading it from the file if needed. A shape still in memory
+     * comes back as a view of the store, which can't be used after the next push or pop
+     * @param position is the position of the shape, starting from the oldest
+     * @return returns the shape at the position
+     */
+    public IDrawableCommandFactory get(int position) {
+        if(position >= spilledCount) {
+            return resident.get(position - spilledCount);
+        }
+        Segment segment = findSegment(position);
+        return readSegment(segment).get(position - segment.firstPosition);
+    }
+
+    /**
+     * returns every shape in the history, as shapes that stay the same while the history keeps changing,
+     * so they can be used by another thread
+     * @return returns every shape in the history, from the oldest
+     */
+    public IDrawableCommandFactory[] copyShapes() {
+        IDrawableCommandFactory[] shapes = new IDrawableCommandFactory[size()];
+        for(int i = 0; i < spilledCount; i++) {
+            shapes[i] = get(i);
+        }
+        ShapeStore copy = resident.copy();
+        for(int i = 0; i < copy.size(); i++) {
+            shapes[spilledCount + i] = copy.get(i);
+        }
+        return shapes;
+    }
+
+    /**
+     * returns the number of shapes in the history
+     * @return returns the number of shapes in the history
+     */
+    public int size() {
+        return spilledCount + resident.size();
+    }
+
+    /**
+     * returns true if there are no shapes in the history
+     * @return returns true if there are no shapes in the history
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * returns the number of shapes that are written to the file
+     * @return returns the number of shapes that are written to the file
+     */
+    public int getSpilledCount() {
+        return spilledCount;
+    }
+
+    /**
+     * sets how many bytes the shapes in memory can use
+     * @param memoryBudget is how many bytes the shapes in memory can use
+     */
+    public void setMemoryBudget(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * returns true if the shapes in memory are kept off the heap
+     * @return returns true if the shapes in memory are kept off the heap
+     */
+    public boolean isOffHeap() {
+        return resident.isOffHeap();
+    }
+
+    /**
+     * This function moves the shapes in memory on or off the heap
+     * @param offHeap is true if the shapes in memory should be kept off the heap
+     */
+    public void setOffHeap(boolean offHeap) {
+        resident.setOffHeap(offHeap);
+    }
+
+    /**
+     * This function removes every shape, lets go of the memory they were kept in, and deletes the file.
+     * The history can't be used afterwards
+     */
+    public void close() {
+        clear();
+        resident.close();
+    }
+
+    /**
+     * This function removes every shape, and deletes the file
+     */
+    public void clear() {
+        resident.clear();
+        segments.clear();
+        cache.clear();
+        spilledCount = 0;
+        memoryUsed = 0;
+        closeFile();
+    }
+
+    //writes the oldest shapes in memory to the file, a segment at a time, while they take up too much memory
+    private void spillOverBudget() {
+        if(memoryUsed > memoryBudget && resident.size() > SEGMENT_SIZE) {
+            int spilled = 0;
+            while(memoryUsed > memoryBudget * SPILL_TARGET && resident.size() - spilled > SEGMENT_SIZE) {
+                spillSegment(spilled);
+                spilled += SEGMENT_SIZE;
+            }
+            resident.removeFirst(spilled);
+        }
+    }
+
+    //writes a segment of the oldest shapes in memory to the end of the file, starting at first in the store
+    private void spillSegment(int first) {
+        int length = 0;
+        for(int i = first; i < first + SEGMENT_SIZE; i++) {
+            length += ShapeCodec.encodedSize(resident.get(i));
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        for(int i = first; i < first + SEGMENT_SIZE; i++) {
+            ShapeCodec.encode(resident.get(i), buffer);
+            memoryUsed -= resident.estimateHeapSize(i);
+        }
+        buffer.flip();
+
+        try {
+            openFile();
+            while(buffer.hasRemaining()) {
+                channel.write(buffer, fileLength + buffer.position());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Couldn't write the shape history to " + file, e);
+        }
+
+        segments.add(new Segment(spilledCount, SEGMENT_SIZE, fileLength, length));
+        fileLength += length;
+        spilledCount += SEGMENT_SIZE;
+    }
+
+    //moves the newest segment in the file back into memory, for when undo has emptied the store
+    private void pageInLastSegment() {
+        Segment segment = segments.get(segments.size() - 1);
+        List<IDrawableCommandFactory> shapes = readSegment(segment);
+
+        segments.remove(segments.size() - 1);
+        cache.remove(segment);
+        spilledCount -= segment.count;
+
+        //the next segment written reuses the space, the file isn't shrunk while parts of it may still be mapped
+        fileLength = segment.offset;
+
+        for(IDrawableCommandFactory shape : shapes) {
+            resident.add(shape);
+            memoryUsed += resident.estimateHeapSize(resident.size() - 1);
+        }
+    }
+
+    private List<IDrawableCommandFactory> readSegment(Segment segment) {
+        List<IDrawableCommandFactory> shapes = cache.get(segment);
+        if(shapes != null) {
+            return shapes;
+        }
+
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, segment.offset, segment.length);
+            shapes = new ArrayList<>(segment.count);
+            for(int i = 0; i < segment.count; i++) {
+                shapes.add(ShapeCodec.decode(buffer));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Couldn't read the shape history from " + file, e);
+        }
+
+        cache.put(segment, shapes);
+        if(cache.size() > CACHED_SEGMENTS) {
+            cache.remove(cache.keySet().iterator().next());
+        }
+        return shapes;
+    }
+
+    private Segment findSegment(int position) {
+        //segments are in order, so search for the last one starting at or before the position
+        int low = 0;
+        int high = segments.size() - 1;
+        while(low < high) {
+            int middle = (low + high + 1) / 2;
+            if(segments.get(middle).firstPosition <= position) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return segments.get(low);
+    }
+
+    private void openFile() throws IOException {
+        if(channel == null) {
+            file = File.createTempFile("doodle-history", ".bin");
+            file.deleteOnExit();
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            fileLength = 0;
+        }
+    }
+
+    private void closeFile() {
+        if(channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                //the file is being thrown away, so there's nothing else to do
+            }
+            file.delete();
+            channel = null;
+            file = null;
+            fileLength = 0;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ShapeHistory{" +
+                "memoryBudget=" + memoryBudget +
+                ", memoryUsed=" + memoryUsed +
+                ", offHeap=" + resident.isOffHeap() +
+                ", resident=" + resident.size() +
+                ", spilledCount=" + spilledCount +
+                ", file=" + file +
+                '}';
+    }
+
+    /**
+     * A run of shapes written to the file
+     */
+    private static class Segment {
+        private final int firstPosition;
+        private final int count;
+        private final long offset;
+        private final int length;
+
+        Segment(int firstPosition, int count, long offset, int length) {
+            this.firstPosition = firstPosition;
+            this.count = count;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package model.command;
+
+import model.command.helpers.ShapeBounds;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class is a spatial index over the shapes in the undo history. The canvas is split
+ * into a grid of square cells, and each cell remembers the position in the history of every
+ * shape that covers it, so finding the shapes in an area only looks at the cells under it.
+ *
+ * Shapes are added and removed from the top of the history like the undo stack,
+ * and query results come back in history order so shapes can be redrawn in the right order.
+ * The area of every shape is kept as four floats in one array rather than as an object, since
+ * the index holds one for every shape in the history, even the ones written to disk
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+public class ShapeIndex {
+
+    //size in pixels of a grid cell
+    public static final int DEFAULT_CELL_SIZE = 128;
+
+    //shapes covering more cells than this are kept in one list that every query checks
+    private static final int MAX_CELLS_PER_SHAPE = 256;
+
+    //min x, min y, max x and max y of a shape's area
+    private static final int BOUNDS_SIZE = 4;
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private int cellSize;
+
+    //history positions of the shapes in each cell, and of the very large shapes
+    private Map<Long, IntList> cells = new HashMap<>();
+    private IntList oversized = new IntList();
+
+    //area of every shape, by history position, rounded outwards to floats so no overlap is missed
+    private float[] bounds = new float[INITIAL_CAPACITY * BOUNDS_SIZE];
+    private int size;
+
+    //marks shapes already found by the current query, so shapes in many cells are only returned once
+    private int[] visited = new int[0];
+    private int queryStamp;
+
+    /**
+     * This is the ShapeIndex constructor
+     */
+    public ShapeIndex() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * This is the ShapeIndex constructor
+     * @param cellSize is the size in pixels of a grid cell
+     */
+    public ShapeIndex(int cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * This function adds a shape on top of the history
+     * @param shapeBounds is the area the shape covers
+     */
+    public void add(ShapeBounds shapeBounds) {
+        int position = size;
+        if((position + 1) * BOUNDS_SIZE > bounds.length) {
+            bounds = Arrays.copyOf(bounds, bounds.length * 2);
+        }
+        int first = position * BOUNDS_SIZE;
+        bounds[first] = roundDown(shapeBounds.getMinX());
+        bounds[first + 1] = roundDown(shapeBounds.getMinY());
+        bounds[first + 2] = roundUp(shapeBounds.getMaxX());
+        bounds[first + 3] = roundUp(shapeBounds.getMaxY());
+        size++;
+
+        if(isOversized(position)) {
+            oversized.add(position);
+            return;
+        }
+
+        //the cells come from the stored floats, so removeLast finds the same ones
+        for(int cellY = cell(bounds[first + 1]); cellY <= cell(bounds[first + 3]); cellY++) {
+            for(int cellX = cell(bounds[first]); cellX <= cell(bounds[first + 2]); cellX++) {
+                cells.computeIfAbsent(key(cellX, cellY), k -> new IntList()).add(position);
+            }
+        }
+    }
+
+    /**
+     * This function removes the shape on top of the history
+     */
+    public void removeLast() {
+        if(size == 0) {
+            return;
+        }
+        int position = size - 1;
+        size--;
+
+        if(isOversized(position)) {
+            oversized.removeLast();
+            return;
+        }
+
+        //the shape was the last one added, so it's at the end of every cell it's in
+        int first = position * BOUNDS_SIZE;
+        for(int cellY = cell(bounds[first + 1]); cellY <= cell(bounds[first + 3]); cellY++) {
+            for(int cellX = cell(bounds[first]); cellX <= cell(bounds[first + 2]); cellX++) {
+                Long key = key(cellX, cellY);
+                IntList cell = cells.get(key);
+                cell.removeLast();
+                if(cell.size() == 0) {
+                    cells.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * This function removes every shape
+     */
+    public void clear() {
+        cells.clear();
+        oversized = new IntList();
+        bounds = new float[INITIAL_CAPACITY * BOUNDS_SIZE];
+        size = 0;
+    }
+
+    /**
+     * returns the number of shapes in the index
+     * @return returns the number of shapes in the index
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * returns the area a shape covers
+     * @param position is the shape's position in the history
+     * @return returns the area a shape covers
+     */
+    public ShapeBounds getBounds(int position) {
+        int first = position * BOUNDS_SIZE;
+        return new ShapeBounds(bounds[first], bounds[first + 1], bounds[first + 2], bounds[first + 3]);
+    }
+
+    /**
+     * This function finds the area covered by every shape together. Only the shapes in the outermost
+     * rows and columns of occupied cells can reach the edges, so only they are looked at
+     * @return returns the area covered by every shape, or null if there are none
+     */
+    public ShapeBounds getContentBounds() {
+        if(size == 0) {
+            return null;
+        }
+        ShapeBounds content = null;
+        for(int i = 0; i < oversized.size(); i++) {
+            content = union(content, getBounds(oversized.get(i)));
+        }
+        if(cells.isEmpty()) {
+            return content;
+        }
+
+        //find the outermost occupied cells
+        int minCellX = Integer.MAX_VALUE;
+        int minCellY = Integer.MAX_VALUE;
+        int maxCellX = Integer.MIN_VALUE;
+        int maxCellY = Integer.MIN_VALUE;
+        for(long key : cells.keySet()) {
+            minCellX = Math.min(minCellX, cellX(key));
+            maxCellX = Math.max(maxCellX, cellX(key));
+            minCellY = Math.min(minCellY, cellY(key));
+            maxCellY = Math.max(maxCellY, cellY(key));
+        }
+
+        //a shape reaching an edge is in a cell on that edge
+        double minX = Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+        for(Map.Entry<Long, IntList> entry : cells.entrySet()) {
+            int cellX = cellX(entry.getKey());
+            int cellY = cellY(entry.getKey());
+            if(cellX != minCellX && cellX != maxCellX && cellY != minCellY && cellY != maxCellY) {
+                continue;
+            }
+            IntList cell = entry.getValue();
+            for(int i = 0; i < cell.size(); i++) {
+                int first = cell.get(i) * BOUNDS_SIZE;
+                minX = Math.min(minX, bounds[first]);
+                minY = Math.min(minY, bounds[first + 1]);
+                maxX = Math.max(maxX, bounds[first + 2]);
+                maxY = Math.max(maxY, bounds[first + 3]);
+            }
+        }
+        return union(content, new ShapeBounds(minX, minY, maxX, maxY));
+    }
+
+    private static ShapeBounds union(ShapeBounds content, ShapeBounds shapeBounds) {
+        return content == null ? shapeBounds : content.union(shapeBounds);
+    }
+
+    /**
+     * This function finds every shape that overlaps an area
+     * @param region is the area to search
+     * @return returns the history positions of the shapes that overlap the area, from bottom to top
+     */
+    public int[] query(ShapeBounds region) {
+        IntList found = new IntList();
+        nextQuery();
+
+        for(int i = 0; i < oversized.size(); i++) {
+            check(oversized.get(i), region, found);
+        }
+
+        //look through whichever is smaller, the cells under the area or the cells with shapes in them
+        long cellsUnder = (long) (cell(region.getMaxX()) - cell(region.getMinX()) + 1)
+                * (cell(region.getMaxY()) - cell(region.getMinY()) + 1);
+        if(cellsUnder <= cells.size()) {
+            for(int cellY = cell(region.getMinY()); cellY <= cell(region.getMaxY()); cellY++) {
+                for(int cellX = cell(region.getMinX()); cellX <= cell(region.getMaxX()); cellX++) {
+                    IntList cell = cells.get(key(cellX, cellY));
+                    if(cell != null) {
+                        checkAll(cell, region, found);
+                    }
+                }
+            }
+        } else {
+            for(IntList cell : cells.values()) {
+                checkAll(cell, region, found);
+            }
+        }
+
+        int[] result = found.toArray();
+        Arrays.sort(result);
+        return result;
+    }
+
+    private void checkAll(IntList cell, ShapeBounds region, IntList found) {
+        for(int i = 0; i < cell.size(); i++) {
+            check(cell.get(i), region, found);
+        }
+    }
+
+    private void check(int position, ShapeBounds region, IntList found) {
+        if(visited[position] != queryStamp) {
+            visited[position] = queryStamp;
+            int first = position * BOUNDS_SIZE;
+            if(bounds[first] <= region.getMaxX() && region.getMinX() <= bounds[first + 2]
+                    && bounds[first + 1] <= region.getMaxY() && region.getMinY() <= bounds[first + 3]) {
+                found.add(position);
+            }
+        }
+    }
+
+    private void nextQuery() {
+        if(visited.length < size) {
+            visited = new int[Math.max(size, visited.length * 2)];
+            queryStamp = 0;
+        }
+        queryStamp++;
+    }
+
+    private boolean isOversized(int position) {
+        int first = position * BOUNDS_SIZE;
+        long width = cell(bounds[first + 2]) - cell(bounds[first]) + 1;
+        long height = cell(bounds[first + 3]) - cell(bounds[first + 1]) + 1;
+        return width * height > MAX_CELLS_PER_SHAPE;
+    }
+
+    //the nearest float at or below a coordinate
+    private static float roundDown(double coordinate) {
+        float rounded = (float) coordinate;
+        return rounded > coordinate ? Math.nextDown(rounded) : rounded;
+    }
+
+    //the nearest float at or above a coordinate
+    private static float roundUp(double coordinate) {
+        float rounded = (float) coordinate;
+        return rounded < coordinate ? Math.nextUp(rounded) : rounded;
+    }
+
+    private int cell(double coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private static int cellX(long key) {
+        return (int) (key >> 32);
+    }
+
+    private static int cellY(long key) {
+        return (int) key;
+    }
+
+    private static Long key(int cellX, int cellY) {
+        return ((long) cellX << 32) | (cellY & 0xffffffffL);
+    }
+
+    @Override
+    public String toString() {
+        return "ShapeIndex{" +
+                "cellSize=" + cellSize +
+                ", cells=" + cells.size() +
+                ", oversized=" + oversized.size() +
+                ", shapes=" + size +
+                '}';
+    }
+
+    /**
+     * A growable list of ints, so cells don't box every history position
+     */
+    private static class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if(size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void removeLast() {
+            size--;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
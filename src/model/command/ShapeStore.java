@@ -0,0 +1,669 @@
+package model.command;
+
+import model.command.helpers.ShapeBounds;
+import model.command.helpers.ShapeDimensions;
+import model.command.helpers.ShapeSettings;
+import model.command.helpers.SquiggleCoordinates;
+import model.io.ShapeCodec;
+import model.render.IShapeRenderer;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class stores shapes column by column instead of as objects. Every shape takes a type byte,
+ * four float coordinates, a number in a table of the different settings used, and where its points
+ * end in a pool of points shared by every squiggle. That's about 25 bytes a shape, where a shape
+ * object with its dimensions, bounds and random number generator takes close to 200.
+ *
+ * Shapes are read back through StoredShape views that only know the store and their position,
+ * so they're made as they're needed. Removing any shape can move the others, so a view made
+ * before a removal throws if it's used afterwards instead of reading some other shape. Coordinates are kept as floats, the same as the journal and
+ * document files keep them. Shapes that aren't one of the drawable shapes, like shapes still in
+ * their file, are kept as they are.
+ *
+ * The columns can be kept off the heap in direct buffers, so even a drawing with tens of millions
+ * of points leaves the garbage collector nothing to copy. Off heap columns are let go by close(),
+ * and their memory is given back once the buffers are collected
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+public class ShapeStore {
+
+    //type of a shape that's kept as an object
+    private static final byte EXTERNAL = -1;
+
+    //start and end corners, or the corner, width and height for rectangles and ovals
+    private static final int COORDINATES = 4;
+
+    //bytes a shape and a squiggle point take up in the columns
+    public static final int SHAPE_SIZE = 1 + COORDINATES * 4 + 4 + 4;
+    public static final int POINT_SIZE = 4 + 4;
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    //true if the columns are kept in direct buffers, off the heap
+    private boolean offHeap;
+
+    //one entry per shape
+    private ByteBuffer types;
+    private FloatBuffer coordinates;
+    private IntBuffer styles;
+    private IntBuffer pointEnds;
+    private int size;
+
+    //points of every squiggle, a squiggle's points end where the next one's start
+    private FloatBuffer pointsX;
+    private FloatBuffer pointsY;
+    private int pointCount;
+
+    //every different setting used, a kept shape has its number in the externals instead of a style
+    private List<ShapeSettings> styleTable = new ArrayList<>();
+    private Map<ShapeSettings, Integer> styleNumbers = new HashMap<>();
+    private List<IDrawableCommandFactory> externals = new ArrayList<>();
+
+    //counts the removals, a view made before the last one can't be used anymore
+    private int removals;
+
+    /**
+     * This is the ShapeStore constructor, keeping the columns on the heap
+     */
+    public ShapeStore() {
+        this(false);
+    }
+
+    /**
+     * This is the ShapeStore constructor
+     * @param offHeap is true if the columns should be kept in direct buffers, off the heap
+     */
+    public ShapeStore(boolean offHeap) {
+        this.offHeap = offHeap;
+        allocateColumns(INITIAL_CAPACITY, INITIAL_CAPACITY);
+    }
+
+    /**
+     * This function adds a shape to the end of the store
+     * @param shape is the shape to be added
+     */
+    public void add(IDrawableCommandFactory shape) {
+        if(shape instanceof StoredShape) {
+            shape = ((StoredShape) shape).toShape();
+        }
+        ensureCapacity(size + 1);
+        int previousEnd = size == 0 ? 0 : pointEnds.get(size - 1);
+
+        if(!(shape instanceof DrawableShape)) {
+            types.put(size, EXTERNAL);
+            styles.put(size, externals.size());
+            pointEnds.put(size, previousEnd);
+            externals.add(shape);
+            size++;
+            return;
+        }
+
+        DrawableShape drawable = (DrawableShape) shape;
+        ShapeDimensions dimensions = drawable.getShapeDimensions();
+        int first = size * COORDINATES;
+        types.put(size, ShapeCodec.typeOf(shape));
+        coordinates.put(first, (float) dimensions.getStartX());
+        coordinates.put(first + 1, (float) dimensions.getStartY());
+        coordinates.put(first + 2, (float) dimensions.getEndX());
+        coordinates.put(first + 3, (float) dimensions.getEndY());
+        styles.put(size, getStyleNumber(drawable.getShapeSettings()));
+
+        if(shape instanceof DrawableSquiggle) {
+            SquiggleCoordinates path = ((DrawableSquiggle) shape).getCoordinates();
+            int count = path.getNumOfCoordinates();
+            ensurePointCapacity(pointCount + count);
+            for(int i = 0; i < count; i++) {
+                pointsX.put(pointCount + i, (float) path.getCoordinateX()[i]);
+                pointsY.put(pointCount + i, (float) path.getCoordinateY()[i]);
+            }
+            pointCount += count;
+        }
+        pointEnds.put(size, pointCount);
+        size++;
+    }
+
+    /**
+     * returns a view of a shape in the store, which stays valid until a shape is removed from the store.
+     * Adding shapes doesn't change it
+     * @param position is the position of the shape
+     * @return returns the shape at the position
+     */
+    public IDrawableCommandFactory get(int position) {
+        if(types.get(position) == EXTERNAL) {
+            return externals.get(styles.get(position));
+        }
+        return new StoredShape(this, position);
+    }
+
+    /**
+     * This function removes the last shape in the store
+     * @return returns the shape that was removed, as a shape object that doesn't depend on the store
+     */
+    public IDrawableCommandFactory removeLast() {
+        int position = size - 1;
+        IDrawableCommandFactory shape = toShape(position);
+        if(types.get(position) == EXTERNAL) {
+            externals.remove(externals.size() - 1);
+        }
+        pointCount = getPointStart(position);
+        size--;
+        removals++;
+        return shape;
+    }
+
+    /**
+     * This function removes the oldest shapes in the store, moving the rest to the front
+     * @param count is the number of shapes to remove
+     */
+    public void removeFirst(int count) {
+        if(count == 0) {
+            return;
+        }
+        removals++;
+        int removedPoints = pointEnds.get(count - 1);
+        int removedExternals = 0;
+        for(int i = 0; i < count; i++) {
+            if(types.get(i) == EXTERNAL) {
+                removedExternals++;
+            }
+        }
+
+        size -= count;
+        moveToFront(types, count, size);
+        moveToFront(coordinates, count * COORDINATES, size * COORDINATES);
+        moveToFront(styles, count, size);
+        moveToFront(pointEnds, count, size);
+        pointCount -= removedPoints;
+        moveToFront(pointsX, removedPoints, pointCount);
+        moveToFront(pointsY, removedPoints, pointCount);
+        externals.subList(0, removedExternals).clear();
+
+        for(int i = 0; i < size; i++) {
+            pointEnds.put(i, pointEnds.get(i) - removedPoints);
+            if(types.get(i) == EXTERNAL) {
+                styles.put(i, styles.get(i) - removedExternals);
+            }
+        }
+    }
+
+    /**
+     * This function replaces every shape kept as an object with the shape it stands for, stored in the columns,
+     * so nothing in the store reads from a file anymore. Shapes stay at the same positions
+     */
+    public void unwrapExternals() {
+        if(externals.isEmpty()) {
+            return;
+        }
+        ShapeStore unwrapped = new ShapeStore(offHeap);
+        for(int i = 0; i < size; i++) {
+            if(types.get(i) == EXTERNAL) {
+                unwrapped.add(ShapeCodec.unwrap(externals.get(styles.get(i))));
+            } else {
+                unwrapped.addFrom(this, i);
+            }
+        }
+
+        types = unwrapped.types;
+        coordinates = unwrapped.coordinates;
+        styles = unwrapped.styles;
+        pointEnds = unwrapped.pointEnds;
+        pointsX = unwrapped.pointsX;
+        pointsY = unwrapped.pointsY;
+        pointCount = unwrapped.pointCount;
+        styleTable = unwrapped.styleTable;
+        styleNumbers = unwrapped.styleNumbers;
+        externals = unwrapped.externals;
+    }
+
+    /**
+     * returns the number of shapes in the store
+     * @return returns the number of shapes in the store
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * returns true if the columns are kept off the heap
+     * @return returns true if the columns are kept off the heap
+     */
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    /**
+     * This function moves the columns on or off the heap
+     * @param offHeap is true if the columns should be kept in direct buffers, off the heap
+     */
+    public void setOffHeap(boolean offHeap) {
+        if(this.offHeap != offHeap) {
+            this.offHeap = offHeap;
+            resizeShapeColumns(types.capacity());
+            resizePointColumns(pointsX.capacity());
+        }
+    }
+
+    /**
+     * returns roughly how many bytes a shape takes up in the heap, or off it
+     * @param position is the position of the shape
+     * @return returns roughly how many bytes the shape takes up
+     */
+    public long estimateHeapSize(int position) {
+        if(types.get(position) == EXTERNAL) {
+            return SHAPE_SIZE + ShapeCodec.estimateHeapSize(externals.get(styles.get(position)));
+        }
+        return SHAPE_SIZE + (long) getPointCount(position) * POINT_SIZE;
+    }
+
+    /**
+     * This function removes every shape, and lets go of the columns
+     */
+    public void clear() {
+        allocateColumns(INITIAL_CAPACITY, INITIAL_CAPACITY);
+        size = 0;
+        pointCount = 0;
+        removals++;
+        styleTable.clear();
+        styleNumbers.clear();
+        externals.clear();
+    }
+
+    /**
+     * This function removes every shape and lets go of the columns without making new ones,
+     * for when the store won't be used again
+     */
+    public void close() {
+        allocateColumns(0, 0);
+        size = 0;
+        pointCount = 0;
+        removals++;
+        styleTable.clear();
+        styleNumbers.clear();
+        externals.clear();
+    }
+
+    /**
+     * returns a copy of the store, kept on or off the heap the same as this one,
+     * which doesn't change when this one does
+     * @return returns a copy of the store
+     */
+    public ShapeStore copy() {
+        ShapeStore copy = new ShapeStore(offHeap);
+        copy.ensureCapacity(size);
+        copy.ensurePointCapacity(pointCount);
+        copyColumn(types, copy.types, size);
+        copyColumn(coordinates, copy.coordinates, size * COORDINATES);
+        copyColumn(styles, copy.styles, size);
+        copyColumn(pointEnds, copy.pointEnds, size);
+        copyColumn(pointsX, copy.pointsX, pointCount);
+        copyColumn(pointsY, copy.pointsY, pointCount);
+        copy.size = size;
+        copy.pointCount = pointCount;
+        copy.styleTable = new ArrayList<>(styleTable);
+        copy.styleNumbers = new HashMap<>(styleNumbers);
+        copy.externals = new ArrayList<>(externals);
+        return copy;
+    }
+
+    /**
+     * returns the number of times shapes have been removed from the store, a view is only
+     * valid while this is the same as when it was made
+     * @return returns the number of removals
+     */
+    int getRemovals() {
+        return removals;
+    }
+
+    /**
+     * returns the type byte of a shape
+     * @param position is the position of the shape
+     * @return returns the type byte of the shape
+     */
+    byte getType(int position) {
+        return types.get(position);
+    }
+
+    /**
+     * returns one of a shape's four stored coordinates, its start and end corners,
+     * or its corner, width and height if it's a rectangle or oval
+     * @param position is the position of the shape
+     * @param index is which coordinate, from 0 to 3
+     * @return returns the coordinate
+     */
+    float getCoordinate(int position, int index) {
+        return coordinates.get(position * COORDINATES + index);
+    }
+
+    /**
+     * returns the number of points a squiggle has, or 0 for any other shape
+     * @param position is the position of the shape
+     * @return returns the number of points the shape has
+     */
+    int getPointCount(int position) {
+        return pointEnds.get(position) - getPointStart(position);
+    }
+
+    float getPointX(int position, int index) {
+        return pointsX.get(getPointStart(position) + index);
+    }
+
+    float getPointY(int position, int index) {
+        return pointsY.get(getPointStart(position) + index);
+    }
+
+    ShapeSettings getShapeSettings(int position) {
+        return styleTable.get(styles.get(position));
+    }
+
+    //draws a shape the same way its shape object does
+    void draw(int position, IShapeRenderer renderer) {
+        ShapeSettings settings = styleTable.get(styles.get(position));
+        int first = position * COORDINATES;
+        double x1 = coordinates.get(first);
+        double y1 = coordinates.get(first + 1);
+        double x2 = coordinates.get(first + 2);
+        double y2 = coordinates.get(first + 3);
+        byte type = types.get(position);
+
+        if(type == ShapeCodec.LINE) {
+            renderer.setLineWidth(settings.getStrokeSize());
+            renderer.setStroke(settings.getStrokeColor());
+            renderer.strokeLine(x1, y1, x2, y2);
+            return;
+        }
+
+        renderer.setStroke(settings.getStrokeColor());
+        renderer.setLineWidth(settings.getStrokeSize());
+        switch (type) {
+            case ShapeCodec.OVAL :
+                if(settings.isFilled()) {
+                    renderer.setFill(settings.getFillColor());
+                    renderer.fillOval(x1, y1, x2, y2);
+                }
+                renderer.strokeOval(x1, y1, x2, y2);
+                break;
+            case ShapeCodec.RECTANGLE :
+                if(settings.isFilled()) {
+                    renderer.setFill(settings.getFillColor());
+                    renderer.fillRect(x1, y1, x2, y2);
+                }
+                renderer.strokeRect(x1, y1, x2, y2);
+                break;
+            default :
+                int start = getPointStart(position);
+                int count = pointEnds.get(position) - start;
+                if(settings.isFilled()) {
+                    renderer.setFill(settings.getFillColor());
+                    renderer.fillPolygon(pointsX, pointsY, start, count);
+                }
+                renderer.strokePolyline(pointsX, pointsY, start, count);
+                break;
+        }
+    }
+
+    //adds a shape's outline to the renderer's path the same way its shape object does
+    void appendPath(int position, IShapeRenderer renderer) {
+        int first = position * COORDINATES;
+        switch (types.get(position)) {
+            case ShapeCodec.LINE :
+                renderer.moveTo(coordinates.get(first), coordinates.get(first + 1));
+                renderer.lineTo(coordinates.get(first + 2), coordinates.get(first + 3));
+                break;
+            case ShapeCodec.OVAL :
+                renderer.oval(coordinates.get(first), coordinates.get(first + 1),
+                        coordinates.get(first + 2), coordinates.get(first + 3));
+                break;
+            case ShapeCodec.RECTANGLE :
+                renderer.rect(coordinates.get(first), coordinates.get(first + 1),
+                        coordinates.get(first + 2), coordinates.get(first + 3));
+                break;
+            default :
+                int start = getPointStart(position);
+                int end = pointEnds.get(position);
+                if(start == end) {
+                    return;
+                }
+                renderer.moveTo(pointsX.get(start), pointsY.get(start));
+                for(int i = start + 1; i < end; i++) {
+                    renderer.lineTo(pointsX.get(i), pointsY.get(i));
+                }
+                break;
+        }
+    }
+
+    //works out the area a shape covers the same way its shape object does
+    ShapeBounds getBounds(int position) {
+        ShapeSettings settings = styleTable.get(styles.get(position));
+        int first = position * COORDINATES;
+        double x = coordinates.get(first);
+        double y = coordinates.get(first + 1);
+        switch (types.get(position)) {
+            case ShapeCodec.OVAL :
+                return new ShapeBounds(x, y, x + coordinates.get(first + 2), y + coordinates.get(first + 3))
+                        .expand(DrawableShape.getStrokePadding(settings, 0.5));
+            case ShapeCodec.RECTANGLE :
+                return new ShapeBounds(x, y, x + coordinates.get(first + 2), y + coordinates.get(first + 3))
+                        .expand(DrawableShape.getStrokePadding(settings, 1));
+            case ShapeCodec.SQUIGGLE :
+                int start = getPointStart(position);
+                float minX = pointsX.get(start);
+                float minY = pointsY.get(start);
+                float maxX = minX;
+                float maxY = minY;
+                for(int i = start + 1; i < pointEnds.get(position); i++) {
+                    minX = Math.min(minX, pointsX.get(i));
+                    minY = Math.min(minY, pointsY.get(i));
+                    maxX = Math.max(maxX, pointsX.get(i));
+                    maxY = Math.max(maxY, pointsY.get(i));
+                }
+                return new ShapeBounds(minX, minY, maxX, maxY)
+                        .expand(DrawableShape.getStrokePadding(settings, DrawableSquiggle.MITER_REACH));
+            default :
+                return new ShapeBounds(x, y, coordinates.get(first + 2), coordinates.get(first + 3))
+                        .expand(DrawableShape.getStrokePadding(settings, DrawableLine.CAP_REACH));
+        }
+    }
+
+    /**
+     * returns a shape in the store as a shape object that doesn't depend on the store
+     * @param position is the position of the shape
+     * @return returns the shape at the position
+     */
+    IDrawableCommandFactory toShape(int position) {
+        if(types.get(position) == EXTERNAL) {
+            return externals.get(styles.get(position));
+        }
+        ShapeSettings settings = styleTable.get(styles.get(position));
+        int first = position * COORDINATES;
+        double x1 = coordinates.get(first);
+        double y1 = coordinates.get(first + 1);
+        double x2 = coordinates.get(first + 2);
+        double y2 = coordinates.get(first + 3);
+
+        switch (types.get(position)) {
+            case ShapeCodec.OVAL :
+                //the constructors take two corners, not a corner, width and height
+                return new DrawableEllipse(settings, new ShapeDimensions(x1, y1, x1 + x2, y1 + y2));
+            case ShapeCodec.RECTANGLE :
+                return new DrawableRectangle(settings, new ShapeDimensions(x1, y1, x1 + x2, y1 + y2));
+            case ShapeCodec.SQUIGGLE :
+                int start = getPointStart(position);
+                int count = pointEnds.get(position) - start;
+                double[] pathX = new double[count];
+                double[] pathY = new double[count];
+                for(int i = 0; i < count; i++) {
+                    pathX[i] = pointsX.get(start + i);
+                    pathY[i] = pointsY.get(start + i);
+                }
+                return new DrawableSquiggle(settings, new ShapeDimensions(x1, y1, x2, y2),
+                        new SquiggleCoordinates(pathX, pathY));
+            default :
+                return new DrawableLine(settings, new ShapeDimensions(x1, y1, x2, y2));
+        }
+    }
+
+    //adds a shape from another store's columns to the end of this one, without making a shape object
+    private void addFrom(ShapeStore from, int position) {
+        ensureCapacity(size + 1);
+        int count = from.getPointCount(position);
+        ensurePointCapacity(pointCount + count);
+
+        types.put(size, from.types.get(position));
+        for(int i = 0; i < COORDINATES; i++) {
+            coordinates.put(size * COORDINATES + i, from.coordinates.get(position * COORDINATES + i));
+        }
+        styles.put(size, getStyleNumber(from.getShapeSettings(position)));
+
+        int start = from.getPointStart(position);
+        for(int i = 0; i < count; i++) {
+            pointsX.put(pointCount + i, from.pointsX.get(start + i));
+            pointsY.put(pointCount + i, from.pointsY.get(start + i));
+        }
+        pointCount += count;
+        pointEnds.put(size, pointCount);
+        size++;
+    }
+
+    private int getPointStart(int position) {
+        return position == 0 ? 0 : pointEnds.get(position - 1);
+    }
+
+    private int getStyleNumber(ShapeSettings settings) {
+        //shapes drawn one after another usually share one interned style
+        if(size > 0 && types.get(size - 1) != EXTERNAL && styleTable.get(styles.get(size - 1)) == settings) {
+            return styles.get(size - 1);
+        }
+        Integer number = styleNumbers.get(settings);
+        if(number == null) {
+            number = styleTable.size();
+            styleTable.add(settings);
+            styleNumbers.put(settings, number);
+        }
+        return number;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if(capacity > types.capacity()) {
+            resizeShapeColumns(Math.max(capacity, types.capacity() * 2));
+        }
+    }
+
+    private void ensurePointCapacity(int capacity) {
+        if(capacity > pointsX.capacity()) {
+            resizePointColumns(Math.max(capacity, pointsX.capacity() * 2));
+        }
+    }
+
+    //makes new shape columns, copying over the shapes in the old ones
+    private void resizeShapeColumns(int capacity) {
+        ByteBuffer oldTypes = types;
+        FloatBuffer oldCoordinates = coordinates;
+        IntBuffer oldStyles = styles;
+        IntBuffer oldPointEnds = pointEnds;
+
+        allocateShapeColumns(capacity);
+        copyColumn(oldTypes, types, size);
+        copyColumn(oldCoordinates, coordinates, size * COORDINATES);
+        copyColumn(oldStyles, styles, size);
+        copyColumn(oldPointEnds, pointEnds, size);
+    }
+
+    //makes new point columns, copying over the points in the old ones
+    private void resizePointColumns(int capacity) {
+        FloatBuffer oldPointsX = pointsX;
+        FloatBuffer oldPointsY = pointsY;
+
+        allocatePointColumns(capacity);
+        copyColumn(oldPointsX, pointsX, pointCount);
+        copyColumn(oldPointsY, pointsY, pointCount);
+    }
+
+    private void allocateColumns(int shapeCapacity, int pointCapacity) {
+        allocateShapeColumns(shapeCapacity);
+        allocatePointColumns(pointCapacity);
+    }
+
+    private void allocateShapeColumns(int capacity) {
+        types = offHeap ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+        coordinates = allocateFloats(capacity * COORDINATES);
+        styles = allocateInts(capacity);
+        pointEnds = allocateInts(capacity);
+    }
+
+    private void allocatePointColumns(int capacity) {
+        pointsX = allocateFloats(capacity);
+        pointsY = allocateFloats(capacity);
+    }
+
+    //on the heap a column is a plain array, off it the direct buffer is in native order,
+    //so a float or int is read straight from memory without swapping its bytes
+    private FloatBuffer allocateFloats(int capacity) {
+        if(offHeap) {
+            return ByteBuffer.allocateDirect(capacity * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+        }
+        return FloatBuffer.allocate(capacity);
+    }
+
+    private IntBuffer allocateInts(int capacity) {
+        if(offHeap) {
+            return ByteBuffer.allocateDirect(capacity * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+        }
+        return IntBuffer.allocate(capacity);
+    }
+
+    //copies the first length entries of one column to another
+    private static void copyColumn(Buffer from, Buffer to, int length) {
+        Buffer source = duplicate(from).limit(length);
+        if(to instanceof ByteBuffer) {
+            ((ByteBuffer) to).duplicate().put((ByteBuffer) source);
+        } else if(to instanceof FloatBuffer) {
+            ((FloatBuffer) to).duplicate().put((FloatBuffer) source);
+        } else {
+            ((IntBuffer) to).duplicate().put((IntBuffer) source);
+        }
+    }
+
+    //moves length entries starting at first to the front of a column
+    private static void moveToFront(Buffer column, int first, int length) {
+        column.limit(first + length).position(first);
+        if(column instanceof ByteBuffer) {
+            ((ByteBuffer) column).compact();
+        } else if(column instanceof FloatBuffer) {
+            ((FloatBuffer) column).compact();
+        } else {
+            ((IntBuffer) column).compact();
+        }
+        column.clear();
+    }
+
+    private static Buffer duplicate(Buffer buffer) {
+        if(buffer instanceof ByteBuffer) {
+            return ((ByteBuffer) buffer).duplicate().clear();
+        } else if(buffer instanceof FloatBuffer) {
+            return ((FloatBuffer) buffer).duplicate().clear();
+        }
+        return ((IntBuffer) buffer).duplicate().clear();
+    }
+
+    @Override
+    public String toString() {
+        return "ShapeStore{" +
+                "offHeap=" + offHeap +
+                ", size=" + size +
+                ", pointCount=" + pointCount +
+                ", styles=" + styleTable.size() +
+                ", externals=" + externals.size() +
+                ", removals=" + removals +
+                '}';
+    }
+}
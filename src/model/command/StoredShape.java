@@ -0,0 +1,145 @@
+package model.command;
+
+import model.command.helpers.ShapeBounds;
+import model.command.helpers.ShapeSettings;
+import model.render.IShapeRenderer;
+
+import java.util.SplittableRandom;
+
+/**
+ * This class is a view of a shape in a ShapeStore. It only holds the store and the shape's position,
+ * everything else is read from the store's columns when it's needed. Once a shape is removed from the
+ * store the position may hold a different shape, so using the view after that throws an IllegalStateException
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+public class StoredShape implements IDrawableCommandFactory {
+
+    private final ShapeStore store;
+    private final int position;
+
+    //removals from the store when the view was made
+    private final int removals;
+
+    /**
+     * This is the StoredShape constructor
+     * @param store is the store holding the shape
+     * @param position is the position of the shape in the store
+     */
+    public StoredShape(ShapeStore store, int position) {
+        this.store = store;
+        this.position = position;
+        this.removals = store.getRemovals();
+    }
+
+    /**
+     * returns the type byte of the shape
+     * @return returns the type byte of the shape
+     */
+    public byte getType() {
+        checkValid();
+        return store.getType(position);
+    }
+
+    /**
+     * returns the number of points the shape has, which is 0 unless it's a squiggle
+     * @return returns the number of points the shape has
+     */
+    public int getPointCount() {
+        checkValid();
+        return store.getPointCount(position);
+    }
+
+    /**
+     * returns one of the shape's four stored coordinates, its start and end corners,
+     * or its corner, width and height if it's a rectangle or oval
+     * @param index is which coordinate, from 0 to 3
+     * @return returns the coordinate
+     */
+    public float getCoordinate(int index) {
+        checkValid();
+        return store.getCoordinate(position, index);
+    }
+
+    /**
+     * returns the x coordinate of one of the shape's points
+     * @param index is the index of the point
+     * @return returns the x coordinate of the point
+     */
+    public float getPointX(int index) {
+        checkValid();
+        return store.getPointX(position, index);
+    }
+
+    /**
+     * returns the y coordinate of one of the shape's points
+     * @param index is the index of the point
+     * @return returns the y coordinate of the point
+     */
+    public float getPointY(int index) {
+        checkValid();
+        return store.getPointY(position, index);
+    }
+
+    /**
+     * returns roughly how many bytes the shape takes up in the store
+     * @return returns roughly how many bytes the shape takes up in the store
+     */
+    public long estimateHeapSize() {
+        checkValid();
+        return store.estimateHeapSize(position);
+    }
+
+    /**
+     * returns the shape as a shape object that doesn't depend on the store
+     * @return returns the shape as a shape object
+     */
+    public IDrawableCommandFactory toShape() {
+        checkValid();
+        return store.toShape(position);
+    }
+
+    @Override
+    public void draw(IShapeRenderer renderer) {
+        checkValid();
+        store.draw(position, renderer);
+    }
+
+    @Override
+    public void appendPath(IShapeRenderer renderer) {
+        checkValid();
+        store.appendPath(position, renderer);
+    }
+
+    @Override
+    public ShapeSettings getShapeSettings() {
+        checkValid();
+        return store.getShapeSettings(position);
+    }
+
+    @Override
+    public ShapeBounds getBounds() {
+        checkValid();
+        return store.getBounds(position);
+    }
+
+    @Override
+    public IDrawableCommandFactory getRandomShape(ShapeBounds area, SplittableRandom random) {
+        return toShape().getRandomShape(area, random);
+    }
+
+    //a removal can move another shape into the position, so a view made before one isn't used
+    private void checkValid() {
+        if(store.getRemovals() != removals) {
+            throw new IllegalStateException("The shape at " + position + " was used after a shape was removed from its store");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "StoredShape{" +
+                "position=" + position +
+                ", removals=" + removals +
+                '}';
+    }
+}
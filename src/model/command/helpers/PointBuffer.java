@@ -0,0 +1,96 @@
+package model.command.helpers;
+
+import java.util.Arrays;
+
+/**
+ * This class is a helper class that collects the x, and y coordinates of a squiggle path
+ * as they come in. The coordinate arrays grow geometrically, so adding a point doesn't
+ * copy the points that came before it
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+public class PointBuffer {
+
+    private double[] coordinateX;
+    private double[] coordinateY;
+    private int size;
+
+    //starting capacity, and how much the arrays grow by when full
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int GROWTH_FACTOR = 2;
+
+    /**
+     * This is the PointBuffer constructor
+     */
+    public PointBuffer() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * This is the PointBuffer constructor
+     * @param capacity is the number of points that fit before the arrays need to grow
+     */
+    public PointBuffer(int capacity) {
+        coordinateX = new double[Math.max(capacity, 1)];
+        coordinateY = new double[Math.max(capacity, 1)];
+    }
+
+    /**
+     * This function adds a point to the end of the path
+     * @param x is the x coordinate
+     * @param y is the y coordinate
+     */
+    public void add(double x, double y) {
+        if(size == coordinateX.length) {
+            coordinateX = Arrays.copyOf(coordinateX, size * GROWTH_FACTOR);
+            coordinateY = Arrays.copyOf(coordinateY, size * GROWTH_FACTOR);
+        }
+        coordinateX[size] = x;
+        coordinateY[size] = y;
+        size++;
+    }
+
+    /**
+     * returns the number of points in the path
+     * @return returns the number of points in the path
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * returns the x coordinate of a point
+     * @param index is the position of the point in the path
+     * @return returns the x coordinate of a point
+     */
+    public double getX(int index) {
+        return coordinateX[index];
+    }
+
+    /**
+     * returns the y coordinate of a point
+     * @param index is the position of the point in the path
+     * @return returns the y coordinate of a point
+     */
+    public double getY(int index) {
+        return coordinateY[index];
+    }
+
+    /**
+     * returns the points added so far, sharing this buffer's arrays instead of copying them.
+     * Points added later don't show up in the returned coordinates
+     * @return returns the points added so far
+     */
+    public SquiggleCoordinates getCoordinates() {
+        return new SquiggleCoordinates(coordinateX, coordinateY, size);
+    }
+
+    @Override
+    public String toString() {
+        return "PointBuffer{" +
+                "coordinateX=" + Arrays.toString(Arrays.copyOf(coordinateX, size)) +
+                ", coordinateY=" + Arrays.toString(Arrays.copyOf(coordinateY, size)) +
+                ", size=" + size +
+                '}';
+    }
+}
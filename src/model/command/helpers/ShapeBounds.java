@@ -0,0 +1,118 @@
+package model.command.helpers;
+
+/**
+ * This class is a helper class that describes the area of the canvas a shape covers,
+ * as a rectangle lined up with the x and y axes
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+public class ShapeBounds {
+
+    private double minX;
+    private double minY;
+    private double maxX;
+    private double maxY;
+
+    /**
+     * This is the ShapeBounds constructor, the corners can be given in any order
+     * @param x1 x coordinate of one corner
+     * @param y1 y coordinate of one corner
+     * @param x2 x coordinate of the opposite corner
+     * @param y2 y coordinate of the opposite corner
+     */
+    public ShapeBounds(double x1, double y1, double x2, double y2) {
+        this.minX = Math.min(x1, x2);
+        this.minY = Math.min(y1, y2);
+        this.maxX = Math.max(x1, x2);
+        this.maxY = Math.max(y1, y2);
+    }
+
+    /**
+     * returns the smallest x coordinate
+     * @return returns the smallest x coordinate
+     */
+    public double getMinX() {
+        return minX;
+    }
+
+    /**
+     * returns the smallest y coordinate
+     * @return returns the smallest y coordinate
+     */
+    public double getMinY() {
+        return minY;
+    }
+
+    /**
+     * returns the largest x coordinate
+     * @return returns the largest x coordinate
+     */
+    public double getMaxX() {
+        return maxX;
+    }
+
+    /**
+     * returns the largest y coordinate
+     * @return returns the largest y coordinate
+     */
+    public double getMaxY() {
+        return maxY;
+    }
+
+    /**
+     * returns the width of the area
+     * @return returns the width of the area
+     */
+    public double getWidth() {
+        return maxX - minX;
+    }
+
+    /**
+     * returns the height of the area
+     * @return returns the height of the area
+     */
+    public double getHeight() {
+        return maxY - minY;
+    }
+
+    /**
+     * returns true if the two areas overlap or touch
+     * @param other is the area to check against
+     * @return returns true if the two areas overlap or touch
+     */
+    public boolean intersects(ShapeBounds other) {
+        return minX <= other.maxX && other.minX <= maxX
+                && minY <= other.maxY && other.minY <= maxY;
+    }
+
+    /**
+     * returns a new area grown by the same amount on every side
+     * @param amount is how far to grow each side
+     * @return returns a new area grown by the same amount on every side
+     */
+    public ShapeBounds expand(double amount) {
+        return new ShapeBounds(minX - amount, minY - amount, maxX + amount, maxY + amount);
+    }
+
+    /**
+     * returns a new area covering both areas
+     * @param other is the other area to cover
+     * @return returns a new area covering both areas
+     */
+    public ShapeBounds union(ShapeBounds other) {
+        return new ShapeBounds(
+                Math.min(minX, other.minX), Math.min(minY, other.minY),
+                Math.max(maxX, other.maxX), Math.max(maxY, other.maxY)
+        );
+    }
+
+    @Override
+    public String toString() {
+        return "ShapeBounds{" +
+                "minX=" + minX +
+                ", minY=" + minY +
+                ", maxX=" + maxX +
+                ", maxY=" + maxY +
+                '}';
+    }
+}
@@ -2,16 +2,31 @@ package model.command.helpers;
 
 import javafx.scene.paint.Paint;
 
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
- * This class is a helper class that stores shape settings for the shape they want to draw
+ * This class is a helper class that stores shape settings for the shape they want to draw.
+ *
+ * Settings are never changed once made, so shapes drawn with the same style can share one
+ * ShapeSettings, and the same paints. The intern functions hand back the shared copy
  * @author Chauncey Brown-Castro
  * @version 1.0
  */
 public class ShapeSettings {
-    private double strokeSize;
-    private Paint strokeColor;
-    private boolean isFilled;
-    private Paint fillColor;
+
+    //interning only saves memory when styles repeat, so the caches start over if they grow past this
+    private static final int MAX_INTERNED = 4096;
+
+    //shared copies of every style and paint seen, looked up by themselves
+    private static final Map<ShapeSettings, ShapeSettings> SETTINGS = new ConcurrentHashMap<>();
+    private static final Map<Paint, Paint> PAINTS = new ConcurrentHashMap<>();
+
+    private final double strokeSize;
+    private final Paint strokeColor;
+    private final boolean isFilled;
+    private final Paint fillColor;
 
     /**
      * This function is the constructor for the ShapeSettings class
@@ -27,6 +42,76 @@ public class ShapeSettings {
         this.fillColor = fillColor;
     }
 
+    /**
+     * This function returns the shared copy of a style, so shapes drawn with the same style
+     * share one ShapeSettings and the same paints
+     * @param strokeSize is the size that the user wants the stroke of the shape to be
+     * @param strokeColor is the color if the stroke that they want the shape to be
+     * @param isFilled is true|false depending on if they want the shape to be filled
+     * @param fillColor is the color of the fill for the shape
+     * @return returns the shared ShapeSettings equal to the style
+     */
+    public static ShapeSettings intern(double strokeSize, Paint strokeColor, boolean isFilled, Paint fillColor) {
+        return intern(new ShapeSettings(strokeSize, strokeColor, isFilled, fillColor));
+    }
+
+    /**
+     * This function returns the shared copy of a style
+     * @param settings is the style to look up
+     * @return returns the shared ShapeSettings equal to the style. If the style is new, that's a new
+     *         ShapeSettings with shared paints, the one given is never changed
+     */
+    public static ShapeSettings intern(ShapeSettings settings) {
+        ShapeSettings shared = SETTINGS.get(settings);
+        if(shared != null) {
+            return shared;
+        }
+        if(SETTINGS.size() >= MAX_INTERNED) {
+            SETTINGS.clear();
+        }
+
+        //a new style shares paints with the styles before it
+        ShapeSettings copy = new ShapeSettings(settings.strokeSize, internPaint(settings.strokeColor),
+                settings.isFilled, internPaint(settings.fillColor));
+        shared = SETTINGS.putIfAbsent(copy, copy);
+        return shared != null ? shared : copy;
+    }
+
+    /**
+     * This function returns the shared copy of a paint
+     * @param paint is the paint to look up
+     * @return returns the shared paint equal to the one given, which is the one given if it's new
+     */
+    public static Paint internPaint(Paint paint) {
+        if(paint == null) {
+            return null;
+        }
+        Paint shared = PAINTS.get(paint);
+        if(shared != null) {
+            return shared;
+        }
+        if(PAINTS.size() >= MAX_INTERNED) {
+            PAINTS.clear();
+        }
+        shared = PAINTS.putIfAbsent(paint, paint);
+        return shared != null ? shared : paint;
+    }
+
+    /**
+     * This function checks if this style is the one described, without making a new ShapeSettings
+     * @param strokeSize is the size of the stroke
+     * @param strokeColor is the color of the stroke
+     * @param isFilled is true|false depending on if the shape is filled
+     * @param fillColor is the color of the fill
+     * @return returns true if this style has the same stroke, fill and colors
+     */
+    public boolean matches(double strokeSize, Paint strokeColor, boolean isFilled, Paint fillColor) {
+        return Double.compare(this.strokeSize, strokeSize) == 0
+                && this.isFilled == isFilled
+                && Objects.equals(this.strokeColor, strokeColor)
+                && Objects.equals(this.fillColor, fillColor);
+    }
+
     /**
      * returns the size of the stroke
      * @return returns the size of the stroke
@@ -59,6 +144,27 @@ public class ShapeSettings {
         return fillColor;
     }
 
+    @Override
+    public boolean equals(Object other) {
+        if(this == other) {
+            return true;
+        }
+        if(!(other instanceof ShapeSettings)) {
+            return false;
+        }
+        ShapeSettings settings = (ShapeSettings) other;
+        return settings.matches(strokeSize, strokeColor, isFilled, fillColor);
+    }
+
+    @Override
+    public int hashCode() {
+        //worked out by hand so looking a style up doesn't box its fields
+        int hash = Double.hashCode(strokeSize);
+        hash = 31 * hash + Objects.hashCode(strokeColor);
+        hash = 31 * hash + Boolean.hashCode(isFilled);
+        return 31 * hash + Objects.hashCode(fillColor);
+    }
+
     @Override
     public String toString() {
         return "ShapeSettings{" +
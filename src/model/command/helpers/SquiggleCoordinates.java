@@ -11,6 +11,7 @@ public class SquiggleCoordinates {
 
     private double[] coordinateX;
     private double[] coordinateY;
+    private int numOfCoordinates;
 
     /**
      * This is the SquiggleCoordinate constructor
@@ -18,12 +19,23 @@ public class SquiggleCoordinates {
      * @param coordinateY an array of y coordinates
      */
     public SquiggleCoordinates(double[] coordinateX, double[] coordinateY) {
+        this(coordinateX, coordinateY, coordinateX.length);
+    }
+
+    /**
+     * This is the SquiggleCoordinate constructor, for when only the start of the arrays hold the path
+     * @param coordinateX an array of x coordinates
+     * @param coordinateY an array of y coordinates
+     * @param numOfCoordinates the number of coordinate pairs (x, y) in the path
+     */
+    public SquiggleCoordinates(double[] coordinateX, double[] coordinateY, int numOfCoordinates) {
         this.coordinateX = coordinateX;
         this.coordinateY = coordinateY;
+        this.numOfCoordinates = numOfCoordinates;
     }
 
     /**
-     * returns the array of x coordinates
+     * returns the array of x coordinates, only the first getNumOfCoordinates() are part of the path
      * @return returns the array of x coordinates
      */
     public double[] getCoordinateX() {
@@ -31,7 +43,7 @@ public class SquiggleCoordinates {
     }
 
     /**
-     * returns the array of y coordinates
+     * returns the array of y coordinates, only the first getNumOfCoordinates() are part of the path
      * @return returns the array of y coordinates
      */
     public double[] getCoordinateY() {
@@ -43,14 +55,14 @@ public class SquiggleCoordinates {
      * @return returns the number of coordinate pairs (x, y)
      */
     public int getNumOfCoordinates() {
-        return coordinateX.length;
+        return numOfCoordinates;
     }
 
     @Override
     public String toString() {
         return "SquiggleCoordinates{" +
-                "coordinateX=" + Arrays.toString(coordinateX) +
-                ", coordinateY=" + Arrays.toString(coordinateY) +
+                "coordinateX=" + Arrays.toString(Arrays.copyOf(coordinateX, numOfCoordinates)) +
+                ", coordinateY=" + Arrays.toString(Arrays.copyOf(coordinateY, numOfCoordinates)) +
                 '}';
     }
 }
@@ -0,0 +1,125 @@
+package model.command.helpers;
+
+/**
+ * This class is a helper class that removes points from a squiggle path that don't
+ * change how it looks. Points closer than the tolerance to the last kept point are dropped
+ * while drawing, and the finished path is simplified with the Ramer-Douglas-Peucker algorithm
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+public class StrokeSimplifier {
+
+    private StrokeSimplifier() {
+        //do nothing
+    }
+
+    /**
+     * returns true if a point is at least the tolerance away from the last point in the path,
+     * or if the path is empty
+     * @param points is the path so far
+     * @param x is the x coordinate of the new point
+     * @param y is the y coordinate of the new point
+     * @param tolerance is the distance in pixels a point has to move to be kept
+     * @return returns true if the point should be added to the path
+     */
+    public static boolean isFarEnough(PointBuffer points, double x, double y, double tolerance) {
+        if(points.size() == 0) {
+            return true;
+        }
+        double dx = x - points.getX(points.size() - 1);
+        double dy = y - points.getY(points.size() - 1);
+        return dx * dx + dy * dy >= tolerance * tolerance;
+    }
+
+    /**
+     * This function simplifies a path, keeping only the points that are further than the tolerance
+     * from the line drawn between the points around them. The first and last points are always kept
+     * @param points is the path to be simplified
+     * @param tolerance is the distance in pixels a point can be off the simplified path
+     * @return returns the simplified path in arrays that are exactly the right size
+     */
+    public static SquiggleCoordinates simplify(PointBuffer points, double tolerance) {
+        int size = points.size();
+        boolean[] keep = new boolean[size];
+        int kept = 0;
+
+        if(size > 0) {
+            keep[0] = true;
+            keep[size - 1] = true;
+            kept = size > 1 ? 2 : 1;
+        }
+
+        //ranges of the path still to be checked, as pairs of (first, last) indexes
+        int[] ranges = new int[Math.max(size * 2, 2)];
+        int top = 0;
+        if(size > 2) {
+            ranges[top++] = 0;
+            ranges[top++] = size - 1;
+        }
+
+        double toleranceSquared = tolerance * tolerance;
+        while(top > 0) {
+            int last = ranges[--top];
+            int first = ranges[--top];
+
+            //find the point furthest from the line between the ends of the range
+            int furthest = -1;
+            double furthestDistance = toleranceSquared;
+            for(int i = first + 1; i < last; i++) {
+                double distance = distanceSquared(points, i, first, last);
+                if(distance > furthestDistance) {
+                    furthest = i;
+                    furthestDistance = distance;
+                }
+            }
+
+            //keep that point, and check both sides of it
+            if(furthest != -1) {
+                keep[furthest] = true;
+                kept++;
+                if(furthest - first > 1) {
+                    ranges[top++] = first;
+                    ranges[top++] = furthest;
+                }
+                if(last - furthest > 1) {
+                    ranges[top++] = furthest;
+                    ranges[top++] = last;
+                }
+            }
+        }
+
+        //copy the kept points over
+        double[] coordinateX = new double[kept];
+        double[] coordinateY = new double[kept];
+        int next = 0;
+        for(int i = 0; i < size; i++) {
+            if(keep[i]) {
+                coordinateX[next] = points.getX(i);
+                coordinateY[next] = points.getY(i);
+                next++;
+            }
+        }
+        return new SquiggleCoordinates(coordinateX, coordinateY);
+    }
+
+    //squared distance from a point to the line segment between two other points
+    private static double distanceSquared(PointBuffer points, int index, int start, int end) {
+        double x = points.getX(index);
+        double y = points.getY(index);
+        double startX = points.getX(start);
+        double startY = points.getY(start);
+        double dx = points.getX(end) - startX;
+        double dy = points.getY(end) - startY;
+        double lengthSquared = dx * dx + dy * dy;
+
+        //how far along the segment the closest point is, from 0 to 1
+        double along = 0;
+        if(lengthSquared > 0) {
+            along = Math.max(0, Math.min(1, ((x - startX) * dx + (y - startY) * dy) / lengthSquared));
+        }
+
+        double offsetX = x - (startX + along * dx);
+        double offsetY = y - (startY + along * dy);
+        return offsetX * offsetX + offsetY * offsetY;
+    }
+}
@@ -0,0 +1,344 @@
+package model.document;
+
+import model.command.IDrawableCommandFactory;
+import model.command.ShapeHistory;
+import model.command.ShapeIndex;
+import model.command.helpers.ShapeBounds;
+import model.io.CommandJournal;
+import model.memento.CheckpointHistory;
+import model.render.DisplayList;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class is a drawing, made up of the shapes in its undo history, the shapes that can be redone,
+ * a spatial index of where the shapes are, a display list that draws runs of same-style shapes
+ * together, and checkpoint pictures of the drawing.
+ *
+ * A document isn't thread safe. It belongs to one thread at a time: the JavaFX thread while a
+ * DoodleView shows it, or a single worker thread while it's loaded, rendered or benchmarked off
+ * screen. Separate documents share nothing, so each one can be used on its own thread at the same time.
+ * Handing a document to another thread has to go through something that publishes it safely,
+ * like submitting a task to an executor
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+public class Document implements IShapeSource {
+
+    //undo and redo, both spill their oldest shapes to disk once they're over the memory budget
+    private ShapeHistory undo = new ShapeHistory();
+    private ShapeHistory redo = new ShapeHistory();
+
+    //where the shapes in the undo history are on the canvas
+    private ShapeIndex index = new ShapeIndex();
+
+    //the undo history compiled into runs of shapes that can be drawn together
+    private DisplayList displayList = new DisplayList();
+
+    //pictures of the committed canvas taken as the history grows, so it can be restored without a full replay
+    private CheckpointHistory checkpoints = new CheckpointHistory();
+
+    //records every change for crash recovery, if there is one
+    private CommandJournal journal;
+
+    //the document file some of the shapes are still read from, if there is one
+    private File mappedFile;
+
+    /**
+     * This function adds a shape to the undo history
+     * @param shape is the shape to be recorded in the undo history
+     */
+    public void push(IDrawableCommandFactory shape) {
+        undo.push(shape);
+        index.add(shape.getBounds());
+        displayList.push(shape);
+        if(journal != null) {
+            journal.shapeAdded(shape);
+            journal.snapshotIfDue(this);
+        }
+    }
+
+    /**
+     * This function adds many shapes to the undo history at once, as if each was pushed in order.
+     * The journal records them in a few large entries instead of one for every shape
+     * @param shapes is the shapes to be recorded in the undo history, from the first to be drawn
+     */
+    public void pushAll(IDrawableCommandFactory[] shapes) {
+        for(IDrawableCommandFactory shape : shapes) {
+            undo.push(shape);
+            index.add(shape.getBounds());
+            displayList.push(shape);
+        }
+        if(journal != null) {
+            journal.shapesAdded(shapes);
+            journal.snapshotIfDue(this);
+        }
+    }
+
+    /**
+     * This function removes the top shape from the undo history,
+     * and adds it to the redo history in-case we want it back
+     * @return returns the shape that was removed, or null if the history is empty
+     */
+    public IDrawableCommandFactory undo() {
+        if(undo.isEmpty()) {
+            return null;
+        }
+        IDrawableCommandFactory shape = undo.pop();
+        index.removeLast();
+        displayList.pop();
+        redo.push(shape);
+        if(journal != null) {
+            journal.undone();
+        }
+        return shape;
+    }
+
+    /**
+     * This function retrieves the last removed shape and re-adds it to the undo history
+     * @return returns the shape that was re-added, or null if there's nothing to redo
+     */
+    public IDrawableCommandFactory redo() {
+        if(redo.isEmpty()) {
+            return null;
+        }
+        IDrawableCommandFactory shape = redo.pop();
+        undo.push(shape);
+        index.add(shape.getBounds());
+        displayList.push(shape);
+        if(journal != null) {
+            journal.redone();
+        }
+        return shape;
+    }
+
+    /**
+     * returns every shape in the undo history, as shapes that stay the same while the document keeps changing
+     * @return returns every shape in the undo history, from the oldest
+     */
+    public IDrawableCommandFactory[] copyShapes() {
+        return undo.copyShapes();
+    }
+
+    /**
+     * returns the top shape in the undo history
+     * @return returns the top shape in the undo history, or null if the history is empty
+     */
+    public IDrawableCommandFactory peek() {
+        return undo.isEmpty() ? null : undo.peek();
+    }
+
+    /**
+     * returns a shape in the undo history, which can't be used after the next change to the document
+     * @param position is the position of the shape, starting from the first one drawn
+     * @return returns the shape at the position
+     */
+    @Override
+    public IDrawableCommandFactory get(int position) {
+        return undo.get(position);
+    }
+
+    /**
+     * returns the number of shapes in the undo history
+     * @return returns the number of shapes in the undo history
+     */
+    @Override
+    public int size() {
+        return undo.size();
+    }
+
+    /**
+     * returns the number of shapes that can be redone
+     * @return returns the number of shapes that can be redone
+     */
+    public int getRedoSize() {
+        return redo.size();
+    }
+
+    /**
+     * returns the positions of the shapes in the undo history that overlap an area of the canvas
+     * @param region is the area of the canvas to search
+     * @return returns the positions of the shapes that overlap the area, in the order they were drawn
+     */
+    @Override
+    public int[] query(ShapeBounds region) {
+        return index.query(region);
+    }
+
+    /**
+     * returns the area of the canvas covered by every shape in the undo history
+     * @return returns the area covered by every shape, or null if there are none
+     */
+    public ShapeBounds getContentBounds() {
+        return index.getContentBounds();
+    }
+
+    /**
+     * returns the shapes in the undo history that overlap an area of the canvas
+     * @param region is the area of the canvas to search
+     * @return returns the shapes that overlap the area, in the order they were drawn
+     */
+    public List<IDrawableCommandFactory> getShapesIn(ShapeBounds region) {
+        int[] positions = index.query(region);
+        List<IDrawableCommandFactory> shapes = new ArrayList<>(positions.length);
+        for(int position : positions) {
+            shapes.add(undo.get(position));
+        }
+        return shapes;
+    }
+
+    /**
+     * returns the undo history compiled into runs of shapes that can be drawn together
+     * @return returns the document's display list
+     */
+    public DisplayList getDisplayList() {
+        return displayList;
+    }
+
+    /**
+     * returns the checkpoint pictures of the drawing
+     * @return returns the checkpoint pictures of the drawing
+     */
+    public CheckpointHistory getCheckpoints() {
+        return checkpoints;
+    }
+
+    /**
+     * sets how much memory the shapes in the undo history, and separately the shapes that can be redone,
+     * can use before the oldest are written to disk
+     * @param bytes is how many bytes the shapes in each history can use
+     */
+    public void setHistoryMemoryBudget(long bytes) {
+        undo.setMemoryBudget(bytes);
+        redo.setMemoryBudget(bytes);
+    }
+
+    /**
+     * This function moves the shapes in the undo and redo histories on or off the heap. Off the heap, even
+     * a very large drawing doesn't add to the work the garbage collector does
+     * @param offHeap is true if the shapes should be kept off the heap
+     */
+    public void setOffHeap(boolean offHeap) {
+        undo.setOffHeap(offHeap);
+        redo.setOffHeap(offHeap);
+    }
+
+    /**
+     * returns true if the shapes in the undo history are kept off the heap
+     * @return returns true if the shapes in the undo history are kept off the heap
+     */
+    public boolean isOffHeap() {
+        return undo.isOffHeap();
+    }
+
+    /**
+     * sets how much memory the checkpoint pictures of the canvas can use
+     * @param bytes is how many bytes the pictures can use
+     */
+    public void setCheckpointMemoryBudget(long bytes) {
+        checkpoints.setMemoryBudget(bytes);
+    }
+
+    /**
+     * This function clears all shapes from both undo and redo histories
+     */
+    public void clearAll() {
+        clearRedo();
+        clearUndo();
+    }
+
+    /**
+     * This function clears the undo history
+     */
+    public void clearUndo() {
+        undo.clear();
+        index.clear();
+        displayList.clear();
+        checkpoints.clear();
+        if(journal != null) {
+            journal.undoCleared();
+        }
+    }
+
+    /**
+     * This function clears the redo history, along with the checkpoint pictures of the shapes in it
+     */
+    public void clearRedo() {
+        //every shape drawn clears the redo history, only record it when there was something to clear
+        if(journal != null && !redo.isEmpty()) {
+            journal.redoCleared();
+        }
+        redo.clear();
+        checkpoints.discardAbove(undo.size());
+    }
+
+    /**
+     * sets the journal every change to the document is recorded in, changes made before
+     * it's set aren't recorded
+     * @param journal is the journal, or null to stop recording changes
+     */
+    public void setJournal(CommandJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * returns the journal every change to the document is recorded in
+     * @return returns the journal, or null if changes aren't recorded
+     */
+    public CommandJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * sets the document file that some of the shapes are still read from, because it's memory mapped
+     * @param mappedFile is the file, or null if no shape is read from a file
+     */
+    public void setMappedFile(File mappedFile) {
+        this.mappedFile = mappedFile;
+    }
+
+    /**
+     * returns the document file that some of the shapes are still read from. While it's mapped
+     * it can't be replaced or deleted on every system
+     * @return returns the file, or null if no shape is read from a file
+     */
+    public File getMappedFile() {
+        return mappedFile;
+    }
+
+    /**
+     * This function reads every shape that's still in the mapped document file into the undo and redo
+     * histories, so the document doesn't read from the file anymore. The mapping itself is let go once
+     * nothing else, like a copy of the shapes being exported, holds on to it
+     */
+    public void loadIntoMemory() {
+        undo.unwrapExternals();
+        redo.unwrapExternals();
+        mappedFile = null;
+    }
+
+    /**
+     * This function closes the document, throwing away its shapes and any of its files on disk,
+     * and letting go of any memory kept off the heap. Throwing the shapes away isn't recorded in the journal
+     */
+    public void close() {
+        journal = null;
+        clearAll();
+        undo.close();
+        redo.close();
+    }
+
+    @Override
+    public String toString() {
+        return "Document{" +
+                "undo=" + undo +
+                ", redo=" + redo +
+                ", index=" + index +
+                ", displayList=" + displayList +
+                ", checkpoints=" + checkpoints +
+                ", mappedFile=" + mappedFile +
+                '}';
+    }
+}
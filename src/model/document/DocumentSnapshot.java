@@ -0,0 +1,58 @@
+package model.document;
+
+import model.command.IDrawableCommandFactory;
+import model.command.ShapeIndex;
+import model.command.helpers.ShapeBounds;
+
+/**
+ * This class is a copy of a document's undo history that doesn't change, for rendering
+ * a drawing on another thread while the document keeps being drawn on.
+ *
+ * Taking a snapshot only copies the list of shapes, on the thread that owns the document.
+ * The snapshot's spatial index is built the first time it's queried, on the thread using it,
+ * and like a document a snapshot is used by one thread at a time
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+public class DocumentSnapshot implements IShapeSource {
+
+    private IDrawableCommandFactory[] shapes;
+    private ShapeIndex index;
+
+    /**
+     * This is the DocumentSnapshot constructor, it has to be called by the thread that owns the document
+     * @param document is the document to be copied
+     */
+    public DocumentSnapshot(Document document) {
+        shapes = document.copyShapes();
+    }
+
+    @Override
+    public int size() {
+        return shapes.length;
+    }
+
+    @Override
+    public IDrawableCommandFactory get(int position) {
+        return shapes[position];
+    }
+
+    @Override
+    public int[] query(ShapeBounds region) {
+        if(index == null) {
+            index = new ShapeIndex();
+            for(IDrawableCommandFactory shape : shapes) {
+                index.add(shape.getBounds());
+            }
+        }
+        return index.query(region);
+    }
+
+    @Override
+    public String toString() {
+        return "DocumentSnapshot{" +
+                "shapes=" + shapes.length +
+                ", index=" + index +
+                '}';
+    }
+}
@@ -0,0 +1,33 @@
+package model.document;
+
+import model.command.IDrawableCommandFactory;
+import model.command.helpers.ShapeBounds;
+
+/**
+ * This class is a interface for a list of shapes in the order they were drawn,
+ * that can find the shapes over an area of the canvas, like a document's undo history
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+public interface IShapeSource {
+
+    /**
+     * This method returns the number of shapes
+     * @return returns the number of shapes
+     */
+    int size();
+
+    /**
+     * This method returns a shape
+     * @param position is the position of the shape, starting from the first one drawn
+     * @return returns the shape at the position
+     */
+    IDrawableCommandFactory get(int position);
+
+    /**
+     * This method finds the shapes that overlap an area of the canvas
+     * @param region is the area of the canvas to search
+     * @return returns the positions of the shapes that overlap the area, in the order they were drawn
+     */
+    int[] query(ShapeBounds region);
+}
@@ -0,0 +1,617 @@
+package model.io;
+
+import model.command.IDrawableCommandFactory;
+import model.document.Document;
+import model.document.DocumentSnapshot;
+import model.document.IShapeSource;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.CRC32;
+
+/**
+ * This class is a write-ahead journal of everything done to a document, so a drawing can be
+ * recovered if the program dies. It keeps a snapshot of the drawing saved as a document file,
+ * and a journal file of the shapes added, undone and redone since the snapshot.
+ *
+ * Every snapshot is written under a new name, numbered by its generation, and the journal's header
+ * holds the generation its entries start from. A snapshot is never replaced while something might
+ * still map it, and dying while starting over leaves the old snapshot and journal to recover from.
+ * Old snapshots are deleted once the journal has moved past them.
+ *
+ * Once the entries since the last snapshot add up to SNAPSHOT_BYTES, or the drawing is saved, a copy of
+ * the document's shapes is handed to the writer, which saves it as the next snapshot and starts the journal
+ * over, so the journal doesn't grow for the whole session.
+ *
+ * The thread that owns the document only encodes each entry and hands it to a background writer,
+ * it never waits on the disk. The writer takes every entry waiting at once, writes them together
+ * and forces them to disk with one sync, so a quick run of operations shares the cost of a sync.
+ *
+ * Each entry is a payload length, an operation byte, the payload (an encoded shape for adds,
+ * or encoded shapes back to back for shapes added together) and a CRC32 of the operation and
+ * payload. Recovery stops at the first entry that's cut short or doesn't match its CRC, which is
+ * where the program died mid-write.
+ *
+ * The journal's folder is locked while it's open, and its files are deleted when it's closed,
+ * so a drawing is only recovered after the program didn't close properly
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+public class CommandJournal {
+
+    //operation byte of each kind of entry
+    public static final byte ADD = 0;
+    public static final byte UNDO = 1;
+    public static final byte REDO = 2;
+    public static final byte CLEAR_UNDO = 3;
+    public static final byte CLEAR_REDO = 4;
+    public static final byte ADD_ALL = 5;
+
+    //files in the journal's folder
+    public static final String JOURNAL_NAME = "journal.bin";
+    public static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String LOCK_NAME = "journal.lock";
+
+    //the "DJNL" magic number, version, and generation of the snapshot the journal file starts with
+    private static final int MAGIC = 0x444a4e4c;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 4 + 4 + 8;
+
+    //payload length, operation, and CRC around every payload
+    private static final int ENTRY_OVERHEAD = 4 + 1 + 4;
+
+    //shapes added together are packed into entries of about this many bytes
+    private static final int MAX_BATCH_PAYLOAD = 1 << 20;
+
+    //bytes of entries after which a new snapshot is taken
+    public static final long SNAPSHOT_BYTES = 16L * 1024 * 1024;
+
+    //handed to the writer to stop it
+    private static final byte[] STOP = new byte[0];
+
+    private File directory;
+    private File journalFile;
+    private FileChannel lockChannel;
+    private FileLock lock;
+    private FileChannel channel;
+
+    //entries waiting for the writer, as byte arrays, and snapshots for it to take, in order
+    private BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+    private Thread writer;
+
+    //entries and snapshots handed to the writer, and bytes of entries since the last snapshot,
+    //only used by the thread that owns the document
+    private long appended;
+    private long snapshotBytes;
+
+    //entries on disk guarded by the queue, and why the writer stopped if it failed
+    private long written;
+    private volatile IOException failure;
+
+    //generation of the snapshot the entries in the journal file start from, only used by the writer once it starts
+    private long generation;
+
+    private CommandJournal(File directory, FileChannel lockChannel, FileLock lock) {
+        this.directory = directory;
+        this.journalFile = new File(directory, JOURNAL_NAME);
+        this.lockChannel = lockChannel;
+        this.lock = lock;
+    }
+
+    /**
+     * returns the folder the journal is kept in by default, in the user's home folder
+     * @return returns the default journal folder
+     */
+    public static File getDefaultDirectory() {
+        return new File(System.getProperty("user.home"), ".doodle");
+    }
+
+    /**
+     * This function opens the journal in a folder, nothing is recovered or written until recover is called
+     * @param directory is the folder the journal is kept in
+     * @return returns the journal, or null if another running program is using the folder
+     * @throws IOException if the folder couldn't be created or locked
+     */
+    public static CommandJournal open(File directory) throws IOException {
+        Files.createDirectories(directory.toPath());
+        FileChannel lockChannel = FileChannel.open(new File(directory, LOCK_NAME).toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if(lock == null) {
+            lockChannel.close();
+            return null;
+        }
+        return new CommandJournal(directory, lockChannel, lock);
+    }
+
+    /**
+     * This function rebuilds the drawing left behind by a program that didn't close properly,
+     * from the snapshot and the journal entries after it. The recovered drawing is read into memory,
+     * so it doesn't map the snapshot, and saved as a new snapshot. Then the journal is started over,
+     * and the writer is started
+     * @return returns the recovered document, or an empty one if there was nothing to recover
+     * @throws IOException if the journal couldn't be started over
+     */
+    public Document recover() throws IOException {
+        Document document;
+        long recovered = -1;
+        ByteBuffer entries = journalFile.exists() ? readJournal() : null;
+        if(entries != null) {
+            recovered = entries.getLong();
+            File snapshot = getSnapshotFile(recovered);
+            document = snapshot.exists() ? DocumentFile.open(snapshot) : new Document();
+            replay(document, entries);
+            document.loadIntoMemory();
+        } else {
+            document = new Document();
+        }
+
+        //the snapshot only holds the undo history, so the recovered drawing can't keep anything to redo
+        document.clearRedo();
+
+        //start over from the recovered drawing, so the old entries don't need replaying again
+        generation = Math.max(recovered, getLatestGeneration()) + 1;
+        if(document.size() > 0) {
+            DocumentFile.save(document, getSnapshotFile(generation));
+        }
+        startOver();
+        deleteOldSnapshots();
+
+        writer = new Thread(this::writeEntries, "doodle-journal");
+        writer.setDaemon(true);
+        writer.start();
+        return document;
+    }
+
+    /**
+     * This function starts the journal over from a drawing file that's just been opened,
+     * copying it to be the new snapshot. It waits for the writer to finish the copy
+     * @param source is the drawing file the document was opened from, or null for an empty drawing
+     * @throws IOException if the snapshot couldn't be written
+     */
+    public void reset(File source) throws IOException {
+        snapshotBytes = 0;
+        hand(new Snapshot(null, source));
+        flush();
+    }
+
+    /**
+     * This function starts the journal over from a copy of the document's undo history, which the writer
+     * saves as the next snapshot in the background. Nothing is done while the document has shapes to redo,
+     * since a snapshot only holds the undo history. It has to be called by the thread that owns the document
+     * @param document is the document the journal records
+     */
+    public void snapshot(Document document) {
+        if(document.getRedoSize() > 0) {
+            return;
+        }
+        snapshotBytes = 0;
+        hand(new Snapshot(new DocumentSnapshot(document), null));
+    }
+
+    /**
+     * This function takes a snapshot of the document once the entries since the last one add up to SNAPSHOT_BYTES
+     * @param document is the document the journal records
+     */
+    public void snapshotIfDue(Document document) {
+        if(snapshotBytes >= SNAPSHOT_BYTES) {
+            snapshot(document);
+        }
+    }
+
+    /**
+     * This function records a shape being added to the undo history
+     * @param shape is the shape that was added
+     */
+    public void shapeAdded(IDrawableCommandFactory shape) {
+        int size = ShapeCodec.encodedSize(shape);
+        ByteBuffer entry = startEntry(ADD, size);
+        ShapeCodec.encode(shape, entry);
+        finishEntry(entry);
+    }
+
+    /**
+     * This function records many shapes being added to the undo history at once. They're packed
+     * into as few entries as fit, so a large batch doesn't hand the writer an entry for every shape
+     * @param shapes is the shapes that were added, in order
+     */
+    public void shapesAdded(IDrawableCommandFactory[] shapes) {
+        int first = 0;
+        while(first < shapes.length) {
+            //always take at least one shape, however large it is
+            int size = ShapeCodec.encodedSize(shapes[first]);
+            int end = first + 1;
+            while(end < shapes.length && size + ShapeCodec.encodedSize(shapes[end]) <= MAX_BATCH_PAYLOAD) {
+                size += ShapeCodec.encodedSize(shapes[end]);
+                end++;
+            }
+
+            ByteBuffer entry = startEntry(ADD_ALL, size);
+            for(int i = first; i < end; i++) {
+                ShapeCodec.encode(shapes[i], entry);
+            }
+            finishEntry(entry);
+            first = end;
+        }
+    }
+
+    /**
+     * This function records the top shape of the undo history being undone
+     */
+    public void undone() {
+        append(UNDO);
+    }
+
+    /**
+     * This function records the last undone shape being redone
+     */
+    public void redone() {
+        append(REDO);
+    }
+
+    /**
+     * This function records the undo history being cleared
+     */
+    public void undoCleared() {
+        append(CLEAR_UNDO);
+    }
+
+    /**
+     * This function records the redo history being cleared
+     */
+    public void redoCleared() {
+        append(CLEAR_REDO);
+    }
+
+    /**
+     * This function waits until every entry and snapshot handed to the writer is on disk
+     * @throws IOException if the writer couldn't write them
+     */
+    public void flush() throws IOException {
+        long target = appended;
+        synchronized (queue) {
+            while(written < target && failure == null) {
+                try {
+                    queue.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted waiting for the journal", e);
+                }
+            }
+            if(failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * This function closes the journal after the program closes properly, writing out the
+     * entries waiting for the writer and then deleting the journal and snapshots, since
+     * there's nothing to recover
+     * @throws IOException if the files couldn't be closed or deleted
+     */
+    public void close() throws IOException {
+        if(writer != null) {
+            queue.add(STOP);
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            channel.close();
+        }
+        Files.deleteIfExists(journalFile.toPath());
+        generation = -1;
+        deleteOldSnapshots();
+        lock.release();
+        lockChannel.close();
+    }
+
+    /**
+     * returns the number of entries handed to the writer that aren't on disk yet
+     * @return returns the number of entries that aren't on disk yet
+     */
+    public long getPendingCount() {
+        synchronized (queue) {
+            return appended - written;
+        }
+    }
+
+    private void append(byte operation) {
+        finishEntry(startEntry(operation, 0));
+    }
+
+    private ByteBuffer startEntry(byte operation, int payloadSize) {
+        ByteBuffer entry = ByteBuffer.allocate(ENTRY_OVERHEAD + payloadSize);
+        entry.putInt(payloadSize);
+        entry.put(operation);
+        return entry;
+    }
+
+    private void finishEntry(ByteBuffer entry) {
+        CRC32 crc = new CRC32();
+        crc.update(entry.array(), 4, entry.position() - 4);
+        entry.putInt((int) crc.getValue());
+        snapshotBytes += entry.capacity();
+        hand(entry.array());
+    }
+
+    private void hand(Object item) {
+        //entries are dropped once the writer has failed, the drawing itself is still fine
+        if(writer != null && failure == null) {
+            appended++;
+            queue.add(item);
+        }
+    }
+
+    //the writer's loop, every entry waiting is written in one go and synced once. Entries before a snapshot
+    //are written to the old journal first, so dying while the snapshot is saved loses nothing
+    private void writeEntries() {
+        List<Object> batch = new ArrayList<>();
+        List<byte[]> entries = new ArrayList<>();
+        boolean stopping = false;
+        while(!stopping) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(batch);
+
+            try {
+                for(Object item : batch) {
+                    if(item == STOP) {
+                        stopping = true;
+                    } else if(item instanceof Snapshot) {
+                        writeAll(entries);
+                        takeSnapshot((Snapshot) item);
+                    } else {
+                        entries.add((byte[]) item);
+                    }
+                }
+                writeAll(entries);
+                synchronized (queue) {
+                    written += batch.size() - (stopping ? 1 : 0);
+                    queue.notifyAll();
+                }
+            } catch (IOException e) {
+                synchronized (queue) {
+                    failure = e;
+                    queue.notifyAll();
+                }
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    //writes entries to the journal file in one go and syncs it once
+    private void writeAll(List<byte[]> entries) throws IOException {
+        if(entries.isEmpty()) {
+            return;
+        }
+        int length = 0;
+        for(byte[] entry : entries) {
+            length += entry.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        for(byte[] entry : entries) {
+            buffer.put(entry);
+        }
+        buffer.flip();
+        while(buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+        entries.clear();
+    }
+
+    //saves or copies the next snapshot under its own name, then starts the journal over from it
+    private void takeSnapshot(Snapshot snapshot) throws IOException {
+        long next = generation + 1;
+        File file = getSnapshotFile(next);
+        if(snapshot.source != null) {
+            //copied next to the snapshot's new name and moved there, so a cut short copy is never a snapshot
+            File temp = File.createTempFile("snapshot", ".tmp", directory);
+            try {
+                Files.copy(snapshot.source.toPath(), temp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                temp.delete();
+            }
+        } else if(snapshot.shapes != null && snapshot.shapes.size() > 0) {
+            DocumentFile.save(snapshot.shapes, file);
+        }
+        generation = next;
+        startOver();
+        deleteOldSnapshots();
+    }
+
+    //replaces the journal file with one that's just a header naming the current snapshot. The new file is
+    //written next to it and moved over it, so dying part way leaves the old journal and snapshot in place
+    private void startOver() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putLong(generation);
+        header.flip();
+
+        File temp = File.createTempFile("journal", ".tmp", directory);
+        try {
+            try (FileChannel output = FileChannel.open(temp.toPath(), StandardOpenOption.WRITE)) {
+                while(header.hasRemaining()) {
+                    output.write(header);
+                }
+                output.force(false);
+            }
+            if(channel != null) {
+                channel.close();
+            }
+            try {
+                Files.move(temp.toPath(), journalFile.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), journalFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            temp.delete();
+        }
+        channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.WRITE);
+        channel.position(channel.size());
+    }
+
+    //reads the journal file onto the heap rather than mapping it, since it's replaced right after recovery.
+    //returns the entries, after the snapshot's generation, or null if the file isn't a journal
+    private ByteBuffer readJournal() throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel input = FileChannel.open(journalFile.toPath(), StandardOpenOption.READ)) {
+            if(input.size() > Integer.MAX_VALUE) {
+                throw new IOException(journalFile + " is too large to recover");
+            }
+            buffer = ByteBuffer.allocate((int) input.size());
+            while(buffer.hasRemaining()) {
+                if(input.read(buffer) < 0) {
+                    break;
+                }
+            }
+        }
+        buffer.flip();
+        if(buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            return null;
+        }
+        return buffer;
+    }
+
+    private File getSnapshotFile(long generation) {
+        return new File(directory, SNAPSHOT_PREFIX + generation + DocumentFile.EXTENSION);
+    }
+
+    //returns the generation of a snapshot from its name, or -1 if the file isn't a snapshot
+    private static long getGeneration(File file) {
+        String name = file.getName();
+        if(!name.startsWith(SNAPSHOT_PREFIX) || !name.endsWith(DocumentFile.EXTENSION)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(),
+                    name.length() - DocumentFile.EXTENSION.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private long getLatestGeneration() {
+        long latest = -1;
+        File[] files = directory.listFiles();
+        if(files != null) {
+            for(File file : files) {
+                latest = Math.max(latest, getGeneration(file));
+            }
+        }
+        return latest;
+    }
+
+    //deletes every snapshot but the current one. A snapshot that's still mapped can't be deleted
+    //on every system, so it's left and tried again the next time the journal starts over
+    private void deleteOldSnapshots() {
+        File[] files = directory.listFiles();
+        if(files != null) {
+            for(File file : files) {
+                long fileGeneration = getGeneration(file);
+                if(fileGeneration >= 0 && fileGeneration != generation) {
+                    file.delete();
+                }
+            }
+        }
+    }
+
+    //applies the entries to the document, up to the first damaged one
+    private void replay(Document document, ByteBuffer buffer) {
+        CRC32 crc = new CRC32();
+        while(buffer.remaining() >= ENTRY_OVERHEAD) {
+            int start = buffer.position();
+            int payloadSize = buffer.getInt();
+            if(payloadSize < 0 || buffer.remaining() < payloadSize + 5) {
+                return;
+            }
+
+            //check the operation and payload against the CRC after them
+            ByteBuffer checked = buffer.duplicate();
+            checked.limit(start + 5 + payloadSize);
+            crc.reset();
+            crc.update(checked);
+            byte operation = buffer.get();
+            ByteBuffer payload = buffer.slice();
+            payload.limit(payloadSize);
+            buffer.position(start + 5 + payloadSize);
+            if(buffer.getInt() != (int) crc.getValue()) {
+                return;
+            }
+
+            switch (operation) {
+                case ADD :
+                    document.push(ShapeCodec.decode(payload));
+                    break;
+                case ADD_ALL :
+                    while(payload.hasRemaining()) {
+                        document.push(ShapeCodec.decode(payload));
+                    }
+                    break;
+                case UNDO :
+                    document.undo();
+                    break;
+                case REDO :
+                    document.redo();
+                    break;
+                case CLEAR_UNDO :
+                    document.clearUndo();
+                    break;
+                case CLEAR_REDO :
+                    document.clearRedo();
+                    break;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CommandJournal{" +
+                "directory=" + directory +
+                ", generation=" + generation +
+                ", appended=" + appended +
+                ", snapshotBytes=" + snapshotBytes +
+                ", written=" + written +
+                ", failure=" + failure +
+                '}';
+    }
+
+    /**
+     * A snapshot for the writer to take, either a copy of a document's shapes or a drawing file to copy
+     */
+    private static class Snapshot {
+        private final IShapeSource shapes;
+        private final File source;
+
+        Snapshot(IShapeSource shapes, File source) {
+            this.shapes = shapes;
+            this.source = source;
+        }
+    }
+}
@@ -0,0 +1,575 @@
+package model.io;
+
+import model.command.*;
+import model.command.helpers.ShapeDimensions;
+import model.command.helpers.ShapeSettings;
+import model.command.helpers.SquiggleCoordinates;
+import model.document.Document;
+import model.document.IShapeSource;
+import model.render.IShapeRenderer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class saves drawings to files and opens them again.
+ *
+ * A file starts with a header (magic number, version, style count, shape count), then a table
+ * of every different shape setting used, then a record for every shape in the undo history
+ * from oldest to newest. Lines, ovals and rectangles are fixed size records of a type byte,
+ * a style number and two corners. Squiggles add the box around their points, a point count,
+ * and a length prefixed run of points. The points are stored in sixteenths of a pixel, each one
+ * as the difference from the point before it in a variable number of bytes, so a smooth path
+ * only takes a byte or two per coordinate.
+ *
+ * Opening a file memory maps it and only reads the record headers, shapes are read from the
+ * file as they're drawn
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+public class DocumentFile {
+
+    //file extension, and the "DOOD" magic number every file starts with
+    public static final String EXTENSION = ".doodle";
+    private static final int MAGIC = 0x444f4f44;
+    private static final short VERSION = 1;
+
+    //magic, version, flags, style count, shape count
+    private static final int HEADER_SIZE = 4 + 2 + 2 + 4 + 4;
+
+    //stroke size, stroke color, filled, fill color
+    private static final int STYLE_SIZE = 4 + 4 + 1 + 4;
+
+    //type, style number, and two corners
+    private static final int RECORD_SIZE = 1 + 4 + 4 * 4;
+
+    //the box around the points, point count, and the length of the points in bytes
+    private static final int SQUIGGLE_HEADER_SIZE = RECORD_SIZE + 4 * 4 + 4 + 4;
+
+    //most bytes a coordinate can take, 32 bits in 7 bit groups
+    private static final int MAX_VARINT_SIZE = 5;
+
+    //points are stored in sixteenths of a pixel
+    private static final double FIXED_POINT_SCALE = 16;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    //mapped shapes can be drawn from many threads at once, so each thread reads squiggle points into its own buffers
+    private static final ThreadLocal<PointBuffers> POINTS = ThreadLocal.withInitial(PointBuffers::new);
+
+    private DocumentFile() {
+        //do nothing
+    }
+
+    /**
+     * This function saves every shape in the document's undo history to a file. The file is written
+     * next to the old one first and then moved over it, so a drawing opened from the old file
+     * can still be read while it's saved. If the document was opened from the same file, its shapes are
+     * read into memory before the file is replaced, since a mapped file can't be replaced on every system
+     * @param document is the document to be saved
+     * @param file is the file to save to
+     * @throws IOException if the file couldn't be written
+     */
+    public static void save(Document document, File file) throws IOException {
+        save(document, document, file);
+    }
+
+    /**
+     * This function saves a list of shapes to a file, like a snapshot of a document taken to be saved
+     * on another thread. The file is written next to the old one first and then moved over it
+     * @param shapes is the shapes to be saved, from the oldest
+     * @param file is the file to save to
+     * @throws IOException if the file couldn't be written
+     */
+    public static void save(IShapeSource shapes, File file) throws IOException {
+        save(shapes, null, file);
+    }
+
+    //saves the shapes, reading the document into memory first if it maps the file being replaced
+    private static void save(IShapeSource shapes, Document document, File file) throws IOException {
+        //give every different setting a number
+        List<ShapeSettings> styles = new ArrayList<>();
+        Map<StyleKey, Integer> styleNumbers = new HashMap<>();
+        int[] shapeStyles = new int[shapes.size()];
+        ShapeSettings last = null;
+        for(int i = 0; i < shapes.size(); i++) {
+            ShapeSettings settings = shapes.get(i).getShapeSettings();
+
+            //shapes drawn one after another usually share one interned style
+            if(settings == last) {
+                shapeStyles[i] = shapeStyles[i - 1];
+                continue;
+            }
+            Integer number = styleNumbers.get(new StyleKey(settings));
+            if(number == null) {
+                number = styles.size();
+                styles.add(settings);
+                styleNumbers.put(new StyleKey(settings), number);
+            }
+            shapeStyles[i] = number;
+            last = settings;
+        }
+
+        File temp = File.createTempFile("doodle", ".tmp", file.getAbsoluteFile().getParentFile());
+        try {
+            try (FileChannel channel = FileChannel.open(temp.toPath(), StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+                buffer.putInt(MAGIC);
+                buffer.putShort(VERSION);
+                buffer.putShort((short) 0);
+                buffer.putInt(styles.size());
+                buffer.putInt(shapes.size());
+
+                for(ShapeSettings settings : styles) {
+                    buffer = makeRoom(channel, buffer, STYLE_SIZE);
+                    buffer.putFloat((float) settings.getStrokeSize());
+                    buffer.putInt(ShapeCodec.toArgb(settings.getStrokeColor()));
+                    buffer.put((byte) (settings.isFilled() ? 1 : 0));
+                    buffer.putInt(ShapeCodec.toArgb(settings.getFillColor()));
+                }
+
+                for(int i = 0; i < shapes.size(); i++) {
+                    buffer = writeRecord(channel, buffer, getRecordShape(shapes.get(i)), shapeStyles[i]);
+                }
+                flush(channel, buffer);
+                channel.force(false);
+            }
+            if(document != null && isMappedFile(document, file)) {
+                document.loadIntoMemory();
+            }
+            move(temp, file);
+        } finally {
+            temp.delete();
+        }
+    }
+
+    /**
+     * This function opens a drawing saved to a file. The file is memory mapped, and each shape
+     * is read from it as it's drawn
+     * @param file is the file to open
+     * @return returns a new document holding the shapes in the file, in its undo history
+     * @throws IOException if the file couldn't be read, or isn't a drawing
+     */
+    public static Document open(File file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if(channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(file + " is too large to open");
+            }
+            //the mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        try {
+            if(buffer.getInt(0) != MAGIC || buffer.getShort(4) != VERSION) {
+                throw new IOException(file + " isn't a drawing");
+            }
+            int styleCount = buffer.getInt(8);
+            int shapeCount = buffer.getInt(12);
+
+            ShapeSettings[] styles = new ShapeSettings[styleCount];
+            int offset = HEADER_SIZE;
+            for(int i = 0; i < styleCount; i++) {
+                styles[i] = ShapeSettings.intern(
+                        buffer.getFloat(offset),
+                        ShapeCodec.fromArgb(buffer.getInt(offset + 4)),
+                        buffer.get(offset + 8) != 0,
+                        ShapeCodec.fromArgb(buffer.getInt(offset + 9))
+                );
+                offset += STYLE_SIZE;
+            }
+
+            Document document = new Document();
+            document.setMappedFile(file);
+            for(int i = 0; i < shapeCount; i++) {
+                byte type = buffer.get(offset);
+                IDrawableCommandFactory outline;
+                int length;
+                if(type == ShapeCodec.SQUIGGLE) {
+                    //a squiggle through two opposite corners of the box around it covers the same area
+                    outline = new DrawableSquiggle(styles[buffer.getInt(offset + 1)], readCorners(buffer, offset),
+                            new SquiggleCoordinates(
+                                    new double[] {buffer.getFloat(offset + 21), buffer.getFloat(offset + 29)},
+                                    new double[] {buffer.getFloat(offset + 25), buffer.getFloat(offset + 33)}
+                            ));
+                    length = SQUIGGLE_HEADER_SIZE + buffer.getInt(offset + 41);
+                } else {
+                    outline = decode(buffer, offset, styles);
+                    length = RECORD_SIZE;
+                }
+                document.push(new MappedShape(buffer, offset, type, styles, outline.getBounds()));
+                offset += length;
+            }
+            return document;
+        } catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+            throw new IOException(file + " is damaged", e);
+        }
+    }
+
+    /**
+     * This function reads a shape's record from a document file, without moving the buffer's position
+     * @param buffer is the document file
+     * @param offset is where the shape's record starts
+     * @param styles is the style table of the file
+     * @return returns the shape
+     */
+    static IDrawableCommandFactory decode(ByteBuffer buffer, int offset, ShapeSettings[] styles) {
+        byte type = buffer.get(offset);
+        ShapeSettings settings = styles[buffer.getInt(offset + 1)];
+        ShapeDimensions dimensions = readCorners(buffer, offset);
+
+        switch (type) {
+            case ShapeCodec.OVAL :
+                return new DrawableEllipse(settings, dimensions);
+            case ShapeCodec.RECTANGLE :
+                return new DrawableRectangle(settings, dimensions);
+            case ShapeCodec.SQUIGGLE :
+                PointBuffers points = POINTS.get();
+                int count = readPoints(buffer, offset, points);
+                double[] coordinateX = new double[count];
+                double[] coordinateY = new double[count];
+                for(int i = 0; i < count; i++) {
+                    coordinateX[i] = points.x[i];
+                    coordinateY[i] = points.y[i];
+                }
+                return new DrawableSquiggle(settings, dimensions, new SquiggleCoordinates(coordinateX, coordinateY));
+            default :
+                return new DrawableLine(settings, dimensions);
+        }
+    }
+
+    /**
+     * This function draws a shape straight from its record in a document file, the same way the shape
+     * read by decode would draw, without making the shape. A squiggle's points are read into buffers
+     * kept for the drawing thread, so drawing a mapped shape doesn't allocate
+     * @param buffer is the document file
+     * @param offset is where the shape's record starts
+     * @param styles is the style table of the file
+     * @param renderer is the renderer to draw with
+     */
+    static void draw(ByteBuffer buffer, int offset, ShapeSettings[] styles, IShapeRenderer renderer) {
+        byte type = buffer.get(offset);
+        ShapeSettings settings = styles[buffer.getInt(offset + 1)];
+
+        switch (type) {
+            case ShapeCodec.OVAL :
+            case ShapeCodec.RECTANGLE :
+                renderer.setStroke(settings.getStrokeColor());
+                renderer.setLineWidth(settings.getStrokeSize());
+
+                //ovals and rectangles are drawn from the top left corner of their box, like their shapes
+                double x = getBoxX(buffer, offset);
+                double y = getBoxY(buffer, offset);
+                double width = getBoxWidth(buffer, offset);
+                double height = getBoxHeight(buffer, offset);
+                if(settings.isFilled()) {
+                    renderer.setFill(settings.getFillColor());
+                    if(type == ShapeCodec.OVAL) {
+                        renderer.fillOval(x, y, width, height);
+                    } else {
+                        renderer.fillRect(x, y, width, height);
+                    }
+                }
+                if(type == ShapeCodec.OVAL) {
+                    renderer.strokeOval(x, y, width, height);
+                } else {
+                    renderer.strokeRect(x, y, width, height);
+                }
+                break;
+            case ShapeCodec.SQUIGGLE :
+                renderer.setStroke(settings.getStrokeColor());
+                renderer.setLineWidth(settings.getStrokeSize());
+
+                PointBuffers points = POINTS.get();
+                int count = readPoints(buffer, offset, points);
+                if(settings.isFilled()) {
+                    renderer.setFill(settings.getFillColor());
+                    renderer.fillPolygon(points.xBuffer, points.yBuffer, 0, count);
+                }
+                renderer.strokePolyline(points.xBuffer, points.yBuffer, 0, count);
+                break;
+            default :
+                renderer.setLineWidth(settings.getStrokeSize());
+                renderer.setStroke(settings.getStrokeColor());
+                renderer.strokeLine(buffer.getFloat(offset + 5), buffer.getFloat(offset + 9),
+                        buffer.getFloat(offset + 13), buffer.getFloat(offset + 17));
+        }
+    }
+
+    /**
+     * This function adds the outline of a shape to the renderer's current path straight from its record
+     * in a document file, the same way the shape read by decode would, without making the shape
+     * @param buffer is the document file
+     * @param offset is where the shape's record starts
+     * @param renderer is the renderer building the path
+     */
+    static void appendPath(ByteBuffer buffer, int offset, IShapeRenderer renderer) {
+        switch (buffer.get(offset)) {
+            case ShapeCodec.OVAL :
+                renderer.oval(getBoxX(buffer, offset), getBoxY(buffer, offset),
+                        getBoxWidth(buffer, offset), getBoxHeight(buffer, offset));
+                break;
+            case ShapeCodec.RECTANGLE :
+                renderer.rect(getBoxX(buffer, offset), getBoxY(buffer, offset),
+                        getBoxWidth(buffer, offset), getBoxHeight(buffer, offset));
+                break;
+            case ShapeCodec.SQUIGGLE :
+                PointBuffers points = POINTS.get();
+                int count = readPoints(buffer, offset, points);
+                if(count == 0) {
+                    break;
+                }
+                renderer.moveTo(points.x[0], points.y[0]);
+                for(int i = 1; i < count; i++) {
+                    renderer.lineTo(points.x[i], points.y[i]);
+                }
+                break;
+            default :
+                renderer.moveTo(buffer.getFloat(offset + 5), buffer.getFloat(offset + 9));
+                renderer.lineTo(buffer.getFloat(offset + 13), buffer.getFloat(offset + 17));
+        }
+    }
+
+    private static ShapeDimensions readCorners(ByteBuffer buffer, int offset) {
+        return new ShapeDimensions(
+                buffer.getFloat(offset + 5), buffer.getFloat(offset + 9),
+                buffer.getFloat(offset + 13), buffer.getFloat(offset + 17)
+        );
+    }
+
+    //the box of an oval or rectangle record, worked out from its corners the same way its shape does
+    private static double getBoxX(ByteBuffer buffer, int offset) {
+        return Math.min((double) buffer.getFloat(offset + 5), buffer.getFloat(offset + 13));
+    }
+
+    private static double getBoxY(ByteBuffer buffer, int offset) {
+        return Math.min((double) buffer.getFloat(offset + 9), buffer.getFloat(offset + 17));
+    }
+
+    private static double getBoxWidth(ByteBuffer buffer, int offset) {
+        return Math.abs((double) buffer.getFloat(offset + 13) - buffer.getFloat(offset + 5));
+    }
+
+    private static double getBoxHeight(ByteBuffer buffer, int offset) {
+        return Math.abs((double) buffer.getFloat(offset + 17) - buffer.getFloat(offset + 9));
+    }
+
+    //reads a squiggle record's points into the buffers, growing them if they're too small, and returns the count
+    private static int readPoints(ByteBuffer buffer, int offset, PointBuffers points) {
+        int count = buffer.getInt(offset + 37);
+        points.ensureCapacity(count);
+
+        //every coordinate is the difference from the one before it
+        int position = offset + SQUIGGLE_HEADER_SIZE;
+        int x = 0;
+        int y = 0;
+        for(int i = 0; i < count; i++) {
+            int value = 0;
+            int shift = 0;
+            byte next;
+            do {
+                next = buffer.get(position++);
+                value |= (next & 0x7f) << shift;
+                shift += 7;
+            } while(next < 0);
+            x += (value >>> 1) ^ -(value & 1);
+
+            value = 0;
+            shift = 0;
+            do {
+                next = buffer.get(position++);
+                value |= (next & 0x7f) << shift;
+                shift += 7;
+            } while(next < 0);
+            y += (value >>> 1) ^ -(value & 1);
+
+            points.x[i] = (float) (x / FIXED_POINT_SCALE);
+            points.y[i] = (float) (y / FIXED_POINT_SCALE);
+        }
+        return count;
+    }
+
+    //a stored shape is written straight from its store, anything else is read as a shape object first
+    private static IDrawableCommandFactory getRecordShape(IDrawableCommandFactory shape) {
+        return shape instanceof StoredShape ? shape : ShapeCodec.unwrap(shape);
+    }
+
+    private static ByteBuffer writeRecord(FileChannel channel, ByteBuffer buffer, IDrawableCommandFactory shape,
+                                          int style) throws IOException {
+        byte type = ShapeCodec.typeOf(shape);
+        if(type != ShapeCodec.SQUIGGLE) {
+            buffer = makeRoom(channel, buffer, RECORD_SIZE);
+            buffer.put(type);
+            buffer.putInt(style);
+            ShapeCodec.putCorners(type, shape, buffer);
+            return buffer;
+        }
+
+        int count = ShapeCodec.getPointCount(shape);
+        buffer = makeRoom(channel, buffer, SQUIGGLE_HEADER_SIZE + count * MAX_VARINT_SIZE * 2);
+        buffer.put(type);
+        buffer.putInt(style);
+        ShapeCodec.putCorners(type, shape, buffer);
+
+        //the box is worked out from the points as they'll be read back
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        for(int i = 0; i < count; i++) {
+            int x = toFixedPoint(ShapeCodec.getPointX(shape, i));
+            int y = toFixedPoint(ShapeCodec.getPointY(shape, i));
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+        }
+        buffer.putFloat((float) (minX / FIXED_POINT_SCALE));
+        buffer.putFloat((float) (minY / FIXED_POINT_SCALE));
+        buffer.putFloat((float) (maxX / FIXED_POINT_SCALE));
+        buffer.putFloat((float) (maxY / FIXED_POINT_SCALE));
+        buffer.putInt(count);
+
+        //leave room for the length, and fill it in once the points are written
+        int lengthPosition = buffer.position();
+        buffer.putInt(0);
+        int lastX = 0;
+        int lastY = 0;
+        for(int i = 0; i < count; i++) {
+            int x = toFixedPoint(ShapeCodec.getPointX(shape, i));
+            int y = toFixedPoint(ShapeCodec.getPointY(shape, i));
+            putVarint(buffer, x - lastX);
+            putVarint(buffer, y - lastY);
+            lastX = x;
+            lastY = y;
+        }
+        buffer.putInt(lengthPosition, buffer.position() - lengthPosition - 4);
+        return buffer;
+    }
+
+    private static int toFixedPoint(double coordinate) {
+        return (int) Math.round(coordinate * FIXED_POINT_SCALE);
+    }
+
+    //writes a number in 7 bit groups, with small negative numbers zigzagged to small positive ones
+    private static void putVarint(ByteBuffer buffer, int value) {
+        int zigzag = (value << 1) ^ (value >> 31);
+        while((zigzag & ~0x7f) != 0) {
+            buffer.put((byte) ((zigzag & 0x7f) | 0x80));
+            zigzag >>>= 7;
+        }
+        buffer.put((byte) zigzag);
+    }
+
+    //writes out the buffer if there isn't enough room left, returning a bigger one for records that won't fit
+    private static ByteBuffer makeRoom(FileChannel channel, ByteBuffer buffer, int needed) throws IOException {
+        if(buffer.remaining() < needed) {
+            flush(channel, buffer);
+            if(buffer.capacity() < needed) {
+                return ByteBuffer.allocate(needed);
+            }
+        }
+        return buffer;
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while(buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static boolean isMappedFile(Document document, File file) throws IOException {
+        File mappedFile = document.getMappedFile();
+        return mappedFile != null && mappedFile.exists() && file.exists()
+                && Files.isSameFile(mappedFile.toPath(), file.toPath());
+    }
+
+    private static void move(File temp, File file) throws IOException {
+        try {
+            moveOnce(temp, file);
+        } catch (IOException e) {
+            //a file stays mapped until its buffer is collected, even once nothing uses it, so collect and try again
+            System.gc();
+            moveOnce(temp, file);
+        }
+    }
+
+    private static void moveOnce(File temp, File file) throws IOException {
+        try {
+            Files.move(temp.toPath(), file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * The points of the squiggle being read on one thread, kept between reads and grown to the
+     * longest squiggle read so far
+     */
+    private static class PointBuffers {
+        private float[] x = new float[0];
+        private float[] y = new float[0];
+        private FloatBuffer xBuffer = FloatBuffer.wrap(x);
+        private FloatBuffer yBuffer = FloatBuffer.wrap(y);
+
+        void ensureCapacity(int count) {
+            if(x.length < count) {
+                x = new float[Math.max(count, x.length * 2)];
+                y = new float[x.length];
+                xBuffer = FloatBuffer.wrap(x);
+                yBuffer = FloatBuffer.wrap(y);
+            }
+        }
+    }
+
+    /**
+     * The values of a shape setting as they're saved, so settings that save the same share a style
+     */
+    private static class StyleKey {
+        private final float strokeSize;
+        private final int strokeColor;
+        private final boolean isFilled;
+        private final int fillColor;
+
+        StyleKey(ShapeSettings settings) {
+            strokeSize = (float) settings.getStrokeSize();
+            strokeColor = ShapeCodec.toArgb(settings.getStrokeColor());
+            isFilled = settings.isFilled();
+            fillColor = ShapeCodec.toArgb(settings.getFillColor());
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if(!(other instanceof StyleKey)) {
+                return false;
+            }
+            StyleKey key = (StyleKey) other;
+            return Float.compare(strokeSize, key.strokeSize) == 0 && strokeColor == key.strokeColor
+                    && isFilled == key.isFilled && fillColor == key.fillColor;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = Float.hashCode(strokeSize);
+            hash = hash * 31 + strokeColor;
+            hash = hash * 31 + Boolean.hashCode(isFilled);
+            return hash * 31 + fillColor;
+        }
+    }
+}
@@ -0,0 +1,422 @@
+package model.io;
+
+import javafx.scene.paint.Paint;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * This class records what a user does to a DoodleView, so the session can be replayed later as a
+ * repeatable performance test: every mouse press, drag and release on the canvas, every frame the
+ * in-progress shape is drawn in, and every change of tool, settings and view.
+ *
+ * The file starts with a header of the canvas size, the viewport, the smoothing tolerance and the
+ * seed the random tool was given, followed by events. Each event is an operation byte, the time
+ * in microseconds since the event before it, and the operation's values. Mouse positions are
+ * canvas coordinates, like the mouse events they came from, so they're put on the drawing through
+ * the viewport the same way when they're replayed.
+ *
+ * Events are packed into a buffer, and a full buffer is handed to a background writer and swapped
+ * for an empty one, so recording an event never waits on the disk. If a write fails, the recorder
+ * stops and the failure is thrown from close. A recorder isn't thread safe, it belongs to the
+ * thread handling input
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+public class InputRecorder {
+
+    //operation byte of each kind of event
+    public static final byte PRESS = 0;
+    public static final byte DRAG = 1;
+    public static final byte RELEASE = 2;
+    public static final byte FRAME = 3;
+    public static final byte TOOL = 4;
+    public static final byte SETTINGS = 5;
+    public static final byte SMOOTHING = 6;
+    public static final byte UNDO = 7;
+    public static final byte REDO = 8;
+    public static final byte CLEAR = 9;
+    public static final byte ZOOM = 10;
+    public static final byte PAN = 11;
+    public static final byte PAN_END = 12;
+    public static final byte FIT = 13;
+    public static final byte RESET_VIEW = 14;
+    public static final byte GENERATE = 15;
+    public static final byte RESIZE = 16;
+
+    //names of the events, in the same order
+    public static final String[] NAMES = {
+            "press", "drag", "release", "frame", "tool", "settings", "smoothing", "undo", "redo",
+            "clear", "zoom", "pan", "pan end", "fit", "reset view", "generate", "resize"
+    };
+
+    //the "DINP" magic number and version the file starts with
+    public static final int MAGIC = 0x44494e50;
+    public static final int VERSION = 1;
+
+    //file extension of recordings
+    public static final String EXTENSION = ".dinput";
+
+    //operation, time, and the largest event's values, a tool name of up to 255 bytes
+    private static final int MAX_EVENT_SIZE = 1 + 4 + 1 + 255;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final long NANOS_PER_MICRO = 1000;
+
+    //handed to the writer to stop it
+    private static final ByteBuffer STOP = ByteBuffer.allocate(0);
+
+    private File file;
+    private FileChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    //full buffers waiting for the writer, and buffers it has written out, to be filled again
+    private BlockingQueue<ByteBuffer> queue = new LinkedBlockingQueue<>();
+    private BlockingQueue<ByteBuffer> spares = new LinkedBlockingQueue<>();
+    private Thread writer;
+
+    //when recording started, and when the last event happened in microseconds after that
+    private long startNanos;
+    private long lastMicros;
+    private long events;
+    private volatile IOException failure;
+
+    //settings last recorded, the view passes them on for every shape and they rarely change
+    private boolean hasSettings;
+    private float strokeSize;
+    private int strokeArgb;
+    private boolean isFilled;
+    private int fillArgb;
+
+    private InputRecorder(File file, FileChannel channel) {
+        this.file = file;
+        this.channel = channel;
+    }
+
+    /**
+     * returns the file the drawing a recording starts from is saved in, next to the recording
+     * @param recording is the recording file
+     * @return returns the drawing file, which only exists if the drawing wasn't empty
+     */
+    public static File getDrawingFile(File recording) {
+        return new File(recording.getPath() + DocumentFile.EXTENSION);
+    }
+
+    /**
+     * This function starts recording to a file, replacing anything in it
+     * @param file is the file to record to
+     * @param canvasWidth is the width of the canvas
+     * @param canvasHeight is the height of the canvas
+     * @param scale is the viewport's scale
+     * @param originX is the x coordinate of the drawing at the left edge of the canvas
+     * @param originY is the y coordinate of the drawing at the top edge of the canvas
+     * @param smoothing is the squiggle smoothing tolerance
+     * @param randomSeed is the seed the random tool was given when the recording started
+     * @return returns the recorder
+     * @throws IOException if the file couldn't be written
+     */
+    public static InputRecorder start(File file, double canvasWidth, double canvasHeight,
+                                      double scale, double originX, double originY,
+                                      double smoothing, long randomSeed) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        InputRecorder recorder = new InputRecorder(file, channel);
+        recorder.buffer.putInt(MAGIC);
+        recorder.buffer.putInt(VERSION);
+        recorder.buffer.putFloat((float) canvasWidth);
+        recorder.buffer.putFloat((float) canvasHeight);
+        recorder.buffer.putDouble(scale);
+        recorder.buffer.putDouble(originX);
+        recorder.buffer.putDouble(originY);
+        recorder.buffer.putFloat((float) smoothing);
+        recorder.buffer.putLong(randomSeed);
+        recorder.writer = new Thread(recorder::writeBuffers, "doodle-recorder");
+        recorder.writer.setDaemon(true);
+        recorder.writer.start();
+        recorder.startNanos = System.nanoTime();
+        return recorder;
+    }
+
+    /**
+     * This function records the mouse being pressed on the canvas to start a shape
+     * @param x is the x coordinate on the canvas
+     * @param y is the y coordinate on the canvas
+     */
+    public void press(double x, double y) {
+        point(PRESS, x, y);
+    }
+
+    /**
+     * This function records the mouse being dragged while a shape is drawn
+     * @param x is the x coordinate on the canvas
+     * @param y is the y coordinate on the canvas
+     */
+    public void drag(double x, double y) {
+        point(DRAG, x, y);
+    }
+
+    /**
+     * This function records the mouse being released to finish a shape
+     */
+    public void release() {
+        start(RELEASE);
+    }
+
+    /**
+     * This function records a frame drawn while the mouse is held down
+     */
+    public void frame() {
+        start(FRAME);
+    }
+
+    /**
+     * This function records a different tool being picked
+     * @param tool is the name of the tool, like "Line" or "Squiggle"
+     */
+    public void tool(String tool) {
+        byte[] name = tool.getBytes(StandardCharsets.UTF_8);
+        if(start(TOOL)) {
+            int length = Math.min(name.length, 255);
+            buffer.put((byte) length);
+            buffer.put(name, 0, length);
+        }
+    }
+
+    /**
+     * This function records the shape settings being used, if they've changed since they were last recorded
+     * @param strokeSize is the stroke size
+     * @param strokeColor is the stroke color
+     * @param isFilled is true if shapes are filled
+     * @param fillColor is the fill color
+     */
+    public void settings(double strokeSize, Paint strokeColor, boolean isFilled, Paint fillColor) {
+        int newStrokeArgb = ShapeCodec.toArgb(strokeColor);
+        int newFillArgb = ShapeCodec.toArgb(fillColor);
+        if(hasSettings && this.strokeSize == (float) strokeSize && this.strokeArgb == newStrokeArgb
+                && this.isFilled == isFilled && this.fillArgb == newFillArgb) {
+            return;
+        }
+        if(start(SETTINGS)) {
+            hasSettings = true;
+            this.strokeSize = (float) strokeSize;
+            this.strokeArgb = newStrokeArgb;
+            this.isFilled = isFilled;
+            this.fillArgb = newFillArgb;
+            buffer.putFloat(this.strokeSize);
+            buffer.putInt(strokeArgb);
+            buffer.put((byte) (isFilled ? 1 : 0));
+            buffer.putInt(fillArgb);
+        }
+    }
+
+    /**
+     * This function records the squiggle smoothing tolerance changing
+     * @param tolerance is the new tolerance
+     */
+    public void smoothing(double tolerance) {
+        if(start(SMOOTHING)) {
+            buffer.putFloat((float) tolerance);
+        }
+    }
+
+    /**
+     * This function records the top shape being undone
+     */
+    public void undo() {
+        start(UNDO);
+    }
+
+    /**
+     * This function records the last undone shape being redone
+     */
+    public void redo() {
+        start(REDO);
+    }
+
+    /**
+     * This function records every shape being cleared
+     */
+    public void clear() {
+        start(CLEAR);
+    }
+
+    /**
+     * This function records the view being zoomed around a point on the canvas
+     * @param factor is how much the scale was multiplied by
+     * @param x is the x coordinate on the canvas zoomed around
+     * @param y is the y coordinate on the canvas zoomed around
+     */
+    public void zoom(double factor, double x, double y) {
+        if(start(ZOOM)) {
+            buffer.putDouble(factor);
+            buffer.putFloat((float) x);
+            buffer.putFloat((float) y);
+        }
+    }
+
+    /**
+     * This function records the drawing being moved across the canvas
+     * @param dx is how far the drawing moved right, in canvas pixels
+     * @param dy is how far the drawing moved down, in canvas pixels
+     */
+    public void pan(double dx, double dy) {
+        point(PAN, dx, dy);
+    }
+
+    /**
+     * This function records the mouse being released after panning
+     */
+    public void panEnd() {
+        start(PAN_END);
+    }
+
+    /**
+     * This function records the view being fit to the drawing
+     */
+    public void fit() {
+        start(FIT);
+    }
+
+    /**
+     * This function records the view going back to the drawing's own coordinates
+     */
+    public void resetView() {
+        start(RESET_VIEW);
+    }
+
+    /**
+     * This function records random shapes being generated and added
+     * @param count is the number of shapes
+     * @param seed is the seed they were generated from
+     */
+    public void generate(int count, long seed) {
+        if(start(GENERATE)) {
+            buffer.putInt(count);
+            buffer.putLong(seed);
+        }
+    }
+
+    /**
+     * This function records the canvas changing size
+     * @param width is the new width of the canvas
+     * @param height is the new height of the canvas
+     */
+    public void resize(double width, double height) {
+        point(RESIZE, width, height);
+    }
+
+    /**
+     * returns the number of events recorded
+     * @return returns the number of events recorded
+     */
+    public long getEventCount() {
+        return events;
+    }
+
+    /**
+     * returns the file being recorded to
+     * @return returns the file being recorded to
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * This function hands the events still in the buffer to the writer, waits for it to write out
+     * everything it was handed, and closes the file
+     * @throws IOException if the events couldn't be written, now or earlier
+     */
+    public void close() throws IOException {
+        if(failure == null) {
+            handBuffer();
+        }
+        queue.add(STOP);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            channel.close();
+        }
+        if(failure != null) {
+            throw failure;
+        }
+    }
+
+    private void point(byte operation, double x, double y) {
+        if(start(operation)) {
+            buffer.putFloat((float) x);
+            buffer.putFloat((float) y);
+        }
+    }
+
+    //writes the operation and the time since the last event, returns false once recording has failed
+    private boolean start(byte operation) {
+        if(failure != null) {
+            return false;
+        }
+        if(buffer.remaining() < MAX_EVENT_SIZE) {
+            handBuffer();
+        }
+
+        //times are rounded from the start, so the rounding doesn't add up over a long recording
+        long micros = (System.nanoTime() - startNanos) / NANOS_PER_MICRO;
+        long delay = Math.min(micros - lastMicros, Integer.MAX_VALUE);
+        lastMicros += delay;
+        buffer.put(operation);
+        buffer.putInt((int) delay);
+        events++;
+        return true;
+    }
+
+    //hands the buffer to the writer and carries on in one it has finished with, or a new one
+    private void handBuffer() {
+        buffer.flip();
+        queue.add(buffer);
+        buffer = spares.poll();
+        if(buffer == null) {
+            buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        }
+    }
+
+    //the writer's loop, buffers are written in the order they were handed over and then kept to be filled again
+    private void writeBuffers() {
+        while(true) {
+            ByteBuffer full;
+            try {
+                full = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if(full == STOP) {
+                return;
+            }
+
+            try {
+                while(full.hasRemaining()) {
+                    channel.write(full);
+                }
+            } catch (IOException e) {
+                failure = e;
+                return;
+            }
+            full.clear();
+            spares.add(full);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "InputRecorder{" +
+                "file=" + file +
+                ", events=" + events +
+                ", failure=" + failure +
+                '}';
+    }
+}
@@ -0,0 +1,94 @@
+package model.io;
+
+import model.command.IDrawableCommandFactory;
+import model.command.helpers.ShapeBounds;
+import model.command.helpers.ShapeSettings;
+import model.render.IShapeRenderer;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+
+/**
+ * This class is a shape that's still in a memory mapped document file. It only remembers where
+ * its record is and the area it covers, and draws straight from the file every time it's drawn,
+ * so opening a drawing doesn't have to read every point of every squiggle, and drawing doesn't
+ * make a shape object for it.
+ *
+ * Reading never moves the buffer's position, so mapped shapes can be drawn from many threads at once
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+public class MappedShape implements IDrawableCommandFactory {
+
+    private ByteBuffer buffer;
+    private int offset;
+    private byte type;
+    private ShapeSettings[] styles;
+    private ShapeBounds bounds;
+
+    /**
+     * This is the MappedShape constructor
+     * @param buffer is the mapped document file
+     * @param offset is where the shape's record starts in the file
+     * @param type is the type byte of the shape
+     * @param styles is the style table of the file
+     * @param bounds is the area the shape covers
+     */
+    public MappedShape(ByteBuffer buffer, int offset, byte type, ShapeSettings[] styles, ShapeBounds bounds) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.type = type;
+        this.styles = styles;
+        this.bounds = bounds;
+    }
+
+    /**
+     * returns the shape, read from the file
+     * @return returns the shape
+     */
+    public IDrawableCommandFactory getShape() {
+        return DocumentFile.decode(buffer, offset, styles);
+    }
+
+    /**
+     * returns the type byte of the shape
+     * @return returns the type byte of the shape
+     */
+    public byte getType() {
+        return type;
+    }
+
+    @Override
+    public void draw(IShapeRenderer renderer) {
+        DocumentFile.draw(buffer, offset, styles, renderer);
+    }
+
+    @Override
+    public void appendPath(IShapeRenderer renderer) {
+        DocumentFile.appendPath(buffer, offset, renderer);
+    }
+
+    @Override
+    public ShapeSettings getShapeSettings() {
+        return styles[buffer.getInt(offset + 1)];
+    }
+
+    @Override
+    public ShapeBounds getBounds() {
+        return bounds;
+    }
+
+    @Override
+    public IDrawableCommandFactory getRandomShape(ShapeBounds area, SplittableRandom random) {
+        return getShape().getRandomShape(area, random);
+    }
+
+    @Override
+    public String toString() {
+        return "MappedShape{" +
+                "offset=" + offset +
+                ", type=" + type +
+                ", bounds=" + bounds +
+                '}';
+    }
+}
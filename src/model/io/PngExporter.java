@@ -0,0 +1,113 @@
+package model.io;
+
+import model.document.IShapeSource;
+import model.render.TiledRasterizer;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleConsumer;
+import java.util.zip.Deflater;
+
+/**
+ * This class exports a drawing as a PNG image of any size, off the JavaFX thread.
+ *
+ * The image is rendered a band of rows at a time with the tiled rasterizer, and each band
+ * is handed to a streaming PNG writer before the next one is drawn over it, so the only image
+ * held in memory is one band. Progress is reported after every band, and the export can be
+ * cancelled between bands
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+public class PngExporter {
+
+    //number of rows rendered at a time
+    public static final int DEFAULT_BAND_ROWS = TiledRasterizer.DEFAULT_TILE_SIZE;
+
+    //drawings are mostly flat color, which compresses well even at the fastest level
+    public static final int DEFAULT_COMPRESSION = Deflater.BEST_SPEED;
+
+    private static final int OUTPUT_BUFFER_SIZE = 256 * 1024;
+
+    private TiledRasterizer rasterizer;
+    private int bandRows;
+    private int compressionLevel;
+
+    /**
+     * This is the PngExporter constructor, using the default rasterizer, band size and compression
+     */
+    public PngExporter() {
+        this(new TiledRasterizer(), DEFAULT_BAND_ROWS, DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * This is the PngExporter constructor
+     * @param rasterizer is the rasterizer the bands are rendered with
+     * @param bandRows is the number of rows rendered at a time
+     * @param compressionLevel is the deflater compression level, from 0 to 9
+     */
+    public PngExporter(TiledRasterizer rasterizer, int bandRows, int compressionLevel) {
+        this.rasterizer = rasterizer;
+        this.bandRows = bandRows;
+        this.compressionLevel = compressionLevel;
+    }
+
+    /**
+     * This function renders the shapes and writes them to a PNG file. The shapes are only used by
+     * the calling thread, so they should be a snapshot when it isn't the thread that owns the document
+     * @param shapes is the shapes to be exported, in the order they were drawn
+     * @param file is the file to write the image to
+     * @param width is the width of the image in pixels
+     * @param height is the height of the image in pixels
+     * @param scale is how many pixels one unit of the canvas takes up
+     * @param progress is told how much of the image is done, from 0 to 1, after every band
+     * @param cancelled is checked before every band, the export stops and the file is deleted once it's true
+     * @return returns true if the image was written, or false if it was cancelled
+     * @throws IOException if the file couldn't be written
+     */
+    public boolean export(IShapeSource shapes, File file, int width, int height, double scale,
+                          DoubleConsumer progress, BooleanSupplier cancelled) throws IOException {
+        int[] band = new int[width * Math.min(bandRows, height)];
+        boolean finished = false;
+        try (OutputStream output = new BufferedOutputStream(new FileOutputStream(file), OUTPUT_BUFFER_SIZE)) {
+            PngWriter writer = new PngWriter(output, width, height, compressionLevel);
+            try {
+                for(int firstRow = 0; firstRow < height; firstRow += bandRows) {
+                    if(cancelled.getAsBoolean()) {
+                        return false;
+                    }
+                    int rows = Math.min(bandRows, height - firstRow);
+                    Arrays.fill(band, 0);
+                    rasterizer.render(shapes, band, width, scale, firstRow, rows);
+                    writer.writeRows(band, rows);
+                    progress.accept((double) (firstRow + rows) / height);
+                }
+                writer.finish();
+                finished = true;
+                return true;
+            } finally {
+                if(!finished) {
+                    writer.abort();
+                }
+            }
+        } finally {
+            //nothing is left behind when the export doesn't finish
+            if(!finished) {
+                file.delete();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PngExporter{" +
+                "rasterizer=" + rasterizer +
+                ", bandRows=" + bandRows +
+                ", compressionLevel=" + compressionLevel +
+                '}';
+    }
+}
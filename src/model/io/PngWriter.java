@@ -0,0 +1,181 @@
+package model.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * This class writes a PNG image a few rows at a time, so an image never has to be held
+ * all at once to be saved. Rows go through a deflater as they're written, and the compressed
+ * bytes are written out in IDAT chunks as they fill up.
+ *
+ * Images are written as 8 bit RGBA, with each row filtered by the difference from the pixel to its left
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+public class PngWriter {
+
+    //every PNG file starts with these bytes
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'};
+
+    //8 bits per channel, RGBA color, the only compression and filter methods, no interlacing
+    private static final int BIT_DEPTH = 8;
+    private static final int COLOR_TYPE_RGBA = 6;
+
+    //the Sub filter, which stores each byte as the difference from the same byte of the pixel to its left
+    private static final int FILTER_SUB = 1;
+    private static final int BYTES_PER_PIXEL = 4;
+
+    //size of the IDAT chunks written out
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private OutputStream output;
+    private int width;
+    private int height;
+    private int rowsWritten;
+
+    private Deflater deflater;
+    private byte[] row;
+    private byte[] chunk = new byte[CHUNK_SIZE];
+    private int chunkLength;
+    private CRC32 crc = new CRC32();
+
+    /**
+     * This is the PngWriter constructor, it writes the start of the image straight away
+     * @param output is where the image is written, it's left open when the image is finished
+     * @param width is the width of the image in pixels
+     * @param height is the height of the image in pixels
+     * @param compressionLevel is the deflater compression level, from 0 to 9
+     * @throws IOException if the start of the image couldn't be written
+     */
+    public PngWriter(OutputStream output, int width, int height, int compressionLevel) throws IOException {
+        this.output = output;
+        this.width = width;
+        this.height = height;
+        this.deflater = new Deflater(compressionLevel);
+        this.row = new byte[1 + width * BYTES_PER_PIXEL];
+
+        output.write(SIGNATURE);
+        ByteBuffer header = ByteBuffer.allocate(13);
+        header.putInt(width);
+        header.putInt(height);
+        header.put((byte) BIT_DEPTH);
+        header.put((byte) COLOR_TYPE_RGBA);
+        header.put((byte) 0);
+        header.put((byte) 0);
+        header.put((byte) 0);
+        writeChunk("IHDR", header.array(), header.position());
+    }
+
+    /**
+     * This function writes the next rows of the image
+     * @param pixels is the rows, one ARGB int per pixel, row by row, with the colors not premultiplied by alpha
+     * @param rows is the number of rows to write from the start of the pixels
+     * @throws IOException if the rows couldn't be written
+     */
+    public void writeRows(int[] pixels, int rows) throws IOException {
+        if(rowsWritten + rows > height) {
+            throw new IllegalArgumentException("The image only has " + height + " rows");
+        }
+
+        for(int y = 0; y < rows; y++) {
+            row[0] = FILTER_SUB;
+            int previous = 0;
+            int offset = y * width;
+            for(int x = 0; x < width; x++) {
+                int argb = pixels[offset + x];
+                int index = 1 + x * BYTES_PER_PIXEL;
+                row[index] = (byte) ((argb >> 16) - (previous >> 16));
+                row[index + 1] = (byte) ((argb >> 8) - (previous >> 8));
+                row[index + 2] = (byte) (argb - previous);
+                row[index + 3] = (byte) ((argb >>> 24) - (previous >>> 24));
+                previous = argb;
+            }
+
+            deflater.setInput(row);
+            while(!deflater.needsInput()) {
+                deflate();
+            }
+        }
+        rowsWritten += rows;
+    }
+
+    /**
+     * This function writes the end of the image, once every row has been written
+     * @throws IOException if the end of the image couldn't be written
+     */
+    public void finish() throws IOException {
+        if(rowsWritten != height) {
+            throw new IllegalStateException("Only " + rowsWritten + " of " + height + " rows were written");
+        }
+        deflater.finish();
+        while(!deflater.finished()) {
+            deflate();
+        }
+        writePendingChunk();
+        writeChunk("IEND", new byte[0], 0);
+        output.flush();
+        deflater.end();
+    }
+
+    /**
+     * This function throws away the deflater without finishing the image, for when it's cancelled
+     */
+    public void abort() {
+        deflater.end();
+    }
+
+    /**
+     * returns the number of rows written so far
+     * @return returns the number of rows written so far
+     */
+    public int getRowsWritten() {
+        return rowsWritten;
+    }
+
+    private void deflate() throws IOException {
+        chunkLength += deflater.deflate(chunk, chunkLength, chunk.length - chunkLength);
+        if(chunkLength == chunk.length) {
+            writePendingChunk();
+        }
+    }
+
+    private void writePendingChunk() throws IOException {
+        if(chunkLength > 0) {
+            writeChunk("IDAT", chunk, chunkLength);
+            chunkLength = 0;
+        }
+    }
+
+    //a chunk is its length, type, data, and a CRC of the type and data
+    private void writeChunk(String type, byte[] data, int length) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        writeInt(length);
+        output.write(typeBytes);
+        output.write(data, 0, length);
+
+        crc.reset();
+        crc.update(typeBytes);
+        crc.update(data, 0, length);
+        writeInt((int) crc.getValue());
+    }
+
+    private void writeInt(int value) throws IOException {
+        output.write(value >>> 24);
+        output.write(value >>> 16);
+        output.write(value >>> 8);
+        output.write(value);
+    }
+
+    @Override
+    public String toString() {
+        return "PngWriter{" +
+                "width=" + width +
+                ", height=" + height +
+                ", rowsWritten=" + rowsWritten +
+                '}';
+    }
+}
@@ -0,0 +1,281 @@
+package model.io;
+
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+import model.command.*;
+import model.command.helpers.ShapeDimensions;
+import model.command.helpers.ShapeSettings;
+import model.command.helpers.SquiggleCoordinates;
+
+import java.nio.ByteBuffer;
+
+/**
+ * This class turns drawable shapes into a compact binary form and back again.
+ *
+ * Every shape is written as a type byte, its settings (stroke size, stroke color, filled, fill color),
+ * and its start and end corners as floats. Squiggles add a point count and their points.
+ * Rectangles and ovals are written by their corners, so reading them back goes through
+ * the same constructor as drawing them did
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+public class ShapeCodec {
+
+    //type byte for each kind of shape
+    public static final byte LINE = 0;
+    public static final byte OVAL = 1;
+    public static final byte RECTANGLE = 2;
+    public static final byte SQUIGGLE = 3;
+
+    //type, stroke size, stroke color, filled, fill color, and four corner coordinates
+    private static final int FIXED_SIZE = 1 + 4 + 4 + 1 + 4 + 4 * 4;
+
+    //point count, and an x and y float per point
+    private static final int POINT_COUNT_SIZE = 4;
+    private static final int POINT_SIZE = 8;
+
+    //rough size of a shape object, its settings and dimensions in the heap
+    private static final int HEAP_SHAPE_SIZE = 200;
+    private static final int HEAP_POINT_SIZE = 16;
+
+    //a shape that's still in its file only keeps where it is and the area it covers
+    private static final int HEAP_MAPPED_SIZE = 64;
+
+    private ShapeCodec() {
+        //do nothing
+    }
+
+    /**
+     * returns the type byte of a shape
+     * @param shape is the shape
+     * @return returns the type byte of the shape
+     */
+    public static byte typeOf(IDrawableCommandFactory shape) {
+        if(shape instanceof MappedShape) {
+            return ((MappedShape) shape).getType();
+        } else if(shape instanceof StoredShape) {
+            return ((StoredShape) shape).getType();
+        } else if(shape instanceof DrawableSquiggle) {
+            return SQUIGGLE;
+        } else if(shape instanceof DrawableEllipse) {
+            return OVAL;
+        } else if(shape instanceof DrawableRectangle) {
+            return RECTANGLE;
+        }
+        return LINE;
+    }
+
+    /**
+     * returns the number of bytes a shape takes up when encoded
+     * @param shape is the shape to be encoded
+     * @return returns the number of bytes the encoded shape takes up
+     */
+    public static int encodedSize(IDrawableCommandFactory shape) {
+        if(!(shape instanceof StoredShape)) {
+            shape = unwrap(shape);
+        }
+        if(typeOf(shape) == SQUIGGLE) {
+            return FIXED_SIZE + POINT_COUNT_SIZE + getPointCount(shape) * POINT_SIZE;
+        }
+        return FIXED_SIZE;
+    }
+
+    /**
+     * returns roughly how many bytes a shape takes up in the heap
+     * @param shape is the shape
+     * @return returns roughly how many bytes the shape takes up in the heap
+     */
+    public static long estimateHeapSize(IDrawableCommandFactory shape) {
+        if(shape instanceof MappedShape) {
+            return HEAP_MAPPED_SIZE;
+        } else if(shape instanceof StoredShape) {
+            return ((StoredShape) shape).estimateHeapSize();
+        } else if(shape instanceof DrawableSquiggle) {
+            return HEAP_SHAPE_SIZE
+                    + (long) ((DrawableSquiggle) shape).getCoordinates().getCoordinateX().length * HEAP_POINT_SIZE;
+        }
+        return HEAP_SHAPE_SIZE;
+    }
+
+    /**
+     * This function writes a shape to the buffer
+     * @param shape is the shape to be encoded, which has to be one of the drawable shapes or a view of one
+     * @param buffer is the buffer to write to, with at least encodedSize(shape) bytes left
+     */
+    public static void encode(IDrawableCommandFactory shape, ByteBuffer buffer) {
+        //a stored shape is written straight from its store's columns
+        if(!(shape instanceof StoredShape)) {
+            shape = unwrap(shape);
+        }
+        byte type = typeOf(shape);
+        ShapeSettings settings = shape.getShapeSettings();
+
+        buffer.put(type);
+        buffer.putFloat((float) settings.getStrokeSize());
+        buffer.putInt(toArgb(settings.getStrokeColor()));
+        buffer.put((byte) (settings.isFilled() ? 1 : 0));
+        buffer.putInt(toArgb(settings.getFillColor()));
+
+        putCorners(type, shape, buffer);
+
+        if(type == SQUIGGLE) {
+            int count = getPointCount(shape);
+            buffer.putInt(count);
+            for(int i = 0; i < count; i++) {
+                buffer.putFloat((float) getPointX(shape, i));
+                buffer.putFloat((float) getPointY(shape, i));
+            }
+        }
+    }
+
+    /**
+     * This function writes the start and end corners of a shape as four floats
+     * @param type is the type byte of the shape
+     * @param shape is the shape, which has to be one of the drawable shapes or a view of one
+     * @param buffer is the buffer to write to
+     */
+    public static void putCorners(byte type, IDrawableCommandFactory shape, ByteBuffer buffer) {
+        double startX;
+        double startY;
+        double endX;
+        double endY;
+        if(shape instanceof StoredShape) {
+            StoredShape stored = (StoredShape) shape;
+            startX = stored.getCoordinate(0);
+            startY = stored.getCoordinate(1);
+            endX = stored.getCoordinate(2);
+            endY = stored.getCoordinate(3);
+        } else {
+            ShapeDimensions dimensions = ((DrawableShape) shape).getShapeDimensions();
+            startX = dimensions.getStartX();
+            startY = dimensions.getStartY();
+            endX = dimensions.getEndX();
+            endY = dimensions.getEndY();
+        }
+
+        //rectangles and ovals keep a corner, width and height, so turn them back into two corners
+        if(type == OVAL || type == RECTANGLE) {
+            endX += startX;
+            endY += startY;
+        }
+        buffer.putFloat((float) startX);
+        buffer.putFloat((float) startY);
+        buffer.putFloat((float) endX);
+        buffer.putFloat((float) endY);
+    }
+
+    /**
+     * returns the number of points in a squiggle
+     * @param shape is the squiggle, or a view of one
+     * @return returns the number of points in the squiggle
+     */
+    public static int getPointCount(IDrawableCommandFactory shape) {
+        if(shape instanceof StoredShape) {
+            return ((StoredShape) shape).getPointCount();
+        }
+        return ((DrawableSquiggle) shape).getCoordinates().getNumOfCoordinates();
+    }
+
+    /**
+     * returns the x coordinate of a point in a squiggle
+     * @param shape is the squiggle, or a view of one
+     * @param index is the index of the point
+     * @return returns the x coordinate of the point
+     */
+    public static double getPointX(IDrawableCommandFactory shape, int index) {
+        if(shape instanceof StoredShape) {
+            return ((StoredShape) shape).getPointX(index);
+        }
+        return ((DrawableSquiggle) shape).getCoordinates().getCoordinateX()[index];
+    }
+
+    /**
+     * returns the y coordinate of a point in a squiggle
+     * @param shape is the squiggle, or a view of one
+     * @param index is the index of the point
+     * @return returns the y coordinate of the point
+     */
+    public static double getPointY(IDrawableCommandFactory shape, int index) {
+        if(shape instanceof StoredShape) {
+            return ((StoredShape) shape).getPointY(index);
+        }
+        return ((DrawableSquiggle) shape).getCoordinates().getCoordinateY()[index];
+    }
+
+    /**
+     * returns the drawable shape behind a shape, reading it from its file if it's still there,
+     * or from its store if it's a view of one
+     * @param shape is the shape
+     * @return returns the drawable shape
+     */
+    public static IDrawableCommandFactory unwrap(IDrawableCommandFactory shape) {
+        if(shape instanceof MappedShape) {
+            return ((MappedShape) shape).getShape();
+        } else if(shape instanceof StoredShape) {
+            return ((StoredShape) shape).toShape();
+        }
+        return shape;
+    }
+
+    /**
+     * This function reads the next shape from the buffer
+     * @param buffer is the buffer to read from
+     * @return returns the shape that was read
+     */
+    public static IDrawableCommandFactory decode(ByteBuffer buffer) {
+        byte type = buffer.get();
+        double strokeSize = buffer.getFloat();
+        Color strokeColor = fromArgb(buffer.getInt());
+        boolean isFilled = buffer.get() != 0;
+        Color fillColor = fromArgb(buffer.getInt());
+        ShapeSettings settings = ShapeSettings.intern(strokeSize, strokeColor, isFilled, fillColor);
+        ShapeDimensions dimensions = new ShapeDimensions(
+                buffer.getFloat(), buffer.getFloat(), buffer.getFloat(), buffer.getFloat()
+        );
+
+        switch (type) {
+            case OVAL :
+                return new DrawableEllipse(settings, dimensions);
+            case RECTANGLE :
+                return new DrawableRectangle(settings, dimensions);
+            case SQUIGGLE :
+                int count = buffer.getInt();
+                double[] coordinateX = new double[count];
+                double[] coordinateY = new double[count];
+                for(int i = 0; i < count; i++) {
+                    coordinateX[i] = buffer.getFloat();
+                    coordinateY[i] = buffer.getFloat();
+                }
+                return new DrawableSquiggle(settings, dimensions,
+                        new SquiggleCoordinates(coordinateX, coordinateY));
+            default :
+                return new DrawableLine(settings, dimensions);
+        }
+    }
+
+    /**
+     * returns a color packed into an int as alpha, red, green, blue bytes,
+     * anything that isn't a plain color is written as black
+     * @param paint is the color
+     * @return returns the packed color
+     */
+    public static int toArgb(Paint paint) {
+        if(!(paint instanceof Color)) {
+            return 0xff000000;
+        }
+        Color color = (Color) paint;
+        return (int) Math.round(color.getOpacity() * 255) << 24
+                | (int) Math.round(color.getRed() * 255) << 16
+                | (int) Math.round(color.getGreen() * 255) << 8
+                | (int) Math.round(color.getBlue() * 255);
+    }
+
+    /**
+     * returns the color packed into an int as alpha, red, green, blue bytes
+     * @param argb is the packed color
+     * @return returns the color
+     */
+    public static Color fromArgb(int argb) {
+        return Color.rgb((argb >> 16) & 0xff, (argb >> 8) & 0xff, argb & 0xff, ((argb >>> 24) & 0xff) / 255.0);
+    }
+}
@@ -0,0 +1,70 @@
+package model.memento;
+
+import javafx.scene.image.WritableImage;
+
+/**
+ * This class is a memento of the committed canvas, holding a picture of it
+ * after a certain number of shapes from the undo history were drawn
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+public class CanvasMemento {
+
+    private WritableImage image;
+    private int historySize;
+
+    //four bytes for every pixel
+    private static final int BYTES_PER_PIXEL = 4;
+
+    /**
+     * This is the CanvasMemento constructor
+     * @param image is the picture of the canvas
+     * @param historySize is the number of shapes from the undo history in the picture
+     */
+    public CanvasMemento(WritableImage image, int historySize) {
+        this.image = image;
+        this.historySize = historySize;
+    }
+
+    /**
+     * returns the picture of the canvas
+     * @return returns the picture of the canvas
+     */
+    public WritableImage getImage() {
+        return image;
+    }
+
+    /**
+     * returns the number of shapes from the undo history in the picture
+     * @return returns the number of shapes from the undo history in the picture
+     */
+    public int getHistorySize() {
+        return historySize;
+    }
+
+    /**
+     * returns roughly how much memory the picture takes up
+     * @return returns roughly how much memory the picture takes up in bytes
+     */
+    public long getMemorySize() {
+        return (long) image.getWidth() * (long) image.getHeight() * BYTES_PER_PIXEL;
+    }
+
+    /**
+     * returns true if the picture is the same size as a canvas
+     * @param width is the width of the canvas
+     * @param height is the height of the canvas
+     * @return returns true if the picture is the same size as the canvas
+     */
+    public boolean fits(double width, double height) {
+        return (int) image.getWidth() == (int) width && (int) image.getHeight() == (int) height;
+    }
+
+    @Override
+    public String toString() {
+        return "CanvasMemento{" +
+                "image=" + image +
+                ", historySize=" + historySize +
+                '}';
+    }
+}
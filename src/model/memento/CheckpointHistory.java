@@ -0,0 +1,199 @@
+package model.memento;
+
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.paint.Color;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class is the caretaker for canvas mementos. It takes a picture of the committed canvas
+ * every so often as shapes are added to the undo history, so the canvas can be restored from
+ * the nearest picture and only the shapes after it need to be replayed.
+ *
+ * Pictures are taken after a number of shapes, or once the shapes since the last picture took
+ * long enough to draw. The oldest pictures are thrown away when they use more than the memory budget
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+public class CheckpointHistory {
+
+    //defaults for how often pictures are taken, and how much memory they can use
+    public static final int DEFAULT_INTERVAL = 250;
+    public static final long DEFAULT_REPLAY_MILLIS = 50;
+    public static final long DEFAULT_MEMORY_BUDGET = 64L * 1024 * 1024;
+
+    private static final long NANOS_PER_MILLI = 1_000_000;
+
+    private int interval;
+    private long replayNanos;
+    private long memoryBudget;
+
+    //pictures from the fewest shapes to the most
+    private List<CanvasMemento> mementos = new ArrayList<>();
+    private long memoryUsed;
+
+    //shapes added, and time spent drawing them, since the last picture
+    private int shapesSinceCheckpoint;
+    private long nanosSinceCheckpoint;
+
+    //pictures need the JavaFX thread, so they can be turned off to draw without one
+    private boolean enabled = true;
+
+    //keep the empty parts of the canvas see-through in the picture
+    private SnapshotParameters parameters = new SnapshotParameters();
+
+    /**
+     * This is the CheckpointHistory constructor, using the default settings
+     */
+    public CheckpointHistory() {
+        this(DEFAULT_INTERVAL, DEFAULT_REPLAY_MILLIS, DEFAULT_MEMORY_BUDGET);
+    }
+
+    /**
+     * This is the CheckpointHistory constructor
+     * @param interval is the number of shapes between pictures
+     * @param replayMillis is how long the shapes since the last picture can take to draw before a new picture is taken
+     * @param memoryBudget is how many bytes the pictures can use
+     */
+    public CheckpointHistory(int interval, long replayMillis, long memoryBudget) {
+        this.interval = interval;
+        this.replayNanos = replayMillis * NANOS_PER_MILLI;
+        this.memoryBudget = memoryBudget;
+        parameters.setFill(Color.TRANSPARENT);
+    }
+
+    /**
+     * This function records that a shape was drawn to the committed canvas and added to the history,
+     * and takes a picture of the canvas if it's been long enough since the last one
+     * @param canvas is the canvas holding all of the committed shapes
+     * @param historySize is the number of shapes in the undo history
+     * @param drawNanos is how long the shape took to draw
+     */
+    public void shapeAdded(Canvas canvas, int historySize, long drawNanos) {
+        shapesSinceCheckpoint++;
+        nanosSinceCheckpoint += drawNanos;
+
+        if(shapesSinceCheckpoint >= interval || nanosSinceCheckpoint >= replayNanos) {
+            save(canvas, historySize);
+        }
+    }
+
+    /**
+     * This function records that the whole canvas was drawn again, like after the view moved,
+     * and takes a picture of it if drawing it took long enough that it's worth not doing again
+     * @param canvas is the canvas holding all of the committed shapes
+     * @param historySize is the number of shapes in the undo history
+     * @param drawNanos is how long the canvas took to draw
+     */
+    public void canvasRedrawn(Canvas canvas, int historySize, long drawNanos) {
+        if(drawNanos >= replayNanos) {
+            save(canvas, historySize);
+        }
+    }
+
+    /**
+     * This function takes a picture of the canvas
+     * @param canvas is the canvas holding all of the committed shapes
+     * @param historySize is the number of shapes in the undo history
+     */
+    public void save(Canvas canvas, int historySize) {
+        shapesSinceCheckpoint = 0;
+        nanosSinceCheckpoint = 0;
+
+        //nothing to take a picture of until the canvas has been laid out
+        if(!enabled || (int) canvas.getWidth() < 1 || (int) canvas.getHeight() < 1) {
+            return;
+        }
+
+        discardAbove(historySize - 1);
+        CanvasMemento memento = new CanvasMemento(canvas.snapshot(parameters, null), historySize);
+        mementos.add(memento);
+        memoryUsed += memento.getMemorySize();
+
+        //throw away the oldest pictures until they fit in the budget, always keeping the newest
+        while(memoryUsed > memoryBudget && mementos.size() > 1) {
+            memoryUsed -= mementos.remove(0).getMemorySize();
+        }
+    }
+
+    /**
+     * returns the picture with the most shapes that doesn't have more than the history,
+     * and is the same size as the canvas
+     * @param historySize is the number of shapes in the undo history
+     * @param width is the width of the canvas
+     * @param height is the height of the canvas
+     * @return returns the nearest picture, or null if there isn't one
+     */
+    public CanvasMemento nearest(int historySize, double width, double height) {
+        for(int i = mementos.size() - 1; i >= 0; i--) {
+            CanvasMemento memento = mementos.get(i);
+            if(memento.getHistorySize() <= historySize && memento.fits(width, height)) {
+                return memento;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * This function throws away the pictures with more shapes than the history has,
+     * for when the shapes they hold can't be redone anymore
+     * @param historySize is the number of shapes in the undo history
+     */
+    public void discardAbove(int historySize) {
+        while(!mementos.isEmpty() && mementos.get(mementos.size() - 1).getHistorySize() > historySize) {
+            memoryUsed -= mementos.remove(mementos.size() - 1).getMemorySize();
+        }
+    }
+
+    /**
+     * This function throws away every picture
+     */
+    public void clear() {
+        mementos.clear();
+        memoryUsed = 0;
+        shapesSinceCheckpoint = 0;
+        nanosSinceCheckpoint = 0;
+    }
+
+    /**
+     * sets whether pictures are taken. Taking a picture needs the JavaFX thread, so they're turned off
+     * to draw on a canvas without one, and every repaint then replays from the first shape
+     * @param enabled is true if pictures are taken
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if(!enabled) {
+            clear();
+        }
+    }
+
+    /**
+     * sets how many bytes the pictures can use
+     * @param memoryBudget is how many bytes the pictures can use
+     */
+    public void setMemoryBudget(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * returns how many bytes the pictures are using
+     * @return returns how many bytes the pictures are using
+     */
+    public long getMemoryUsed() {
+        return memoryUsed;
+    }
+
+    @Override
+    public String toString() {
+        return "CheckpointHistory{" +
+                "interval=" + interval +
+                ", replayNanos=" + replayNanos +
+                ", memoryBudget=" + memoryBudget +
+                ", mementos=" + mementos.size() +
+                ", memoryUsed=" + memoryUsed +
+                ", enabled=" + enabled +
+                '}';
+    }
+}
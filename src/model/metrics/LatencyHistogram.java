@@ -0,0 +1,127 @@
+package model.metrics;
+
+import java.util.Arrays;
+
+/**
+ * This class counts how long something took, in nanoseconds, so the percentiles of the times
+ * can be read back. Times are counted in buckets instead of being kept, so recording one is a
+ * few instructions and never allocates, and the histogram is the same size however many are recorded.
+ *
+ * Every power of two is split into 16 buckets, so a percentile is never more than 1/16th
+ * above the real time. Times up to about 18 minutes are counted, longer ones count as the longest.
+ *
+ * A histogram isn't thread safe, it belongs to the thread that records into it
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+public class LatencyHistogram {
+
+    //each power of two is split into 2^4 buckets
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    //longest time counted is 2^40 nanoseconds
+    private static final int MAX_BITS = 40;
+    private static final long MAX_VALUE = (1L << MAX_BITS) - 1;
+
+    private long[] counts = new long[(MAX_BITS - SUB_BUCKET_BITS + 1) * SUB_BUCKETS];
+    private long count;
+    private long total;
+    private long max;
+
+    /**
+     * This function records one time
+     * @param nanos is the time in nanoseconds
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, Math.min(nanos, MAX_VALUE));
+        counts[indexOf(value)]++;
+        count++;
+        total += value;
+        if(value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * This function returns the time that a percentage of the recorded times are at or below
+     * @param percentile is the percentage, from 0 to 100
+     * @return returns the time in nanoseconds, rounded up to the top of its bucket, or 0 if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        if(count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for(int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if(seen >= target) {
+                return Math.min(highestValueOf(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * returns the number of times recorded
+     * @return returns the number of times recorded
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * returns the longest time recorded
+     * @return returns the longest time recorded in nanoseconds
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * returns the average of the times recorded
+     * @return returns the average time in nanoseconds, or 0 if nothing was recorded
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double) total / count;
+    }
+
+    /**
+     * This function forgets every time recorded
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        total = 0;
+        max = 0;
+    }
+
+    //the first 16 buckets hold one value each, then each power of two gets 16 buckets
+    private static int indexOf(long value) {
+        if(value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    private static long highestValueOf(int index) {
+        if(index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lowest = (long) (index % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyHistogram{" +
+                "count=" + count +
+                ", p50=" + getValueAtPercentile(50) +
+                ", p99=" + getValueAtPercentile(99) +
+                ", max=" + max +
+                '}';
+    }
+}
@@ -0,0 +1,118 @@
+package model.metrics;
+
+/**
+ * This class collects how long the drawing program takes to handle the things that make it
+ * feel slow: each kind of mouse event, drawing the in-progress shape each frame, repainting
+ * the canvas, building shapes, and the time between frames. Each one has its own histogram, so recording a time never allocates.
+ *
+ * The size of the last squiggle, before and after its path was simplified, is kept alongside them.
+ *
+ * A monitor isn't thread safe, it belongs to the thread handling input, which is the JavaFX
+ * thread for a DoodleView
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+public class PerformanceMonitor {
+
+    //what's being timed
+    public static final int FRAME = 0;
+    public static final int PRESS = 1;
+    public static final int DRAG = 2;
+    public static final int RELEASE = 3;
+    public static final int REPAINT = 4;
+    public static final int CONSTRUCT = 5;
+    public static final int RENDER = 6;
+
+    //names of what's being timed, in the same order
+    public static final String[] NAMES = {"frame", "press", "drag", "release", "repaint", "construct", "render"};
+
+    private LatencyHistogram[] histograms = new LatencyHistogram[NAMES.length];
+
+    //points recorded for the last squiggle, and how many were kept
+    private int strokeRawPoints;
+    private int strokeKeptPoints;
+
+    /**
+     * This is the PerformanceMonitor constructor
+     */
+    public PerformanceMonitor() {
+        for(int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * This function records how long something took
+     * @param metric is what was timed, like PRESS or REPAINT
+     * @param nanos is how long it took in nanoseconds
+     */
+    public void record(int metric, long nanos) {
+        histograms[metric].record(nanos);
+    }
+
+    /**
+     * This function records how long something took, from when it started until now
+     * @param metric is what was timed, like PRESS or REPAINT
+     * @param startNanos is the System.nanoTime() it started at
+     */
+    public void recordSince(int metric, long startNanos) {
+        histograms[metric].record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * returns the times recorded for something
+     * @param metric is what was timed, like PRESS or REPAINT
+     * @return returns the histogram of its times
+     */
+    public LatencyHistogram getHistogram(int metric) {
+        return histograms[metric];
+    }
+
+    /**
+     * This function records the size of a finished squiggle
+     * @param rawPoints is the number of points recorded while it was drawn
+     * @param keptPoints is the number of points left after its path was simplified
+     */
+    public void strokeFinished(int rawPoints, int keptPoints) {
+        strokeRawPoints = rawPoints;
+        strokeKeptPoints = keptPoints;
+    }
+
+    /**
+     * returns the number of points recorded for the last squiggle
+     * @return returns the number of points recorded for the last squiggle
+     */
+    public int getStrokeRawPoints() {
+        return strokeRawPoints;
+    }
+
+    /**
+     * returns the number of points kept for the last squiggle
+     * @return returns the number of points kept for the last squiggle
+     */
+    public int getStrokeKeptPoints() {
+        return strokeKeptPoints;
+    }
+
+    /**
+     * This function forgets every time recorded
+     */
+    public void reset() {
+        for(LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+        strokeRawPoints = 0;
+        strokeKeptPoints = 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("PerformanceMonitor{");
+        for(int i = 0; i < histograms.length; i++) {
+            builder.append(i == 0 ? "" : ", ").append(NAMES[i]).append('=').append(histograms[i]);
+        }
+        return builder.append(", strokeRawPoints=").append(strokeRawPoints)
+                .append(", strokeKeptPoints=").append(strokeKeptPoints)
+                .append('}').toString();
+    }
+}
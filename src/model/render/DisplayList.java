@@ -0,0 +1,189 @@
+package model.render;
+
+import javafx.scene.paint.Color;
+import model.command.IDrawableCommandFactory;
+import model.command.helpers.ShapeSettings;
+import model.document.IShapeSource;
+
+import java.util.Arrays;
+
+/**
+ * This class is a compiled form of an undo history, made of runs of shapes drawn one after another
+ * in the same style. A run of outlines is drawn as a single path: its style is set once, every
+ * shape adds its outline to the path, and the path is stroked once, instead of every shape
+ * setting its style and stroking on its own.
+ *
+ * Only unfilled shapes with a solid stroke color are put in runs. Strokes of one solid color
+ * look the same drawn together or one at a time wherever they overlap, so the drawing doesn't
+ * change. A fill has to go under its own shape's stroke but over the shapes before it, and a
+ * see-through stroke darkens where it overlaps itself, so those shapes are always drawn one at a time.
+ *
+ * The list follows the history as shapes are pushed and popped, only the last run ever changes.
+ * It holds no shapes, only where each run starts and its style, so it's drawn from the history itself
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+public class DisplayList {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    //history position each run starts at, and the style of its shapes, or null for a shape drawn on its own
+    private int[] runStarts = new int[INITIAL_CAPACITY];
+    private ShapeSettings[] runStyles = new ShapeSettings[INITIAL_CAPACITY];
+    private int runCount;
+
+    //number of shapes in the history
+    private int size;
+
+    /**
+     * This function adds a shape to the end of the list, joining the last run if it's in the same style
+     * @param shape is the shape pushed onto the history
+     */
+    public void push(IDrawableCommandFactory shape) {
+        ShapeSettings style = shape.getShapeSettings();
+        boolean batchable = isBatchable(style);
+        if(!batchable || runCount == 0 || !isSameStyle(runStyles[runCount - 1], style)) {
+            if(runCount == runStarts.length) {
+                runStarts = Arrays.copyOf(runStarts, runCount * 2);
+                runStyles = Arrays.copyOf(runStyles, runCount * 2);
+            }
+            runStarts[runCount] = size;
+            runStyles[runCount] = batchable ? style : null;
+            runCount++;
+        }
+        size++;
+    }
+
+    /**
+     * This function removes the last shape from the list, for when it's popped off the history
+     */
+    public void pop() {
+        if(size == 0) {
+            return;
+        }
+        size--;
+        if(runStarts[runCount - 1] == size) {
+            runStyles[--runCount] = null;
+        }
+    }
+
+    /**
+     * This function empties the list, for when the history is cleared
+     */
+    public void clear() {
+        Arrays.fill(runStyles, 0, runCount, null);
+        runCount = 0;
+        size = 0;
+    }
+
+    /**
+     * returns the number of shapes in the list
+     * @return returns the number of shapes in the list
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * returns the number of runs the shapes are drawn in, each shape drawn on its own is a run
+     * @return returns the number of runs
+     */
+    public int getRunCount() {
+        return runCount;
+    }
+
+    /**
+     * This function draws every shape in the history, in order
+     * @param shapes is the history the list was compiled from
+     * @param renderer is where the shapes are drawn
+     */
+    public void draw(IShapeSource shapes, IShapeRenderer renderer) {
+        for(int run = 0; run < runCount; run++) {
+            int end = run + 1 < runCount ? runStarts[run + 1] : size;
+            if(runStyles[run] == null || end - runStarts[run] == 1) {
+                for(int position = runStarts[run]; position < end; position++) {
+                    shapes.get(position).draw(renderer);
+                }
+            } else {
+                beginRun(runStyles[run], renderer);
+                for(int position = runStarts[run]; position < end; position++) {
+                    shapes.get(position).appendPath(renderer);
+                }
+                renderer.stroke();
+            }
+        }
+    }
+
+    /**
+     * This function draws some of the shapes in the history in order, like the ones over an area
+     * being repainted. Shapes in the same run are drawn together even when there are others between
+     * them, since those are in the same style and would be drawn under the same stroke anyway
+     * @param shapes is the history the list was compiled from
+     * @param positions is the history positions of the shapes to draw, from first to last
+     * @param start is the history position of the first shape that can be drawn, the ones before it are left out
+     * @param renderer is where the shapes are drawn
+     */
+    public void draw(IShapeSource shapes, int[] positions, int start, IShapeRenderer renderer) {
+        int first = 0;
+        while(first < positions.length && positions[first] < start) {
+            first++;
+        }
+
+        int i = first;
+        while(i < positions.length) {
+            int run = findRun(positions[i]);
+            int end = run + 1 < runCount ? runStarts[run + 1] : size;
+
+            //every position left in the same run
+            int last = i + 1;
+            while(last < positions.length && positions[last] < end) {
+                last++;
+            }
+
+            if(runStyles[run] == null || last - i == 1) {
+                for(int j = i; j < last; j++) {
+                    shapes.get(positions[j]).draw(renderer);
+                }
+            } else {
+                beginRun(runStyles[run], renderer);
+                for(int j = i; j < last; j++) {
+                    shapes.get(positions[j]).appendPath(renderer);
+                }
+                renderer.stroke();
+            }
+            i = last;
+        }
+    }
+
+    //the run holding a history position, the last one starting at or before it
+    private int findRun(int position) {
+        int found = Arrays.binarySearch(runStarts, 0, runCount, position);
+        return found >= 0 ? found : -found - 2;
+    }
+
+    private static void beginRun(ShapeSettings style, IShapeRenderer renderer) {
+        renderer.setStroke(style.getStrokeColor());
+        renderer.setLineWidth(style.getStrokeSize());
+        renderer.beginPath();
+    }
+
+    //only outlines in a solid color can be stroked together without changing how they look
+    private static boolean isBatchable(ShapeSettings style) {
+        return style != null && !style.isFilled()
+                && style.getStrokeColor() instanceof Color
+                && ((Color) style.getStrokeColor()).getOpacity() == 1;
+    }
+
+    //interned styles are usually the same object
+    private static boolean isSameStyle(ShapeSettings runStyle, ShapeSettings style) {
+        return runStyle != null && (runStyle == style || runStyle.equals(style));
+    }
+
+    @Override
+    public String toString() {
+        return "DisplayList{" +
+                "size=" + size +
+                ", runCount=" + runCount +
+                '}';
+    }
+}
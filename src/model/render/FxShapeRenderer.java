@@ -0,0 +1,156 @@
+package model.render;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Paint;
+
+import java.nio.FloatBuffer;
+
+/**
+ * This class draws shapes on a JavaFX canvas, passing every call through to the canvas's graphics context
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+public class FxShapeRenderer implements IShapeRenderer {
+
+    private GraphicsContext context;
+
+    //the graphics context only takes double arrays, so float points are copied here first
+    private double[] pointX = new double[64];
+    private double[] pointY = new double[64];
+
+    /**
+     * This is the FxShapeRenderer constructor
+     * @param context is the graphics context of the canvas to be drawn on
+     */
+    public FxShapeRenderer(GraphicsContext context) {
+        this.context = context;
+    }
+
+    /**
+     * returns the canvas's graphics context
+     * @return returns the canvas's graphics context
+     */
+    public GraphicsContext getContext() {
+        return context;
+    }
+
+    @Override
+    public void setStroke(Paint paint) {
+        context.setStroke(paint);
+    }
+
+    @Override
+    public void setLineWidth(double width) {
+        context.setLineWidth(width);
+    }
+
+    @Override
+    public void setFill(Paint paint) {
+        context.setFill(paint);
+    }
+
+    @Override
+    public void strokeLine(double x1, double y1, double x2, double y2) {
+        context.strokeLine(x1, y1, x2, y2);
+    }
+
+    @Override
+    public void strokeRect(double x, double y, double width, double height) {
+        context.strokeRect(x, y, width, height);
+    }
+
+    @Override
+    public void fillRect(double x, double y, double width, double height) {
+        context.fillRect(x, y, width, height);
+    }
+
+    @Override
+    public void strokeOval(double x, double y, double width, double height) {
+        context.strokeOval(x, y, width, height);
+    }
+
+    @Override
+    public void fillOval(double x, double y, double width, double height) {
+        context.fillOval(x, y, width, height);
+    }
+
+    @Override
+    public void strokePolyline(double[] xPoints, double[] yPoints, int numPoints) {
+        context.strokePolyline(xPoints, yPoints, numPoints);
+    }
+
+    @Override
+    public void fillPolygon(double[] xPoints, double[] yPoints, int numPoints) {
+        context.fillPolygon(xPoints, yPoints, numPoints);
+    }
+
+    @Override
+    public void strokePolyline(FloatBuffer xPoints, FloatBuffer yPoints, int offset, int numPoints) {
+        copyPoints(xPoints, yPoints, offset, numPoints);
+        context.strokePolyline(pointX, pointY, numPoints);
+    }
+
+    @Override
+    public void fillPolygon(FloatBuffer xPoints, FloatBuffer yPoints, int offset, int numPoints) {
+        copyPoints(xPoints, yPoints, offset, numPoints);
+        context.fillPolygon(pointX, pointY, numPoints);
+    }
+
+    @Override
+    public void beginPath() {
+        context.beginPath();
+    }
+
+    @Override
+    public void moveTo(double x, double y) {
+        context.moveTo(x, y);
+    }
+
+    @Override
+    public void lineTo(double x, double y) {
+        context.lineTo(x, y);
+    }
+
+    @Override
+    public void rect(double x, double y, double width, double height) {
+        context.rect(x, y, width, height);
+    }
+
+    @Override
+    public void oval(double x, double y, double width, double height) {
+        //a full turn of an arc, starting from its rightmost point so no line joins it to the last piece
+        double radiusX = width / 2;
+        double radiusY = height / 2;
+        context.moveTo(x + width, y + radiusY);
+        context.arc(x + radiusX, y + radiusY, radiusX, radiusY, 0, 360);
+        context.closePath();
+    }
+
+    @Override
+    public void stroke() {
+        context.stroke();
+    }
+
+    @Override
+    public void clearRect(double x, double y, double width, double height) {
+        context.clearRect(x, y, width, height);
+    }
+
+    private void copyPoints(FloatBuffer xPoints, FloatBuffer yPoints, int offset, int numPoints) {
+        if(pointX.length < numPoints) {
+            pointX = new double[Math.max(numPoints, pointX.length * 2)];
+            pointY = new double[pointX.length];
+        }
+        for(int i = 0; i < numPoints; i++) {
+            pointX[i] = xPoints.get(offset + i);
+            pointY[i] = yPoints.get(offset + i);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FxShapeRenderer{" +
+                "context=" + context +
+                '}';
+    }
+}
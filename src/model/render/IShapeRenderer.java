@@ -0,0 +1,164 @@
+package model.render;
+
+import javafx.scene.paint.Paint;
+
+import java.nio.FloatBuffer;
+
+/**
+ * This class is a interface for anything drawable shapes can be drawn on,
+ * like a JavaFX canvas or a plain pixel buffer. It has the drawing calls the shapes
+ * need, named after the matching calls on a canvas graphics context
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+public interface IShapeRenderer {
+
+    /**
+     * This method sets the color strokes are drawn with
+     * @param paint is the stroke color
+     */
+    void setStroke(Paint paint);
+
+    /**
+     * This method sets the width strokes are drawn with
+     * @param width is the stroke width
+     */
+    void setLineWidth(double width);
+
+    /**
+     * This method sets the color fills are drawn with
+     * @param paint is the fill color
+     */
+    void setFill(Paint paint);
+
+    /**
+     * This method strokes a line
+     * @param x1 is the starting x coordinate
+     * @param y1 is the starting y coordinate
+     * @param x2 is the ending x coordinate
+     * @param y2 is the ending y coordinate
+     */
+    void strokeLine(double x1, double y1, double x2, double y2);
+
+    /**
+     * This method strokes the outline of a rectangle
+     * @param x is the x coordinate of the top left corner
+     * @param y is the y coordinate of the top left corner
+     * @param width is the width of the rectangle
+     * @param height is the height of the rectangle
+     */
+    void strokeRect(double x, double y, double width, double height);
+
+    /**
+     * This method fills a rectangle
+     * @param x is the x coordinate of the top left corner
+     * @param y is the y coordinate of the top left corner
+     * @param width is the width of the rectangle
+     * @param height is the height of the rectangle
+     */
+    void fillRect(double x, double y, double width, double height);
+
+    /**
+     * This method strokes the outline of an oval
+     * @param x is the x coordinate of the top left corner of the box around the oval
+     * @param y is the y coordinate of the top left corner of the box around the oval
+     * @param width is the width of the oval
+     * @param height is the height of the oval
+     */
+    void strokeOval(double x, double y, double width, double height);
+
+    /**
+     * This method fills an oval
+     * @param x is the x coordinate of the top left corner of the box around the oval
+     * @param y is the y coordinate of the top left corner of the box around the oval
+     * @param width is the width of the oval
+     * @param height is the height of the oval
+     */
+    void fillOval(double x, double y, double width, double height);
+
+    /**
+     * This method strokes a path through a list of points
+     * @param xPoints is the array of x coordinates
+     * @param yPoints is the array of y coordinates
+     * @param numPoints is the number of points to use from the start of the arrays
+     */
+    void strokePolyline(double[] xPoints, double[] yPoints, int numPoints);
+
+    /**
+     * This method fills the polygon made by a list of points
+     * @param xPoints is the array of x coordinates
+     * @param yPoints is the array of y coordinates
+     * @param numPoints is the number of points to use from the start of the arrays
+     */
+    void fillPolygon(double[] xPoints, double[] yPoints, int numPoints);
+
+    /**
+     * This method strokes a path through a run of points in float buffers, for shapes whose points
+     * are packed together with other shapes' points, on or off the heap
+     * @param xPoints is the buffer of x coordinates
+     * @param yPoints is the buffer of y coordinates
+     * @param offset is the index of the first point in the buffers
+     * @param numPoints is the number of points to use from the offset
+     */
+    void strokePolyline(FloatBuffer xPoints, FloatBuffer yPoints, int offset, int numPoints);
+
+    /**
+     * This method fills the polygon made by a run of points in float buffers
+     * @param xPoints is the buffer of x coordinates
+     * @param yPoints is the buffer of y coordinates
+     * @param offset is the index of the first point in the buffers
+     * @param numPoints is the number of points to use from the offset
+     */
+    void fillPolygon(FloatBuffer xPoints, FloatBuffer yPoints, int offset, int numPoints);
+
+    /**
+     * This method starts a new path, throwing away the current one
+     */
+    void beginPath();
+
+    /**
+     * This method starts a new piece of the current path at a point
+     * @param x is the x coordinate
+     * @param y is the y coordinate
+     */
+    void moveTo(double x, double y);
+
+    /**
+     * This method adds a straight line to the current path
+     * @param x is the x coordinate the line ends at
+     * @param y is the y coordinate the line ends at
+     */
+    void lineTo(double x, double y);
+
+    /**
+     * This method adds a rectangle to the current path as a piece of its own, stroked the same as strokeRect
+     * @param x is the x coordinate of the top left corner
+     * @param y is the y coordinate of the top left corner
+     * @param width is the width of the rectangle
+     * @param height is the height of the rectangle
+     */
+    void rect(double x, double y, double width, double height);
+
+    /**
+     * This method adds an oval to the current path as a piece of its own, stroked the same as strokeOval
+     * @param x is the x coordinate of the top left corner of the box around the oval
+     * @param y is the y coordinate of the top left corner of the box around the oval
+     * @param width is the width of the oval
+     * @param height is the height of the oval
+     */
+    void oval(double x, double y, double width, double height);
+
+    /**
+     * This method strokes the current path
+     */
+    void stroke();
+
+    /**
+     * This method clears a rectangle, leaving it see-through
+     * @param x is the x coordinate of the top left corner
+     * @param y is the y coordinate of the top left corner
+     * @param width is the width of the rectangle
+     * @param height is the height of the rectangle
+     */
+    void clearRect(double x, double y, double width, double height);
+}
@@ -0,0 +1,272 @@
+package model.render;
+
+import javafx.scene.paint.Paint;
+
+import java.nio.FloatBuffer;
+
+/**
+ * This class wraps a renderer and thins out squiggle paths before they reach it, for drawing
+ * a zoomed out view. Once the drawing is scaled down, many squiggle points land on the same
+ * canvas pixel, so points closer than a tolerance to the last point kept are left out.
+ * The first and last points of every path are always kept, so squiggles still join up.
+ *
+ * Lines, rectangles and ovals are passed on as they are
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+public class LevelOfDetailRenderer implements IShapeRenderer {
+
+    private IShapeRenderer renderer;
+
+    //points closer than this to the last point kept are left out, squared to compare with squared distances
+    private double toleranceSquared;
+
+    //reused to hold the points kept from a polyline or polygon
+    private double[] keptX = new double[64];
+    private double[] keptY = new double[64];
+
+    //last point passed on in the current path, and the point left out after it if there is one
+    private double lastX;
+    private double lastY;
+    private boolean hasSkipped;
+    private double skippedX;
+    private double skippedY;
+
+    //number of points passed on and left out
+    private long pointsKept;
+    private long pointsSkipped;
+
+    /**
+     * This is the LevelOfDetailRenderer constructor
+     * @param renderer is the renderer to draw with
+     * @param tolerance is how close a point can be to the last point kept before it's left out,
+     *                  in the coordinates the shapes are drawn in
+     */
+    public LevelOfDetailRenderer(IShapeRenderer renderer, double tolerance) {
+        this.renderer = renderer;
+        this.toleranceSquared = tolerance * tolerance;
+    }
+
+    /**
+     * returns the renderer being drawn with
+     * @return returns the wrapped renderer
+     */
+    public IShapeRenderer getRenderer() {
+        return renderer;
+    }
+
+    /**
+     * returns the number of squiggle points passed on to the wrapped renderer
+     * @return returns the number of points passed on
+     */
+    public long getPointsKept() {
+        return pointsKept;
+    }
+
+    /**
+     * returns the number of squiggle points left out
+     * @return returns the number of points left out
+     */
+    public long getPointsSkipped() {
+        return pointsSkipped;
+    }
+
+    @Override
+    public void setStroke(Paint paint) {
+        renderer.setStroke(paint);
+    }
+
+    @Override
+    public void setLineWidth(double width) {
+        renderer.setLineWidth(width);
+    }
+
+    @Override
+    public void setFill(Paint paint) {
+        renderer.setFill(paint);
+    }
+
+    @Override
+    public void strokeLine(double x1, double y1, double x2, double y2) {
+        renderer.strokeLine(x1, y1, x2, y2);
+    }
+
+    @Override
+    public void strokeRect(double x, double y, double width, double height) {
+        renderer.strokeRect(x, y, width, height);
+    }
+
+    @Override
+    public void fillRect(double x, double y, double width, double height) {
+        renderer.fillRect(x, y, width, height);
+    }
+
+    @Override
+    public void strokeOval(double x, double y, double width, double height) {
+        renderer.strokeOval(x, y, width, height);
+    }
+
+    @Override
+    public void fillOval(double x, double y, double width, double height) {
+        renderer.fillOval(x, y, width, height);
+    }
+
+    @Override
+    public void strokePolyline(double[] xPoints, double[] yPoints, int numPoints) {
+        int kept = thin(xPoints, yPoints, numPoints);
+        renderer.strokePolyline(keptX, keptY, kept);
+    }
+
+    @Override
+    public void fillPolygon(double[] xPoints, double[] yPoints, int numPoints) {
+        int kept = thin(xPoints, yPoints, numPoints);
+        renderer.fillPolygon(keptX, keptY, kept);
+    }
+
+    @Override
+    public void strokePolyline(FloatBuffer xPoints, FloatBuffer yPoints, int offset, int numPoints) {
+        int kept = thin(xPoints, yPoints, offset, numPoints);
+        renderer.strokePolyline(keptX, keptY, kept);
+    }
+
+    @Override
+    public void fillPolygon(FloatBuffer xPoints, FloatBuffer yPoints, int offset, int numPoints) {
+        int kept = thin(xPoints, yPoints, offset, numPoints);
+        renderer.fillPolygon(keptX, keptY, kept);
+    }
+
+    @Override
+    public void beginPath() {
+        hasSkipped = false;
+        renderer.beginPath();
+    }
+
+    @Override
+    public void moveTo(double x, double y) {
+        flushSkipped();
+        lastX = x;
+        lastY = y;
+        pointsKept++;
+        renderer.moveTo(x, y);
+    }
+
+    @Override
+    public void lineTo(double x, double y) {
+        if(isClose(lastX, lastY, x, y)) {
+            //held back in case it's the end of the squiggle
+            hasSkipped = true;
+            skippedX = x;
+            skippedY = y;
+            pointsSkipped++;
+            return;
+        }
+        hasSkipped = false;
+        lastX = x;
+        lastY = y;
+        pointsKept++;
+        renderer.lineTo(x, y);
+    }
+
+    @Override
+    public void rect(double x, double y, double width, double height) {
+        flushSkipped();
+        renderer.rect(x, y, width, height);
+    }
+
+    @Override
+    public void oval(double x, double y, double width, double height) {
+        flushSkipped();
+        renderer.oval(x, y, width, height);
+    }
+
+    @Override
+    public void stroke() {
+        flushSkipped();
+        renderer.stroke();
+    }
+
+    @Override
+    public void clearRect(double x, double y, double width, double height) {
+        renderer.clearRect(x, y, width, height);
+    }
+
+    //the last point left out of a path piece ends it, so it's drawn once the piece is over
+    private void flushSkipped() {
+        if(hasSkipped) {
+            hasSkipped = false;
+            lastX = skippedX;
+            lastY = skippedY;
+            pointsSkipped--;
+            pointsKept++;
+            renderer.lineTo(skippedX, skippedY);
+        }
+    }
+
+    //copies the points worth drawing into the kept arrays, and returns how many there are
+    private int thin(double[] xPoints, double[] yPoints, int numPoints) {
+        ensureKeptCapacity(numPoints);
+        int kept = 0;
+        for(int i = 0; i < numPoints; i++) {
+            kept = keep(xPoints[i], yPoints[i], kept, i == numPoints - 1);
+        }
+        countThinned(numPoints, kept);
+        return kept;
+    }
+
+    private int thin(FloatBuffer xPoints, FloatBuffer yPoints, int offset, int numPoints) {
+        ensureKeptCapacity(numPoints);
+        int kept = 0;
+        for(int i = 0; i < numPoints; i++) {
+            kept = keep(xPoints.get(offset + i), yPoints.get(offset + i), kept, i == numPoints - 1);
+        }
+        countThinned(numPoints, kept);
+        return kept;
+    }
+
+    private int keep(double x, double y, int kept, boolean isLast) {
+        if(kept == 0 || !isClose(keptX[kept - 1], keptY[kept - 1], x, y)) {
+            keptX[kept] = x;
+            keptY[kept] = y;
+            return kept + 1;
+        }
+        if(isLast && kept > 1) {
+            //the end of the squiggle replaces the point before it, so the squiggle still ends in the right place
+            keptX[kept - 1] = x;
+            keptY[kept - 1] = y;
+        } else if(isLast) {
+            keptX[kept] = x;
+            keptY[kept] = y;
+            return kept + 1;
+        }
+        return kept;
+    }
+
+    private void countThinned(int numPoints, int kept) {
+        pointsKept += kept;
+        pointsSkipped += numPoints - kept;
+    }
+
+    private void ensureKeptCapacity(int numPoints) {
+        if(keptX.length < numPoints) {
+            int capacity = Math.max(numPoints, keptX.length * 2);
+            keptX = new double[capacity];
+            keptY = new double[capacity];
+        }
+    }
+
+    private boolean isClose(double x1, double y1, double x2, double y2) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        return dx * dx + dy * dy < toleranceSquared;
+    }
+
+    @Override
+    public String toString() {
+        return "LevelOfDetailRenderer{" +
+                "renderer=" + renderer +
+                ", tolerance=" + Math.sqrt(toleranceSquared) +
+                ", pointsKept=" + pointsKept +
+                ", pointsSkipped=" + pointsSkipped +
+                '}';
+    }
+}
@@ -0,0 +1,622 @@
+package model.render;
+
+import javafx.scene.paint.Paint;
+import model.io.ShapeCodec;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ * This class draws shapes into a plain array of ARGB pixels, without needing a display or the
+ * JavaFX toolkit, so drawings can be rendered on a server, in tests, or on any thread.
+ *
+ * Every shape is turned into outlines and filled a row of pixels at a time with the non-zero
+ * winding rule, so overlapping parts of one stroke are only blended once. Pixels are covered when
+ * their centre is inside the shape and there is no antialiasing.
+ *
+ * The ends of lines and paths are square, reaching half the stroke size past the end, like the
+ * JavaFX canvas's default line cap. The joins of polylines are drawn round, where the canvas
+ * miters them, so a sharp corner doesn't reach as far out as it does on screen
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+public class RasterShapeRenderer implements IShapeRenderer {
+
+    //strokes thinner than a pixel would fall between pixel centres
+    private static final double MIN_STROKE = 1;
+
+    //number of straight pieces used for a full circle or oval
+    private static final int MIN_CURVE_SEGMENTS = 12;
+    private static final int MAX_CURVE_SEGMENTS = 720;
+
+    private int[] pixels;
+    private int width;
+    private int height;
+
+    //shapes are scaled and then moved by these before being drawn
+    private double scale = 1;
+    private double translateX;
+    private double translateY;
+
+    //only pixels in this area are drawn to
+    private int clipLeft;
+    private int clipTop;
+    private int clipRight;
+    private int clipBottom;
+
+    //current settings
+    private int strokeColor = 0xff000000;
+    private int fillColor = 0xff000000;
+    private double lineWidth = 1;
+
+    //outline edges waiting to be filled, each from (x0, y0) to (x1, y1) going down the canvas
+    private double[] edgeX0 = new double[64];
+    private double[] edgeY0 = new double[64];
+    private double[] edgeX1 = new double[64];
+    private double[] edgeY1 = new double[64];
+    private int[] edgeWinding = new int[64];
+    private int edgeCount;
+
+    //kinds of path piece, a rectangle or oval piece holds its corner and then its width and height
+    private static final byte PIECE_LINES = 0;
+    private static final byte PIECE_RECT = 1;
+    private static final byte PIECE_OVAL = 2;
+
+    //current path, as pieces of points, each piece starting at a pathStarts index
+    private double[] pathX = new double[64];
+    private double[] pathY = new double[64];
+    private int pathSize;
+    private int[] pathStarts = new int[8];
+    private byte[] pathKinds = new byte[8];
+    private int pathPieces;
+
+    //work arrays for filling, kept between calls
+    private int[] edgeOrder = new int[64];
+    private int[] rowEdges = new int[64];
+    private int[] active = new int[64];
+    private double[] crossingX = new double[64];
+    private int[] crossingWinding = new int[64];
+
+    /**
+     * This is the RasterShapeRenderer constructor, drawing into a new see-through image
+     * @param width is the width of the image in pixels
+     * @param height is the height of the image in pixels
+     */
+    public RasterShapeRenderer(int width, int height) {
+        this(new int[width * height], width, height);
+    }
+
+    /**
+     * This is the RasterShapeRenderer constructor
+     * @param pixels is the image to draw into, one ARGB int per pixel, row by row
+     * @param width is the width of the image in pixels
+     * @param height is the height of the image in pixels
+     */
+    public RasterShapeRenderer(int[] pixels, int width, int height) {
+        this.pixels = pixels;
+        this.width = width;
+        this.height = height;
+        this.clipRight = width;
+        this.clipBottom = height;
+    }
+
+    /**
+     * sets how shapes are placed on the image, every coordinate is multiplied by the scale
+     * and then moved by the translation, so a shape can be drawn bigger than the canvas it was drawn on
+     * @param scale is how many pixels one unit of the canvas takes up
+     * @param translateX is how far right shapes are moved in pixels, after scaling
+     * @param translateY is how far down shapes are moved in pixels, after scaling
+     */
+    public void setTransform(double scale, double translateX, double translateY) {
+        this.scale = scale;
+        this.translateX = translateX;
+        this.translateY = translateY;
+    }
+
+    /**
+     * sets the area of the image that can be drawn to, anything outside it is left as it was.
+     * The area is cut down to fit the image
+     * @param x is the left edge of the area in pixels
+     * @param y is the top edge of the area in pixels
+     * @param width is the width of the area in pixels
+     * @param height is the height of the area in pixels
+     */
+    public void setClip(int x, int y, int width, int height) {
+        clipLeft = Math.max(x, 0);
+        clipTop = Math.max(y, 0);
+        clipRight = Math.min(x + width, this.width);
+        clipBottom = Math.min(y + height, this.height);
+    }
+
+    /**
+     * returns the image being drawn into, one ARGB int per pixel, row by row
+     * @return returns the image being drawn into
+     */
+    public int[] getPixels() {
+        return pixels;
+    }
+
+    /**
+     * returns the width of the image in pixels
+     * @return returns the width of the image in pixels
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * returns the height of the image in pixels
+     * @return returns the height of the image in pixels
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public void setStroke(Paint paint) {
+        strokeColor = ShapeCodec.toArgb(paint);
+    }
+
+    @Override
+    public void setLineWidth(double width) {
+        lineWidth = width;
+    }
+
+    @Override
+    public void setFill(Paint paint) {
+        fillColor = ShapeCodec.toArgb(paint);
+    }
+
+    @Override
+    public void strokeLine(double x1, double y1, double x2, double y2) {
+        addSegment(x1, y1, x2, y2, getHalfStroke(), true, true);
+        fillEdges(strokeColor);
+    }
+
+    @Override
+    public void strokeRect(double x, double y, double width, double height) {
+        addRectangleStroke(x, y, width, height);
+        fillEdges(strokeColor);
+    }
+
+    @Override
+    public void fillRect(double x, double y, double width, double height) {
+        addRectangle(x, y, width, height, false);
+        fillEdges(fillColor);
+    }
+
+    @Override
+    public void strokeOval(double x, double y, double width, double height) {
+        addOvalStroke(x, y, width, height);
+        fillEdges(strokeColor);
+    }
+
+    @Override
+    public void fillOval(double x, double y, double width, double height) {
+        addOval(x + width / 2, y + height / 2, width / 2, height / 2, false);
+        fillEdges(fillColor);
+    }
+
+    @Override
+    public void strokePolyline(double[] xPoints, double[] yPoints, int numPoints) {
+        addPolyline(xPoints, yPoints, 0, numPoints);
+        fillEdges(strokeColor);
+    }
+
+    @Override
+    public void fillPolygon(double[] xPoints, double[] yPoints, int numPoints) {
+        for(int i = 0; i < numPoints; i++) {
+            int next = (i + 1) % numPoints;
+            addEdge(xPoints[i], yPoints[i], xPoints[next], yPoints[next]);
+        }
+        fillEdges(fillColor);
+    }
+
+    @Override
+    public void strokePolyline(FloatBuffer xPoints, FloatBuffer yPoints, int offset, int numPoints) {
+        double half = getHalfStroke();
+        for(int i = offset + 1; i < offset + numPoints; i++) {
+            addSegment(xPoints.get(i - 1), yPoints.get(i - 1), xPoints.get(i), yPoints.get(i), half,
+                    i == offset + 1, i == offset + numPoints - 1);
+            if(i < offset + numPoints - 1) {
+                addOval(xPoints.get(i), yPoints.get(i), half, half, false);
+            }
+        }
+        fillEdges(strokeColor);
+    }
+
+    @Override
+    public void fillPolygon(FloatBuffer xPoints, FloatBuffer yPoints, int offset, int numPoints) {
+        for(int i = 0; i < numPoints; i++) {
+            int next = offset + (i + 1) % numPoints;
+            addEdge(xPoints.get(offset + i), yPoints.get(offset + i), xPoints.get(next), yPoints.get(next));
+        }
+        fillEdges(fillColor);
+    }
+
+    @Override
+    public void beginPath() {
+        pathSize = 0;
+        pathPieces = 0;
+    }
+
+    @Override
+    public void moveTo(double x, double y) {
+        startPiece(PIECE_LINES);
+        addPathPoint(x, y);
+    }
+
+    @Override
+    public void lineTo(double x, double y) {
+        if(pathPieces == 0 || pathKinds[pathPieces - 1] != PIECE_LINES) {
+            moveTo(x, y);
+        } else {
+            addPathPoint(x, y);
+        }
+    }
+
+    @Override
+    public void rect(double x, double y, double width, double height) {
+        startPiece(PIECE_RECT);
+        addPathPoint(x, y);
+        addPathPoint(width, height);
+    }
+
+    @Override
+    public void oval(double x, double y, double width, double height) {
+        startPiece(PIECE_OVAL);
+        addPathPoint(x, y);
+        addPathPoint(width, height);
+    }
+
+    @Override
+    public void stroke() {
+        //every piece is outlined the way it would be stroked on its own, then they're all filled at once
+        for(int piece = 0; piece < pathPieces; piece++) {
+            int start = pathStarts[piece];
+            switch (pathKinds[piece]) {
+                case PIECE_RECT :
+                    addRectangleStroke(pathX[start], pathY[start], pathX[start + 1], pathY[start + 1]);
+                    break;
+                case PIECE_OVAL :
+                    addOvalStroke(pathX[start], pathY[start], pathX[start + 1], pathY[start + 1]);
+                    break;
+                default :
+                    int end = piece + 1 < pathPieces ? pathStarts[piece + 1] : pathSize;
+                    addPolyline(pathX, pathY, start, end - start);
+                    break;
+            }
+        }
+        fillEdges(strokeColor);
+    }
+
+    @Override
+    public void clearRect(double x, double y, double width, double height) {
+        int left = Math.max(toPixel(x * scale + translateX), clipLeft);
+        int right = Math.min(toPixel((x + width) * scale + translateX), clipRight);
+        int top = Math.max(toPixel(y * scale + translateY), clipTop);
+        int bottom = Math.min(toPixel((y + height) * scale + translateY), clipBottom);
+        for(int row = top; row < bottom; row++) {
+            if(left < right) {
+                Arrays.fill(pixels, row * this.width + left, row * this.width + right, 0);
+            }
+        }
+    }
+
+    //half the stroke in canvas units, at least half a pixel once scaled
+    private double getHalfStroke() {
+        return Math.max(lineWidth, MIN_STROKE / scale) / 2;
+    }
+
+    private void startPiece(byte kind) {
+        if(pathPieces == pathStarts.length) {
+            pathStarts = Arrays.copyOf(pathStarts, pathPieces * 2);
+            pathKinds = Arrays.copyOf(pathKinds, pathPieces * 2);
+        }
+        pathKinds[pathPieces] = kind;
+        pathStarts[pathPieces++] = pathSize;
+    }
+
+    private void addPathPoint(double x, double y) {
+        if(pathSize == pathX.length) {
+            pathX = Arrays.copyOf(pathX, pathSize * 2);
+            pathY = Arrays.copyOf(pathY, pathSize * 2);
+        }
+        pathX[pathSize] = x;
+        pathY[pathSize] = y;
+        pathSize++;
+    }
+
+    //adds the outline of a stroked rectangle, a ring the width of the stroke centred on its edges
+    private void addRectangleStroke(double x, double y, double width, double height) {
+        double half = getHalfStroke();
+        addRectangle(x - half, y - half, width + half * 2, height + half * 2, false);
+
+        //cut out the inside, unless the stroke covers it
+        if(width > half * 2 && height > half * 2) {
+            addRectangle(x + half, y + half, width - half * 2, height - half * 2, true);
+        }
+    }
+
+    //adds the outline of a stroked oval, a ring the width of the stroke centred on its edge
+    private void addOvalStroke(double x, double y, double width, double height) {
+        double half = getHalfStroke();
+        double centerX = x + width / 2;
+        double centerY = y + height / 2;
+        addOval(centerX, centerY, width / 2 + half, height / 2 + half, false);
+
+        //cut out the inside, unless the stroke covers it
+        if(width / 2 > half && height / 2 > half) {
+            addOval(centerX, centerY, width / 2 - half, height / 2 - half, true);
+        }
+    }
+
+    //adds the outline of a stroked path, a box around every segment and a circle at every joint,
+    //with square caps at the two ends of the path
+    private void addPolyline(double[] xPoints, double[] yPoints, int start, int numPoints) {
+        double half = getHalfStroke();
+        for(int i = start + 1; i < start + numPoints; i++) {
+            addSegment(xPoints[i - 1], yPoints[i - 1], xPoints[i], yPoints[i], half,
+                    i == start + 1, i == start + numPoints - 1);
+            if(i < start + numPoints - 1) {
+                addOval(xPoints[i], yPoints[i], half, half, false);
+            }
+        }
+    }
+
+    //adds the outline of a stroked line, its ends either flat or square, reaching half the stroke past the end
+    private void addSegment(double x1, double y1, double x2, double y2, double half,
+                            boolean capStart, boolean capEnd) {
+        double length = Math.hypot(x2 - x1, y2 - y1);
+        if(length == 0) {
+            return;
+        }
+
+        //half a stroke along the line, and to either side of it
+        double alongX = (x2 - x1) / length * half;
+        double alongY = (y2 - y1) / length * half;
+        double offsetX = alongY;
+        double offsetY = -alongX;
+
+        //square caps move the ends out along the line
+        if(capStart) {
+            x1 -= alongX;
+            y1 -= alongY;
+        }
+        if(capEnd) {
+            x2 += alongX;
+            y2 += alongY;
+        }
+
+        //every box winds clockwise on the image, the same way as rectangles and ovals,
+        //so boxes and joints add up instead of cancelling where they overlap
+        addEdge(x1 + offsetX, y1 + offsetY, x2 + offsetX, y2 + offsetY);
+        addEdge(x2 + offsetX, y2 + offsetY, x2 - offsetX, y2 - offsetY);
+        addEdge(x2 - offsetX, y2 - offsetY, x1 - offsetX, y1 - offsetY);
+        addEdge(x1 - offsetX, y1 - offsetY, x1 + offsetX, y1 + offsetY);
+    }
+
+    //adds the outline of a rectangle, winding backwards to cut a hole
+    private void addRectangle(double x, double y, double width, double height, boolean hole) {
+        double right = x + width;
+        double bottom = y + height;
+        if(hole) {
+            addEdge(x, y, x, bottom);
+            addEdge(x, bottom, right, bottom);
+            addEdge(right, bottom, right, y);
+            addEdge(right, y, x, y);
+        } else {
+            addEdge(x, y, right, y);
+            addEdge(right, y, right, bottom);
+            addEdge(right, bottom, x, bottom);
+            addEdge(x, bottom, x, y);
+        }
+    }
+
+    //adds the outline of an oval made of straight pieces, winding backwards to cut a hole
+    private void addOval(double centerX, double centerY, double radiusX, double radiusY, boolean hole) {
+        int segments = (int) Math.max(MIN_CURVE_SEGMENTS, Math.min(MAX_CURVE_SEGMENTS, (radiusX + radiusY) * scale));
+        double step = (hole ? -2 : 2) * Math.PI / segments;
+        double lastX = centerX + radiusX;
+        double lastY = centerY;
+        for(int i = 1; i <= segments; i++) {
+            double x = centerX + radiusX * Math.cos(step * i);
+            double y = centerY + radiusY * Math.sin(step * i);
+            addEdge(lastX, lastY, x, y);
+            lastX = x;
+            lastY = y;
+        }
+    }
+
+    private void addEdge(double x0, double y0, double x1, double y1) {
+        //move the edge onto the image
+        x0 = x0 * scale + translateX;
+        y0 = y0 * scale + translateY;
+        x1 = x1 * scale + translateX;
+        y1 = y1 * scale + translateY;
+
+        //edges that don't cross a row of pixel centres never change the winding
+        if(toPixel(y0) == toPixel(y1)) {
+            return;
+        }
+        if(edgeCount == edgeX0.length) {
+            int capacity = edgeCount * 2;
+            edgeX0 = Arrays.copyOf(edgeX0, capacity);
+            edgeY0 = Arrays.copyOf(edgeY0, capacity);
+            edgeX1 = Arrays.copyOf(edgeX1, capacity);
+            edgeY1 = Arrays.copyOf(edgeY1, capacity);
+            edgeWinding = Arrays.copyOf(edgeWinding, capacity);
+        }
+
+        //store every edge going down, and remember which way it really went
+        if(y0 < y1) {
+            edgeX0[edgeCount] = x0;
+            edgeY0[edgeCount] = y0;
+            edgeX1[edgeCount] = x1;
+            edgeY1[edgeCount] = y1;
+            edgeWinding[edgeCount] = 1;
+        } else {
+            edgeX0[edgeCount] = x1;
+            edgeY0[edgeCount] = y1;
+            edgeX1[edgeCount] = x0;
+            edgeY1[edgeCount] = y0;
+            edgeWinding[edgeCount] = -1;
+        }
+        edgeCount++;
+    }
+
+    //fills everything inside the outlines added so far with the non-zero winding rule, then forgets them
+    private void fillEdges(int color) {
+        if(edgeCount == 0 || (color >>> 24) == 0) {
+            edgeCount = 0;
+            return;
+        }
+
+        double top = Double.MAX_VALUE;
+        double bottom = -Double.MAX_VALUE;
+        for(int i = 0; i < edgeCount; i++) {
+            top = Math.min(top, edgeY0[i]);
+            bottom = Math.max(bottom, edgeY1[i]);
+        }
+        int firstRow = Math.max(toPixel(top), clipTop);
+        int lastRow = Math.min(toPixel(bottom), clipBottom);
+        if(firstRow >= lastRow) {
+            edgeCount = 0;
+            return;
+        }
+
+        //sort the edges by the first row they reach, by counting how many start on each row.
+        //Edges starting below the last row all go in one extra row that's never reached
+        int rows = lastRow - firstRow;
+        if(rowEdges.length < rows + 2) {
+            rowEdges = new int[Math.max(rows + 2, rowEdges.length * 2)];
+        }
+        if(edgeOrder.length < edgeCount) {
+            edgeOrder = new int[Math.max(edgeCount, edgeOrder.length * 2)];
+        }
+        Arrays.fill(rowEdges, 0, rows + 2, 0);
+        for(int i = 0; i < edgeCount; i++) {
+            rowEdges[startRow(i, firstRow, rows) + 1]++;
+        }
+        for(int row = 0; row < rows; row++) {
+            rowEdges[row + 1] += rowEdges[row];
+        }
+        for(int i = 0; i < edgeCount; i++) {
+            edgeOrder[rowEdges[startRow(i, firstRow, rows)]++] = i;
+        }
+        int reachable = rowEdges[rows - 1];
+        int nextEdge = 0;
+        int activeCount = 0;
+
+        for(int row = firstRow; row < lastRow; row++) {
+            double centerY = row + 0.5;
+
+            //start using the edges that reach this row
+            while(nextEdge < reachable && edgeY0[edgeOrder[nextEdge]] <= centerY) {
+                if(activeCount == active.length) {
+                    active = Arrays.copyOf(active, activeCount * 2);
+                    crossingX = new double[activeCount * 2];
+                    crossingWinding = new int[activeCount * 2];
+                }
+                active[activeCount++] = edgeOrder[nextEdge++];
+            }
+
+            //find where the edges cross the middle of the row, dropping the ones that ended above it
+            int crossings = 0;
+            for(int i = 0; i < activeCount; i++) {
+                int edge = active[i];
+                if(edgeY1[edge] <= centerY) {
+                    active[i--] = active[--activeCount];
+                    continue;
+                }
+                double x = edgeX0[edge] + (centerY - edgeY0[edge])
+                        * (edgeX1[edge] - edgeX0[edge]) / (edgeY1[edge] - edgeY0[edge]);
+
+                //keep the crossings sorted from left to right
+                int position = crossings++;
+                while(position > 0 && crossingX[position - 1] > x) {
+                    crossingX[position] = crossingX[position - 1];
+                    crossingWinding[position] = crossingWinding[position - 1];
+                    position--;
+                }
+                crossingX[position] = x;
+                crossingWinding[position] = edgeWinding[edge];
+            }
+
+            //fill between crossings wherever the outlines wind around the pixels
+            int winding = 0;
+            for(int i = 0; i < crossings - 1; i++) {
+                winding += crossingWinding[i];
+                if(winding != 0) {
+                    fillSpan(row, toPixel(crossingX[i]), toPixel(crossingX[i + 1]), color);
+                }
+            }
+        }
+        edgeCount = 0;
+    }
+
+    //row an edge starts on counted from the first row being filled, edges starting above it go on the first row
+    private int startRow(int edge, int firstRow, int rows) {
+        return Math.min(Math.max(toPixel(edgeY0[edge]) - firstRow, 0), rows);
+    }
+
+    //first pixel whose centre is at or after a coordinate
+    private static int toPixel(double coordinate) {
+        return (int) Math.ceil(coordinate - 0.5);
+    }
+
+    private void fillSpan(int row, int left, int right, int color) {
+        left = Math.max(left, clipLeft);
+        right = Math.min(right, clipRight);
+        if(left >= right) {
+            return;
+        }
+
+        int offset = row * width;
+        if((color >>> 24) == 0xff) {
+            Arrays.fill(pixels, offset + left, offset + right, color);
+            return;
+        }
+        for(int i = offset + left; i < offset + right; i++) {
+            pixels[i] = blend(color, pixels[i]);
+        }
+    }
+
+    //draws a see-through color over a pixel
+    private static int blend(int source, int destination) {
+        int sourceAlpha = source >>> 24;
+        int destinationAlpha = destination >>> 24;
+
+        //over a solid pixel the result stays solid, and only needs dividing by a constant
+        if(destinationAlpha == 0xff) {
+            int keep = 255 - sourceAlpha;
+            int red = (((source >> 16) & 0xff) * sourceAlpha + ((destination >> 16) & 0xff) * keep) / 255;
+            int green = (((source >> 8) & 0xff) * sourceAlpha + ((destination >> 8) & 0xff) * keep) / 255;
+            int blue = ((source & 0xff) * sourceAlpha + (destination & 0xff) * keep) / 255;
+            return 0xff000000 | red << 16 | green << 8 | blue;
+        }
+
+        int coverage = destinationAlpha * (255 - sourceAlpha) / 255;
+        int alpha = sourceAlpha + coverage;
+        if(alpha == 0) {
+            return 0;
+        }
+
+        int red = (((source >> 16) & 0xff) * sourceAlpha + ((destination >> 16) & 0xff) * coverage) / alpha;
+        int green = (((source >> 8) & 0xff) * sourceAlpha + ((destination >> 8) & 0xff) * coverage) / alpha;
+        int blue = ((source & 0xff) * sourceAlpha + (destination & 0xff) * coverage) / alpha;
+        return alpha << 24 | red << 16 | green << 8 | blue;
+    }
+
+    @Override
+    public String toString() {
+        return "RasterShapeRenderer{" +
+                "width=" + width +
+                ", height=" + height +
+                ", scale=" + scale +
+                ", strokeColor=" + Integer.toHexString(strokeColor) +
+                ", fillColor=" + Integer.toHexString(fillColor) +
+                ", lineWidth=" + lineWidth +
+                '}';
+    }
+}
@@ -0,0 +1,203 @@
+package model.render;
+
+import javafx.scene.paint.Paint;
+
+import java.nio.FloatBuffer;
+
+/**
+ * This class wraps a renderer and remembers the stroke, line width and fill it was last set to,
+ * so setting one to what it already is never reaches the renderer. Every shape sets its style
+ * before it draws, and a drawing is mostly runs of shapes in the same style, so replaying one
+ * through this skips most of the state changes.
+ *
+ * Interned styles share paints, so a repeated paint is usually the same object and is
+ * recognized without comparing colors.
+ *
+ * The wrapped renderer's state must only be changed through this one while it's in use,
+ * or it needs to be told with invalidate
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+public class StateCachingRenderer implements IShapeRenderer {
+
+    private IShapeRenderer renderer;
+
+    //state the wrapped renderer was last set to, nothing is known about it to start with
+    private Paint stroke;
+    private Paint fill;
+    private double lineWidth = Double.NaN;
+
+    //number of state changes passed on and skipped
+    private long stateChanges;
+    private long stateChangesSkipped;
+
+    /**
+     * This is the StateCachingRenderer constructor
+     * @param renderer is the renderer to draw with
+     */
+    public StateCachingRenderer(IShapeRenderer renderer) {
+        this.renderer = renderer;
+    }
+
+    /**
+     * returns the renderer being drawn with
+     * @return returns the wrapped renderer
+     */
+    public IShapeRenderer getRenderer() {
+        return renderer;
+    }
+
+    /**
+     * This function forgets the remembered state, for when the wrapped renderer's state was changed
+     * some other way, so the next stroke, line width and fill are all passed on
+     */
+    public void invalidate() {
+        stroke = null;
+        fill = null;
+        lineWidth = Double.NaN;
+    }
+
+    /**
+     * returns the number of state changes passed on to the wrapped renderer
+     * @return returns the number of state changes passed on
+     */
+    public long getStateChanges() {
+        return stateChanges;
+    }
+
+    /**
+     * returns the number of state changes skipped because nothing changed
+     * @return returns the number of state changes skipped
+     */
+    public long getStateChangesSkipped() {
+        return stateChangesSkipped;
+    }
+
+    @Override
+    public void setStroke(Paint paint) {
+        if(isSame(stroke, paint)) {
+            stateChangesSkipped++;
+            return;
+        }
+        stroke = paint;
+        stateChanges++;
+        renderer.setStroke(paint);
+    }
+
+    @Override
+    public void setLineWidth(double width) {
+        //NaN never equals itself, so the first width is always passed on
+        if(width == lineWidth) {
+            stateChangesSkipped++;
+            return;
+        }
+        lineWidth = width;
+        stateChanges++;
+        renderer.setLineWidth(width);
+    }
+
+    @Override
+    public void setFill(Paint paint) {
+        if(isSame(fill, paint)) {
+            stateChangesSkipped++;
+            return;
+        }
+        fill = paint;
+        stateChanges++;
+        renderer.setFill(paint);
+    }
+
+    @Override
+    public void strokeLine(double x1, double y1, double x2, double y2) {
+        renderer.strokeLine(x1, y1, x2, y2);
+    }
+
+    @Override
+    public void strokeRect(double x, double y, double width, double height) {
+        renderer.strokeRect(x, y, width, height);
+    }
+
+    @Override
+    public void fillRect(double x, double y, double width, double height) {
+        renderer.fillRect(x, y, width, height);
+    }
+
+    @Override
+    public void strokeOval(double x, double y, double width, double height) {
+        renderer.strokeOval(x, y, width, height);
+    }
+
+    @Override
+    public void fillOval(double x, double y, double width, double height) {
+        renderer.fillOval(x, y, width, height);
+    }
+
+    @Override
+    public void strokePolyline(double[] xPoints, double[] yPoints, int numPoints) {
+        renderer.strokePolyline(xPoints, yPoints, numPoints);
+    }
+
+    @Override
+    public void fillPolygon(double[] xPoints, double[] yPoints, int numPoints) {
+        renderer.fillPolygon(xPoints, yPoints, numPoints);
+    }
+
+    @Override
+    public void strokePolyline(FloatBuffer xPoints, FloatBuffer yPoints, int offset, int numPoints) {
+        renderer.strokePolyline(xPoints, yPoints, offset, numPoints);
+    }
+
+    @Override
+    public void fillPolygon(FloatBuffer xPoints, FloatBuffer yPoints, int offset, int numPoints) {
+        renderer.fillPolygon(xPoints, yPoints, offset, numPoints);
+    }
+
+    @Override
+    public void beginPath() {
+        renderer.beginPath();
+    }
+
+    @Override
+    public void moveTo(double x, double y) {
+        renderer.moveTo(x, y);
+    }
+
+    @Override
+    public void lineTo(double x, double y) {
+        renderer.lineTo(x, y);
+    }
+
+    @Override
+    public void rect(double x, double y, double width, double height) {
+        renderer.rect(x, y, width, height);
+    }
+
+    @Override
+    public void oval(double x, double y, double width, double height) {
+        renderer.oval(x, y, width, height);
+    }
+
+    @Override
+    public void stroke() {
+        renderer.stroke();
+    }
+
+    @Override
+    public void clearRect(double x, double y, double width, double height) {
+        renderer.clearRect(x, y, width, height);
+    }
+
+    //the same object is the usual case with interned styles, so it's checked before comparing colors
+    private static boolean isSame(Paint current, Paint paint) {
+        return current == paint || (current != null && current.equals(paint));
+    }
+
+    @Override
+    public String toString() {
+        return "StateCachingRenderer{" +
+                "renderer=" + renderer +
+                ", stateChanges=" + stateChanges +
+                ", stateChangesSkipped=" + stateChangesSkipped +
+                '}';
+    }
+}
@@ -0,0 +1,196 @@
+package model.render;
+
+import model.command.IDrawableCommandFactory;
+import model.command.helpers.ShapeBounds;
+import model.document.IShapeSource;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class renders a whole document into an image of any size using every core.
+ *
+ * The image is split into square tiles. The shapes over each tile are found with the shape source's
+ * spatial index before any work starts, then the tiles are drawn on a fork-join pool, each one
+ * by its own RasterShapeRenderer clipped to the tile. Tiles never share pixels, so they all
+ * draw straight into the same image without locking.
+ *
+ * The shape source is only used by the thread calling render, like a document's threading rules ask,
+ * the pool threads only draw the shapes it found
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+public class TiledRasterizer {
+
+    //size in pixels of a tile
+    public static final int DEFAULT_TILE_SIZE = 256;
+
+    private ForkJoinPool pool;
+    private int tileSize;
+
+    /**
+     * This is the TiledRasterizer constructor, using the common fork-join pool and the default tile size
+     */
+    public TiledRasterizer() {
+        this(ForkJoinPool.commonPool(), DEFAULT_TILE_SIZE);
+    }
+
+    /**
+     * This is the TiledRasterizer constructor
+     * @param pool is the pool the tiles are drawn on
+     * @param tileSize is the size in pixels of a tile
+     */
+    public TiledRasterizer(ForkJoinPool pool, int tileSize) {
+        this.pool = pool;
+        this.tileSize = tileSize;
+    }
+
+    /**
+     * This function renders every shape into a new image
+     * @param shapes is the shapes to be rendered, like a document's undo history
+     * @param width is the width of the image in pixels
+     * @param height is the height of the image in pixels
+     * @param scale is how many pixels one unit of the canvas takes up
+     * @return returns the image, one ARGB int per pixel, row by row
+     */
+    public int[] render(IShapeSource shapes, int width, int height, double scale) {
+        int[] pixels = new int[width * height];
+        render(shapes, pixels, width, scale, 0, height);
+        return pixels;
+    }
+
+    /**
+     * This function renders a band of rows of an image into a buffer holding just those rows.
+     * The rows are drawn the same as if the whole image was, so a big image can be rendered
+     * a band at a time without ever holding all of it
+     * @param shapes is the shapes to be rendered, like a document's undo history
+     * @param pixels is the buffer to draw the band into, one ARGB int per pixel, row by row
+     * @param width is the width of the image in pixels
+     * @param scale is how many pixels one unit of the canvas takes up
+     * @param firstRow is the row of the image the band starts at
+     * @param rows is the number of rows in the band
+     */
+    public void render(IShapeSource shapes, int[] pixels, int width, double scale, int firstRow, int rows) {
+        int columns = (width + tileSize - 1) / tileSize;
+        int tileRows = (rows + tileSize - 1) / tileSize;
+        Tile[] tiles = new Tile[columns * tileRows];
+
+        //find the shapes over every tile, and every shape any tile needs, while this thread owns the shapes
+        IDrawableCommandFactory[] found = new IDrawableCommandFactory[shapes.size()];
+        for(int tileRow = 0; tileRow < tileRows; tileRow++) {
+            for(int column = 0; column < columns; column++) {
+                int x = column * tileSize;
+                int y = tileRow * tileSize;
+                Tile tile = new Tile(x, y, Math.min(tileSize, width - x), Math.min(tileSize, rows - y));
+                tile.positions = shapes.query(new ShapeBounds(
+                        x / scale, (firstRow + y) / scale,
+                        (x + tile.width) / scale, (firstRow + y + tile.height) / scale
+                ));
+                for(int position : tile.positions) {
+                    if(found[position] == null) {
+                        found[position] = shapes.get(position);
+                    }
+                }
+                tiles[tileRow * columns + column] = tile;
+            }
+        }
+
+        pool.invoke(new TileRange(tiles, 0, tiles.length, found, pixels, width, rows, scale, firstRow));
+    }
+
+    /**
+     * returns the size in pixels of a tile
+     * @return returns the size in pixels of a tile
+     */
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    /**
+     * returns the number of threads tiles are drawn on at the same time
+     * @return returns the number of threads tiles are drawn on at the same time
+     */
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    @Override
+    public String toString() {
+        return "TiledRasterizer{" +
+                "parallelism=" + pool.getParallelism() +
+                ", tileSize=" + tileSize +
+                '}';
+    }
+
+    /**
+     * An area of the band being rendered, and the history positions of the shapes over it
+     */
+    private static class Tile {
+        private final int x;
+        private final int y;
+        private final int width;
+        private final int height;
+        private int[] positions;
+
+        Tile(int x, int y, int width, int height) {
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    /**
+     * Draws a run of tiles, splitting it in half until there's one tile left to draw
+     */
+    private static class TileRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Tile[] tiles;
+        private final int first;
+        private final int last;
+        private final IDrawableCommandFactory[] shapes;
+        private final int[] pixels;
+        private final int width;
+        private final int height;
+        private final double scale;
+        private final int firstRow;
+
+        TileRange(Tile[] tiles, int first, int last, IDrawableCommandFactory[] shapes,
+                  int[] pixels, int width, int height, double scale, int firstRow) {
+            this.tiles = tiles;
+            this.first = first;
+            this.last = last;
+            this.shapes = shapes;
+            this.pixels = pixels;
+            this.width = width;
+            this.height = height;
+            this.scale = scale;
+            this.firstRow = firstRow;
+        }
+
+        @Override
+        protected void compute() {
+            if(last - first > 1) {
+                int middle = (first + last) >>> 1;
+                invokeAll(
+                        new TileRange(tiles, first, middle, shapes, pixels, width, height, scale, firstRow),
+                        new TileRange(tiles, middle, last, shapes, pixels, width, height, scale, firstRow)
+                );
+                return;
+            }
+            if(last == first) {
+                return;
+            }
+
+            Tile tile = tiles[first];
+            RasterShapeRenderer raster = new RasterShapeRenderer(pixels, width, height);
+            raster.setTransform(scale, 0, -firstRow);
+            raster.setClip(tile.x, tile.y, tile.width, tile.height);
+            IShapeRenderer renderer = new StateCachingRenderer(raster);
+            for(int position : tile.positions) {
+                shapes[position].draw(renderer);
+            }
+        }
+    }
+}
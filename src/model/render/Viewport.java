@@ -0,0 +1,212 @@
+package model.render;
+
+import model.command.helpers.ShapeBounds;
+
+/**
+ * This class is the part of the drawing that shows on the canvas. Shapes keep their coordinates
+ * on the drawing, and the viewport scales and moves them onto the canvas, so the drawing can be
+ * zoomed and panned without changing any shape.
+ *
+ * The viewport is a scale and the point of the drawing at the top left corner of the canvas.
+ * A point on the drawing at (x, y) shows on the canvas at ((x - originX) * scale, (y - originY) * scale)
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+public class Viewport {
+
+    //how far the drawing can be zoomed out and in
+    public static final double MIN_SCALE = 1.0 / 64;
+    public static final double MAX_SCALE = 64;
+
+    private double scale = 1;
+    private double originX;
+    private double originY;
+
+    /**
+     * returns how many canvas pixels one unit of the drawing covers
+     * @return returns the scale of the drawing on the canvas
+     */
+    public double getScale() {
+        return scale;
+    }
+
+    /**
+     * returns the x coordinate of the drawing at the left edge of the canvas
+     * @return returns the x coordinate of the drawing at the left edge of the canvas
+     */
+    public double getOriginX() {
+        return originX;
+    }
+
+    /**
+     * returns the y coordinate of the drawing at the top edge of the canvas
+     * @return returns the y coordinate of the drawing at the top edge of the canvas
+     */
+    public double getOriginY() {
+        return originY;
+    }
+
+    /**
+     * returns true if the drawing shows on the canvas at its own coordinates
+     * @return returns true if the viewport doesn't zoom or pan
+     */
+    public boolean isIdentity() {
+        return scale == 1 && originX == 0 && originY == 0;
+    }
+
+    /**
+     * returns the x coordinate on the drawing under a point on the canvas
+     * @param screenX is the x coordinate on the canvas
+     * @return returns the x coordinate on the drawing
+     */
+    public double toWorldX(double screenX) {
+        return originX + screenX / scale;
+    }
+
+    /**
+     * returns the y coordinate on the drawing under a point on the canvas
+     * @param screenY is the y coordinate on the canvas
+     * @return returns the y coordinate on the drawing
+     */
+    public double toWorldY(double screenY) {
+        return originY + screenY / scale;
+    }
+
+    /**
+     * returns the x coordinate on the canvas a point on the drawing shows at
+     * @param worldX is the x coordinate on the drawing
+     * @return returns the x coordinate on the canvas
+     */
+    public double toScreenX(double worldX) {
+        return (worldX - originX) * scale;
+    }
+
+    /**
+     * returns the y coordinate on the canvas a point on the drawing shows at
+     * @param worldY is the y coordinate on the drawing
+     * @return returns the y coordinate on the canvas
+     */
+    public double toScreenY(double worldY) {
+        return (worldY - originY) * scale;
+    }
+
+    /**
+     * returns the area of the drawing under an area of the canvas
+     * @param screen is the area of the canvas
+     * @return returns the area of the drawing
+     */
+    public ShapeBounds toWorld(ShapeBounds screen) {
+        return new ShapeBounds(
+                toWorldX(screen.getMinX()), toWorldY(screen.getMinY()),
+                toWorldX(screen.getMaxX()), toWorldY(screen.getMaxY())
+        );
+    }
+
+    /**
+     * returns the area of the canvas an area of the drawing shows on
+     * @param world is the area of the drawing
+     * @return returns the area of the canvas
+     */
+    public ShapeBounds toScreen(ShapeBounds world) {
+        return new ShapeBounds(
+                toScreenX(world.getMinX()), toScreenY(world.getMinY()),
+                toScreenX(world.getMaxX()), toScreenY(world.getMaxY())
+        );
+    }
+
+    /**
+     * returns the area of the drawing that shows on a canvas
+     * @param width is the width of the canvas
+     * @param height is the height of the canvas
+     * @return returns the area of the drawing that shows on the canvas
+     */
+    public ShapeBounds getVisibleBounds(double width, double height) {
+        return toWorld(new ShapeBounds(0, 0, width, height));
+    }
+
+    /**
+     * This function zooms the drawing in or out, keeping the point of the drawing
+     * under a point on the canvas where it is. The scale stays between MIN_SCALE and MAX_SCALE
+     * @param factor is how much to multiply the scale by, above 1 zooms in
+     * @param screenX is the x coordinate on the canvas to zoom around
+     * @param screenY is the y coordinate on the canvas to zoom around
+     * @return returns true if the scale changed
+     */
+    public boolean zoomAt(double factor, double screenX, double screenY) {
+        double newScale = clampScale(scale * factor);
+        if(newScale == scale) {
+            return false;
+        }
+        double worldX = toWorldX(screenX);
+        double worldY = toWorldY(screenY);
+        scale = newScale;
+        originX = worldX - screenX / scale;
+        originY = worldY - screenY / scale;
+        return true;
+    }
+
+    /**
+     * This function moves the drawing across the canvas
+     * @param screenDX is how far to move the drawing right, in canvas pixels
+     * @param screenDY is how far to move the drawing down, in canvas pixels
+     */
+    public void pan(double screenDX, double screenDY) {
+        originX -= screenDX / scale;
+        originY -= screenDY / scale;
+    }
+
+    /**
+     * This function zooms and pans so an area of the drawing fills a canvas, centered,
+     * with a margin around it. The scale stays between MIN_SCALE and MAX_SCALE
+     * @param world is the area of the drawing to show
+     * @param width is the width of the canvas
+     * @param height is the height of the canvas
+     * @param margin is the space to leave around the area, in canvas pixels
+     */
+    public void fit(ShapeBounds world, double width, double height, double margin) {
+        double usableWidth = Math.max(width - margin * 2, 1);
+        double usableHeight = Math.max(height - margin * 2, 1);
+        double fitScale = Math.min(
+                usableWidth / Math.max(world.getWidth(), 1),
+                usableHeight / Math.max(world.getHeight(), 1)
+        );
+        scale = clampScale(fitScale);
+        originX = (world.getMinX() + world.getMaxX()) / 2 - width / 2 / scale;
+        originY = (world.getMinY() + world.getMaxY()) / 2 - height / 2 / scale;
+    }
+
+    /**
+     * This function moves the viewport straight to a scale and origin, like a saved view.
+     * The scale stays between MIN_SCALE and MAX_SCALE
+     * @param scale is how many canvas pixels one unit of the drawing covers
+     * @param originX is the x coordinate of the drawing at the left edge of the canvas
+     * @param originY is the y coordinate of the drawing at the top edge of the canvas
+     */
+    public void set(double scale, double originX, double originY) {
+        this.scale = clampScale(scale);
+        this.originX = originX;
+        this.originY = originY;
+    }
+
+    /**
+     * This function goes back to showing the drawing at its own coordinates
+     */
+    public void reset() {
+        scale = 1;
+        originX = 0;
+        originY = 0;
+    }
+
+    private static double clampScale(double scale) {
+        return Math.max(MIN_SCALE, Math.min(MAX_SCALE, scale));
+    }
+
+    @Override
+    public String toString() {
+        return "Viewport{" +
+                "scale=" + scale +
+                ", originX=" + originX +
+                ", originY=" + originY +
+                '}';
+    }
+}
@@ -1,27 +1,49 @@
 package view;
 
+import controller.Session;
 import controller.ShapeController;
+import javafx.animation.AnimationTimer;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.control.*;
 import javafx.scene.image.ImageView;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination;
+import javafx.scene.input.MouseButton;
 import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
 import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import model.command.IDrawableCommandFactory;
+import model.command.RandomShapeGenerator;
+import model.command.helpers.PointBuffer;
+import model.document.Document;
+import model.document.DocumentSnapshot;
+import model.io.CommandJournal;
+import model.io.DocumentFile;
+import model.io.InputRecorder;
+import model.io.PngExporter;
+import model.metrics.PerformanceMonitor;
 import model.decorator.ContentDecorator;
 import model.decorator.HeaderDecorator;
 import model.decorator.IDecorate;
 import model.decorator.TitleDecorator;
 
 import java.io.File;
-import java.util.Arrays;
+import java.io.IOException;
+import java.util.SplittableRandom;
 
 /**
  * This class creates a GUI that allows a user to draw on a canvas.
@@ -37,10 +59,19 @@ public class DoodleView extends Application {
     public static final int SHAPE_ICON_SIZE = 20;
     public static final int MAX_STROKE = 20;
     public static final int MIN_STROKE = 1;
+    public static final String[] SMOOTHING_NAMES = {"Off", "Low", "Medium", "High"};
+    public static final double[] SMOOTHING_TOLERANCES = {0, 0.5, Session.DEFAULT_SIMPLIFY_TOLERANCE, 2};
+    public static final double ZOOM_STEP = 1.25;
+    public static final int DEFAULT_GENERATE_COUNT = 100000;
+    public static final long DEFAULT_GENERATE_SEED = 42;
     public static final String AUTHOR_EMAIL_1 = "Chauncey Brown-Castro <chaunceys180@gmail.com>";
 
-    //drawing on the canvas
+    //window the file dialogs belong to
+    private Stage stage;
+
+    //drawing on the canvas, with in-progress shapes previewed on a canvas stacked above it
     private Canvas canvas;
+    private Canvas previewCanvas;
 
     //selecting shapes
     private ToggleGroup shapeGroup;
@@ -51,15 +82,94 @@ public class DoodleView extends Application {
     private Slider strokeSlider;
     private CheckBox filledCheckbox;
 
-    //array for polyLine
-    private double[] xCoords;
-    private double[] yCoords;
+    //points for polyLine
+    private PointBuffer points;
+
+    //true while the mouse is drawing a shape
+    private boolean drawing;
+
+    //where the mouse was last dragged to on the canvas while panning the view
+    private boolean panning;
+    private double panX;
+    private double panY;
+
+    //the drawing, the user drawing on it, and the controller connecting them
+    private Document document = new Document();
+    private Session session = new Session();
+    private PerformanceMonitor monitor = new PerformanceMonitor();
+    private ShapeController controller = new ShapeController(document, session, monitor);
+
+    //overlay showing how long input and repainting take
+    private PerformanceHud hud;
+
+    //draws the in-progress shape, or the panned view, once per frame while the mouse is held down,
+    //however many drag events came in since the last frame
+    private AnimationTimer dragRenderer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            if(recorder != null) {
+                recorder.frame();
+            }
+            controller.redrawView(canvas, previewCanvas);
+            renderDrag();
+        }
+    };
+
+    //records every change to the drawing so it can be recovered if the program dies
+    private CommandJournal journal;
+
+    //records the user's input while a recording is running, so it can be replayed as a performance test
+    private InputRecorder recorder;
 
     @Override
     public void start(Stage stage) {
+        this.stage = stage;
         stage.setTitle("Doodle Program");
         stage.setScene(getPrimaryScene());
         stage.show();
+        startJournal();
+    }
+
+    @Override
+    public void stop() throws IOException {
+        stopRecording();
+        document.close();
+        if(journal != null) {
+            journal.close();
+        }
+    }
+
+    private void startJournal() {
+        try {
+            journal = CommandJournal.open(CommandJournal.getDefaultDirectory());
+            if(journal == null) { //another window is already using the journal
+                return;
+            }
+
+            //bring back the drawing from a program that didn't close properly
+            Document recovered = journal.recover();
+            if(recovered.size() > 0) {
+                setDocument(recovered);
+            } else {
+                recovered.close();
+            }
+            document.setJournal(journal);
+        } catch (IOException e) {
+            journal = null;
+            showError("Couldn't recover the last drawing", e);
+        }
+    }
+
+    private void setDocument(Document replacement) {
+        document.close();
+        document = replacement;
+        controller = new ShapeController(document, session, monitor);
+
+        //wait for the canvas to be laid out before drawing the whole thing
+        Platform.runLater(() -> {
+            controller.clearCanvas(previewCanvas);
+            controller.drawAllShapes(canvas);
+        });
     }
 
     private Scene getPrimaryScene() {
@@ -85,21 +195,267 @@ public class DoodleView extends Application {
         Menu file = new Menu("File");
         Menu edit = new Menu("Edit");
         Menu draw = new Menu("Draw");
+        Menu view = new Menu("View");
         Menu help = new Menu("Help");
 
         fileMenu(file);
         editMenu(edit);
         drawMenu(draw);
+        viewMenu(view);
         help(help);
 
-        menuBar.getMenus().addAll(file, edit, draw, help);
+        menuBar.getMenus().addAll(file, edit, draw, view, help);
         return menuBar;
     }
 
     private void fileMenu(Menu file) {
+        MenuItem open = new MenuItem("Open...");
+        open.setOnAction(event -> openDrawing());
+
+        MenuItem save = new MenuItem("Save...");
+        save.setOnAction(event -> saveDrawing());
+
+        MenuItem export = new MenuItem("Export PNG...");
+        export.setOnAction(event -> exportPng());
+
+        CheckMenuItem record = new CheckMenuItem("Record Input...");
+        record.setOnAction(event -> {
+            if(record.isSelected()) {
+                record.setSelected(startRecording());
+            } else {
+                stopRecording();
+            }
+        });
+
         MenuItem quit = new MenuItem("Quit");
         quit.setOnAction(event -> Platform.exit());
-        file.getItems().add(quit);
+        file.getItems().addAll(open, save, export, new SeparatorMenuItem(), record, new SeparatorMenuItem(), quit);
+    }
+
+    private FileChooser getFileChooser(String title) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle(title);
+        chooser.getExtensionFilters().add(
+                new FileChooser.ExtensionFilter("Drawings", "*" + DocumentFile.EXTENSION));
+        return chooser;
+    }
+
+    private void openDrawing() {
+        File file = getFileChooser("Open Drawing").showOpenDialog(stage);
+        if(file == null) {
+            return;
+        }
+
+        try {
+            //the opened drawing replaces the current one, and is where the journal starts over from
+            setDocument(DocumentFile.open(file));
+            if(journal != null) {
+                journal.reset(file);
+                document.setJournal(journal);
+            }
+        } catch (IOException e) {
+            showError("Couldn't open " + file.getName(), e);
+        }
+    }
+
+    private void saveDrawing() {
+        File file = getFileChooser("Save Drawing").showSaveDialog(stage);
+        if(file == null) {
+            return;
+        }
+        if(!file.getName().endsWith(DocumentFile.EXTENSION)) {
+            file = new File(file.getPath() + DocumentFile.EXTENSION);
+        }
+
+        try {
+            DocumentFile.save(document, file);
+        } catch (IOException e) {
+            showError("Couldn't save " + file.getName(), e);
+            return;
+        }
+
+        //the saved drawing is a good place for the journal to start over from
+        if(journal != null) {
+            journal.snapshot(document);
+        }
+    }
+
+    //returns true if recording started
+    private boolean startRecording() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Record Input");
+        chooser.getExtensionFilters().add(
+                new FileChooser.ExtensionFilter("Input recordings", "*" + InputRecorder.EXTENSION));
+        File file = chooser.showSaveDialog(stage);
+        if(file == null) {
+            return false;
+        }
+        if(!file.getName().endsWith(InputRecorder.EXTENSION)) {
+            file = new File(file.getPath() + InputRecorder.EXTENSION);
+        }
+
+        try {
+            //the replay starts from the same drawing, and the random tool makes the same shapes
+            File drawing = InputRecorder.getDrawingFile(file);
+            if(document.size() > 0) {
+                DocumentFile.save(document, drawing);
+            } else {
+                drawing.delete();
+            }
+            long seed = System.nanoTime();
+            session.setRandom(new SplittableRandom(seed));
+
+            recorder = InputRecorder.start(file, canvas.getWidth(), canvas.getHeight(),
+                    controller.getViewport().getScale(), controller.getViewport().getOriginX(),
+                    controller.getViewport().getOriginY(), session.getSimplifyTolerance(), seed);
+            ToggleButton button = (ToggleButton) shapeGroup.getSelectedToggle();
+            if(button != null) {
+                recorder.tool(button.getId());
+            }
+            recordSettings();
+            return true;
+        } catch (IOException e) {
+            showError("Couldn't record to " + file.getName(), e);
+            return false;
+        }
+    }
+
+    private void stopRecording() {
+        if(recorder == null) {
+            return;
+        }
+        try {
+            recorder.close();
+        } catch (IOException e) {
+            showError("Couldn't finish recording to " + recorder.getFile().getName(), e);
+        }
+        recorder = null;
+    }
+
+    private void exportPng() {
+        //ask for the width of the image, the height keeps the canvas's shape
+        TextInputDialog sizeDialog = new TextInputDialog(Integer.toString((int) canvas.getWidth()));
+        sizeDialog.setTitle("Export PNG");
+        sizeDialog.setHeaderText("Width of the image in pixels");
+        String widthText = sizeDialog.showAndWait().orElse(null);
+        if(widthText == null) {
+            return;
+        }
+
+        int width;
+        try {
+            width = Integer.parseInt(widthText.trim());
+        } catch (NumberFormatException e) {
+            width = 0;
+        }
+        if(width < 1 || canvas.getWidth() < 1 || canvas.getHeight() < 1) {
+            showError("Couldn't export the drawing", new IllegalArgumentException(widthText + " isn't a width"));
+            return;
+        }
+        double scale = width / canvas.getWidth();
+        int height = Math.max((int) Math.round(canvas.getHeight() * scale), 1);
+
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export PNG");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("PNG images", "*.png"));
+        File file = chooser.showSaveDialog(stage);
+        if(file == null) {
+            return;
+        }
+
+        //the worker renders a copy of the shapes, so drawing can carry on while it runs
+        DocumentSnapshot snapshot = new DocumentSnapshot(document);
+        int imageWidth = width;
+        Task<Boolean> task = new Task<>() {
+            @Override
+            protected Boolean call() throws IOException {
+                return new PngExporter().export(snapshot, file, imageWidth, height, scale,
+                        done -> updateProgress(done, 1), this::isCancelled);
+            }
+        };
+
+        ProgressBar progressBar = new ProgressBar();
+        progressBar.progressProperty().bind(task.progressProperty());
+        progressBar.setPrefWidth(300);
+        Alert progressDialog = new Alert(Alert.AlertType.NONE, null, ButtonType.CANCEL);
+        progressDialog.setTitle("Export PNG");
+        progressDialog.setHeaderText("Exporting " + width + " x " + height + " to " + file.getName());
+        progressDialog.getDialogPane().setContent(progressBar);
+        progressDialog.setOnHidden(event -> task.cancel());
+
+        task.setOnSucceeded(event -> progressDialog.close());
+        task.setOnCancelled(event -> progressDialog.close());
+        task.setOnFailed(event -> {
+            progressDialog.close();
+            showError("Couldn't export " + file.getName(), task.getException());
+        });
+
+        Thread worker = new Thread(task, "doodle-export");
+        worker.setDaemon(true);
+        worker.start();
+        progressDialog.show();
+    }
+
+    private void generateShapes() {
+        //ask for how many shapes, and the seed that makes the same shapes again
+        TextField countField = new TextField(Integer.toString(DEFAULT_GENERATE_COUNT));
+        TextField seedField = new TextField(Long.toString(DEFAULT_GENERATE_SEED));
+        GridPane fields = new GridPane();
+        fields.setHgap(10);
+        fields.setVgap(10);
+        fields.addRow(0, new Label("Number of shapes"), countField);
+        fields.addRow(1, new Label("Seed"), seedField);
+
+        Alert dialog = new Alert(Alert.AlertType.NONE, null, ButtonType.OK, ButtonType.CANCEL);
+        dialog.setTitle("Generate Random Shapes");
+        dialog.setHeaderText("Random shapes are added where the canvas is showing");
+        dialog.getDialogPane().setContent(fields);
+        if(dialog.showAndWait().orElse(ButtonType.CANCEL) != ButtonType.OK) {
+            return;
+        }
+
+        int count;
+        long seed;
+        try {
+            count = Integer.parseInt(countField.getText().trim());
+            seed = Long.parseLong(seedField.getText().trim());
+        } catch (NumberFormatException e) {
+            showError("Couldn't generate shapes", e);
+            return;
+        }
+        if(count < 1) {
+            showError("Couldn't generate shapes", new IllegalArgumentException(count + " isn't a number of shapes"));
+            return;
+        }
+
+        //the shapes are generated on every core, and added and drawn once they're all ready
+        RandomShapeGenerator generator = controller.getShapeGenerator(seed, canvas);
+        int shapeCount = count;
+        Task<IDrawableCommandFactory[]> task = new Task<>() {
+            @Override
+            protected IDrawableCommandFactory[] call() {
+                return generator.generate(shapeCount);
+            }
+        };
+        task.setOnSucceeded(event -> {
+            if(recorder != null) {
+                recorder.generate(shapeCount, seed);
+            }
+            controller.addShapes(task.getValue(), canvas);
+        });
+        task.setOnFailed(event -> showError("Couldn't generate shapes", task.getException()));
+
+        Thread worker = new Thread(task, "doodle-generate");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    private void showError(String header, Throwable e) {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle("Doodle Program");
+        alert.setHeaderText(header);
+        alert.setContentText(e.getMessage());
+        alert.showAndWait();
     }
 
     private void editMenu(Menu edit) {
@@ -127,9 +483,73 @@ public class DoodleView extends Application {
 
         shapesMenu.getItems().addAll(shapes);
 
+        MenuItem generate = new MenuItem("Generate Random Shapes...");
+        generate.setOnAction(event -> generateShapes());
+
         MenuItem clear = new MenuItem("Clear Shapes");
         clear.setOnAction(event -> newCanvas());
-        draw.getItems().addAll(shapesMenu, clear);
+        draw.getItems().addAll(shapesMenu, smoothingMenu(), generate, clear);
+    }
+
+    private Menu smoothingMenu() {
+        Menu smoothing = new Menu("Squiggle Smoothing");
+        ToggleGroup smoothingGroup = new ToggleGroup();
+
+        for (int i = 0; i < SMOOTHING_NAMES.length; i++) {
+            double tolerance = SMOOTHING_TOLERANCES[i];
+            RadioMenuItem item = new RadioMenuItem(SMOOTHING_NAMES[i]);
+            item.setToggleGroup(smoothingGroup);
+            item.setSelected(tolerance == session.getSimplifyTolerance());
+            item.setOnAction(event -> {
+                if(recorder != null) {
+                    recorder.smoothing(tolerance);
+                }
+                session.setSimplifyTolerance(tolerance);
+            });
+            smoothing.getItems().add(item);
+        }
+
+        return smoothing;
+    }
+
+    private void viewMenu(Menu view) {
+        CheckMenuItem showHud = new CheckMenuItem("Performance HUD");
+        showHud.setAccelerator(new KeyCodeCombination(KeyCode.F3));
+        showHud.setOnAction(event -> hud.setShowing(showHud.isSelected()));
+
+        MenuItem resetStats = new MenuItem("Reset Performance Stats");
+        resetStats.setOnAction(event -> monitor.reset());
+
+        //zooming from the menu keeps the middle of the canvas where it is
+        MenuItem zoomIn = new MenuItem("Zoom In");
+        zoomIn.setAccelerator(new KeyCodeCombination(KeyCode.EQUALS, KeyCombination.SHORTCUT_DOWN));
+        zoomIn.setOnAction(event -> zoomView(ZOOM_STEP, canvas.getWidth() / 2, canvas.getHeight() / 2));
+
+        MenuItem zoomOut = new MenuItem("Zoom Out");
+        zoomOut.setAccelerator(new KeyCodeCombination(KeyCode.MINUS, KeyCombination.SHORTCUT_DOWN));
+        zoomOut.setOnAction(event -> zoomView(1 / ZOOM_STEP, canvas.getWidth() / 2, canvas.getHeight() / 2));
+
+        MenuItem actualSize = new MenuItem("Actual Size");
+        actualSize.setAccelerator(new KeyCodeCombination(KeyCode.DIGIT0, KeyCombination.SHORTCUT_DOWN));
+        actualSize.setOnAction(event -> {
+            if(recorder != null) {
+                recorder.resetView();
+            }
+            controller.resetView();
+            refreshView();
+        });
+
+        MenuItem fit = new MenuItem("Fit to Content");
+        fit.setAccelerator(new KeyCodeCombination(KeyCode.DIGIT9, KeyCombination.SHORTCUT_DOWN));
+        fit.setOnAction(event -> {
+            if(recorder != null) {
+                recorder.fit();
+            }
+            controller.fitToContent(canvas.getWidth(), canvas.getHeight());
+            refreshView();
+        });
+
+        view.getItems().addAll(zoomIn, zoomOut, actualSize, fit, new SeparatorMenuItem(), showHud, resetStats);
     }
 
     private void help(Menu about) {
@@ -162,6 +582,11 @@ public class DoodleView extends Application {
 
         buttons[0].setSelected(true);
         shapeGroup.getToggles().addAll(buttons);
+        shapeGroup.selectedToggleProperty().addListener((observable, oldV, newV) -> {
+            if(recorder != null && newV != null) {
+                recorder.tool(((ToggleButton) newV).getId());
+            }
+        });
         shapesPanel.getChildren().addAll(buttons);
 
         return shapesPanel;
@@ -243,98 +668,199 @@ public class DoodleView extends Application {
     }
 
     private Parent getCanvas() {
-        VBox box = new VBox();
+        StackPane box = new StackPane();
 
         canvas = new Canvas();
         canvas.setStyle("-fx-background-color: black");
         canvas.widthProperty().bind(box.widthProperty());
         canvas.heightProperty().bind(box.heightProperty());
 
+        previewCanvas = new Canvas();
+        previewCanvas.widthProperty().bind(box.widthProperty());
+        previewCanvas.heightProperty().bind(box.heightProperty());
+
+        //the canvases are resized together, so one listener records both
+        canvas.widthProperty().addListener((observable, oldV, newV) -> recordResize());
+        canvas.heightProperty().addListener((observable, oldV, newV) -> recordResize());
+
         setCanvasEventHandlers();
 
-        box.getChildren().add(canvas);
+        hud = new PerformanceHud(monitor, () -> document);
+        box.getChildren().addAll(canvas, previewCanvas, hud.getNode());
 
         return box;
     }
 
     private void setCanvasEventHandlers() {
 
-        canvas.addEventHandler(MouseEvent.MOUSE_PRESSED, event -> {
-            //set starting coordinates for new shape
-            xCoords = new double[] {event.getX()};
-            yCoords = new double[] {event.getY()};
-            ShapeController.setInitXAndY(event.getX(), event.getY());
+        previewCanvas.addEventHandler(MouseEvent.MOUSE_PRESSED, event -> {
+            //the other buttons pan the view, unless a shape is being drawn
+            if(event.getButton() != MouseButton.PRIMARY) {
+                if(!drawing && !panning) {
+                    startPan(event);
+                }
+                return;
+            }
+            if(panning) {
+                return;
+            }
+            drawing = true;
+            if(recorder != null) {
+                recordSettings();
+                recorder.press(event.getX(), event.getY());
+            }
+            long start = System.nanoTime();
+
+            //set starting coordinates for new shape, the mouse is on the canvas and the shape is on the drawing
+            double x = controller.getViewport().toWorldX(event.getX());
+            double y = controller.getViewport().toWorldY(event.getY());
+            points = new PointBuffer();
+            points.add(x, y);
+            controller.recordCoordinates(points);
+            controller.setInitXAndY(x, y);
             ToggleButton button = (ToggleButton) shapeGroup.getSelectedToggle();
 
             if(button.getId().equals("Random")) {
                 setColors();
-                ShapeController.drawRandomShape(event, canvas);
+                controller.drawRandomShape(x, y, previewCanvas);
             }
+            dragRenderer.start();
+            monitor.recordSince(PerformanceMonitor.PRESS, start);
         });
 
-        canvas.addEventHandler(MouseEvent.MOUSE_DRAGGED, event -> {
-            //clear the canvas of old stuff
-            clearCanvas();
-
-            //remember only the final shape, and draw them to the screen
-            ShapeController.drawAllShapes();
-
+        previewCanvas.addEventHandler(MouseEvent.MOUSE_DRAGGED, event -> {
+            if(panning) {
+                if(recorder != null) {
+                    recorder.pan(event.getX() - panX, event.getY() - panY);
+                }
+                controller.pan(event.getX() - panX, event.getY() - panY);
+                panX = event.getX();
+                panY = event.getY();
+                return;
+            }
+            if(!drawing) {
+                return;
+            }
+            if(recorder != null) {
+                recorder.drag(event.getX(), event.getY());
+            }
+            long start = System.nanoTime();
             recordCoordinates(event);
-
-            //determine shape to draw
-            ToggleButton button = (ToggleButton) shapeGroup.getSelectedToggle();
-            buildShape(button.getId(), event);
+            monitor.recordSince(PerformanceMonitor.DRAG, start);
         });
 
-        canvas.addEventHandler(MouseEvent.MOUSE_RELEASED, event -> {
-            ShapeController.clearRedo();
+        previewCanvas.addEventHandler(MouseEvent.MOUSE_RELEASED, event -> {
+            if(event.getButton() != MouseButton.PRIMARY) {
+                if(panning) {
+                    finishPan();
+                }
+                return;
+            }
+            if(!drawing) {
+                return;
+            }
+            drawing = false;
+            if(recorder != null) {
+                recorder.release();
+            }
+            long start = System.nanoTime();
+
+            //the shape is drawn out to the last drag before it's committed
+            dragRenderer.stop();
+            renderDrag();
+            controller.clearRedo();
+            controller.clearPreview(previewCanvas);
             saveHistory();
-            ShapeController.drawAllShapes();
+            reportPointCounts();
+            monitor.recordSince(PerformanceMonitor.RELEASE, start);
+        });
+
+        //the wheel zooms around the mouse
+        previewCanvas.addEventHandler(ScrollEvent.SCROLL, event -> {
+            if(event.getDeltaY() != 0 && !panning) {
+                zoomView(event.getDeltaY() > 0 ? ZOOM_STEP : 1 / ZOOM_STEP, event.getX(), event.getY());
+            }
         });
     }
 
-    private void recordCoordinates(MouseEvent event) {
-        //record the new coords for polyLine
-        double[] tempX = xCoords;
-        double[] tempY = yCoords;
+    private void startPan(MouseEvent event) {
+        panning = true;
+        panX = event.getX();
+        panY = event.getY();
+        dragRenderer.start();
+    }
 
-        xCoords = new double[xCoords.length+1];
-        yCoords = new double[yCoords.length+1];
+    private void finishPan() {
+        if(recorder != null) {
+            recorder.panEnd();
+        }
+        panning = false;
+        dragRenderer.stop();
+        refreshView();
+        controller.settleView(canvas);
+    }
 
-        //copy over all the elements
-        for(int i = 0; i < tempX.length; i++) {
-            xCoords[i] = tempX[i];
-            yCoords[i] = tempY[i];
+    private void zoomView(double factor, double screenX, double screenY) {
+        if(recorder != null) {
+            recorder.zoom(factor, screenX, screenY);
+        }
+        controller.zoomAt(factor, screenX, screenY);
+        if(refreshView()) {
+            controller.settleView(canvas);
+        }
+    }
+
+    //redraws the canvas if the view moved, returning true if it did
+    private boolean refreshView() {
+        return controller.redrawView(canvas, previewCanvas);
+    }
+
+    private void recordCoordinates(MouseEvent event) {
+        //record the new coords for polyLine, a new buffer is started for every shape
+        //so committed squiggles never see their points change. Nothing is drawn until the next frame
+        controller.dragTo(controller.getViewport().toWorldX(event.getX()), controller.getViewport().toWorldY(event.getY()));
+    }
+
+    private void renderDrag() {
+        //determine shape to draw, the committed shapes stay where they are
+        ToggleButton button = (ToggleButton) shapeGroup.getSelectedToggle();
+        if(button != null && controller.hasPendingShape()) {
+            long start = System.nanoTime();
+            buildShape(button.getId());
+            monitor.recordSince(PerformanceMonitor.RENDER, start);
         }
+    }
 
-        //add in the new coordinate
-        xCoords[xCoords.length-1] = event.getX();
-        yCoords[yCoords.length-1] = event.getY();
+    private void reportPointCounts() {
+        ToggleButton button = (ToggleButton) shapeGroup.getSelectedToggle();
+        if(button != null && button.getId().equals("Squiggle")) {
+            monitor.strokeFinished(session.getRawPointCount(), session.getKeptPointCount());
+        }
     }
 
     private void undoOperation() {
-        ShapeController.popShape();
-        clearCanvas();
-        ShapeController.drawAllShapes();
+        if(recorder != null) {
+            recorder.undo();
+        }
+        controller.undoShape(canvas);
     }
 
     private void redoOperation() {
-        ShapeController.redoShape();
-        clearCanvas();
-        ShapeController.drawAllShapes();
+        if(recorder != null) {
+            recorder.redo();
+        }
+        controller.redoShape(canvas);
     }
 
     private void saveHistory() {
         ToggleButton button = (ToggleButton) shapeGroup.getSelectedToggle();
         if(button != null) {
-            if(ShapeController.getShape() != null) {
-                ShapeController.push(ShapeController.getShape());
-            }
+            controller.commitShape(canvas);
         }
     }
 
     private void setColors() {
-        ShapeController.setColorSettings(
+        controller.setColorSettings(
             strokeSlider.getValue(),
             strokeColorPicker.getValue(),
             filledCheckbox.isSelected(),
@@ -342,19 +868,38 @@ public class DoodleView extends Application {
         );
     }
 
-    private void buildShape(String shape, MouseEvent event) {
+    //the recorder leaves out settings that haven't changed since it last recorded them
+    private void recordSettings() {
+        recorder.settings(
+            strokeSlider.getValue(),
+            strokeColorPicker.getValue(),
+            filledCheckbox.isSelected(),
+            fillColorPicker.getValue()
+        );
+    }
+
+    private void recordResize() {
+        if(recorder != null) {
+            recorder.resize(canvas.getWidth(), canvas.getHeight());
+        }
+    }
+
+    private void buildShape(String shape) {
         setColors();
-        ShapeController.recordCoordinates(xCoords, yCoords);
-        ShapeController.drawShape(shape, event, canvas);
+        controller.drawPendingShape(shape, previewCanvas);
     }
 
     private void clearCanvas() {
-        canvas.getGraphicsContext2D().clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        controller.clearCanvas(canvas);
     }
 
     private void newCanvas() {
+        if(recorder != null) {
+            recorder.clear();
+        }
         clearCanvas();
-        ShapeController.clearAll();
+        controller.clearCanvas(previewCanvas);
+        controller.clearAll();
     }
 
     private void selectButton(MenuItem menuItem) {
@@ -387,13 +932,16 @@ public class DoodleView extends Application {
     public String toString() {
         return "DoodleView{" +
                 "canvas=" + canvas +
+                ", previewCanvas=" + previewCanvas +
                 ", shapeGroup=" + shapeGroup +
                 ", fillColorPicker=" + fillColorPicker +
                 ", strokeColorPicker=" + strokeColorPicker +
                 ", strokeSlider=" + strokeSlider +
                 ", filledCheckbox=" + filledCheckbox +
-                ", xCoords=" + Arrays.toString(xCoords) +
-                ", yCoords=" + Arrays.toString(yCoords) +
+                ", points=" + points +
+                ", controller=" + controller +
+                ", hud=" + hud +
+                ", recorder=" + recorder +
                 '}';
     }
 }
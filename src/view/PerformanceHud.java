@@ -0,0 +1,127 @@
+package view;
+
+import javafx.animation.AnimationTimer;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.layout.StackPane;
+import model.document.Document;
+import model.metrics.LatencyHistogram;
+import model.metrics.PerformanceMonitor;
+
+import java.util.function.Supplier;
+
+/**
+ * This class is an overlay drawn over the canvas that shows how long the program is taking
+ * to handle input and repaint, next to how big the drawing is, so slowdowns can be matched
+ * up with the drawing growing while it's being used.
+ *
+ * While it's showing it records the time between frames, and refreshes its text a few times a second
+ * @author Chauncey Brown-Castro
+ * @version 1.0
+ */
+public class PerformanceHud {
+
+    //how often the text is refreshed
+    private static final long REFRESH_NANOS = 250_000_000L;
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private PerformanceMonitor monitor;
+    private Supplier<Document> document;
+    private Label label = new Label();
+    private AnimationTimer timer;
+
+    //time of the last frame, and of the last refresh of the text
+    private long lastFrame;
+    private long lastRefresh;
+
+    /**
+     * This is the PerformanceHud constructor, the overlay starts out hidden
+     * @param monitor is where the times shown are recorded
+     * @param document gets the drawing being shown, which changes when one is opened
+     */
+    public PerformanceHud(PerformanceMonitor monitor, Supplier<Document> document) {
+        this.monitor = monitor;
+        this.document = document;
+
+        label.setId("performance-hud");
+        label.setMouseTransparent(true);
+        label.setVisible(false);
+        StackPane.setAlignment(label, Pos.TOP_LEFT);
+
+        timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                if(lastFrame != 0) {
+                    monitor.record(PerformanceMonitor.FRAME, now - lastFrame);
+                }
+                lastFrame = now;
+                if(now - lastRefresh >= REFRESH_NANOS) {
+                    lastRefresh = now;
+                    refresh();
+                }
+            }
+        };
+    }
+
+    /**
+     * returns the overlay, to be stacked on top of the canvas
+     * @return returns the overlay's node
+     */
+    public Node getNode() {
+        return label;
+    }
+
+    /**
+     * returns true if the overlay is showing
+     * @return returns true if the overlay is showing
+     */
+    public boolean isShowing() {
+        return label.isVisible();
+    }
+
+    /**
+     * This function shows or hides the overlay. Frames are only timed while it's showing
+     * @param showing is true to show the overlay
+     */
+    public void setShowing(boolean showing) {
+        label.setVisible(showing);
+        if(showing) {
+            //the time since it was last shown isn't a frame
+            lastFrame = 0;
+            lastRefresh = 0;
+            timer.start();
+        } else {
+            timer.stop();
+        }
+    }
+
+    private void refresh() {
+        StringBuilder text = new StringBuilder();
+        for(int i = 0; i < PerformanceMonitor.NAMES.length; i++) {
+            LatencyHistogram histogram = monitor.getHistogram(i);
+            text.append(String.format("%-9s p50 %7.2f  p99 %7.2f  max %7.2f ms  (%d)%n",
+                    PerformanceMonitor.NAMES[i],
+                    histogram.getValueAtPercentile(50) / NANOS_PER_MILLI,
+                    histogram.getValueAtPercentile(99) / NANOS_PER_MILLI,
+                    histogram.getMax() / NANOS_PER_MILLI,
+                    histogram.getCount()));
+        }
+
+        Document shown = document.get();
+        text.append(String.format("shapes %d  history %d (%d to redo)%n",
+                shown.size(), shown.size() + shown.getRedoSize(), shown.getRedoSize()));
+        text.append(String.format("last stroke %d of %d points kept",
+                monitor.getStrokeKeptPoints(), monitor.getStrokeRawPoints()));
+        label.setText(text.toString());
+    }
+
+    @Override
+    public String toString() {
+        return "PerformanceHud{" +
+                "monitor=" + monitor +
+                ", showing=" + isShowing() +
+                '}';
+    }
+}